@@ -3,12 +3,14 @@ package com.example.admin_service.controller;
 import com.example.admin_service.feign.ItemFeignClient;
 import com.example.admin_service.feign.SellerFeignClient;
 import com.example.admin_service.feign.UserFeignClient;
-import com.example.admin_service.model.ItemDTO;
-import com.example.admin_service.model.SellerDTO;
-import com.example.admin_service.model.UserDTO;
+import com.example.common_service.dto.DirectoryPageDTO;
+import com.example.common_service.dto.ItemDTO;
+import com.example.common_service.dto.SellerDTO;
+import com.example.common_service.dto.UserDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -32,13 +34,15 @@ public class AdminController {
     }
 
     @GetMapping("/user")
-    public List<UserDTO> getAllUsers(){
-        return userFeignClient.getAllUsers();
+    public DirectoryPageDTO<UserDTO> getAllUsers(@RequestParam(defaultValue = "0") long afterId,
+                                                 @RequestParam(defaultValue = "50") int size){
+        return userFeignClient.getUserDirectory(afterId, size);
     }
 
     @GetMapping("/seller")
-    public List<SellerDTO> getAllSellers(){
-        return sellerFeignClient.getAllSellers();
+    public DirectoryPageDTO<SellerDTO> getAllSellers(@RequestParam(defaultValue = "0") long afterId,
+                                                     @RequestParam(defaultValue = "50") int size){
+        return sellerFeignClient.getSellerDirectory(afterId, size);
     }
 
     @GetMapping("/item")
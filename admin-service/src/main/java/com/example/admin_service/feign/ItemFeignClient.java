@@ -1,6 +1,7 @@
 package com.example.admin_service.feign;
 
-import com.example.admin_service.model.ItemDTO;
+import com.example.common_service.dto.ItemDTO;
+import com.example.common_service.resilience.LastKnownGood;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 
@@ -9,6 +10,7 @@ import java.util.List;
 @FeignClient(name = "item-service")
 public interface ItemFeignClient {
 
+    @LastKnownGood
     @GetMapping("/item")
     List<ItemDTO> getAllItems();
 
@@ -1,15 +1,23 @@
 package com.example.admin_service.feign;
 
-import com.example.admin_service.model.SellerDTO;
+import com.example.common_service.dto.DirectoryPageDTO;
+import com.example.common_service.dto.SellerDTO;
+import com.example.common_service.resilience.LastKnownGood;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
 @FeignClient(name = "seller-service")
 public interface SellerFeignClient {
 
+    @LastKnownGood
     @GetMapping("/seller")
     List<SellerDTO> getAllSellers();
 
+    @LastKnownGood
+    @GetMapping("/seller/directory")
+    DirectoryPageDTO<SellerDTO> getSellerDirectory(@RequestParam("afterId") long afterId, @RequestParam("size") int size);
+
 }
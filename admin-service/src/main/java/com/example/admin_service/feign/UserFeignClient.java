@@ -1,15 +1,23 @@
 package com.example.admin_service.feign;
 
-import com.example.admin_service.model.UserDTO;
+import com.example.common_service.dto.DirectoryPageDTO;
+import com.example.common_service.dto.UserDTO;
+import com.example.common_service.resilience.LastKnownGood;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
 @FeignClient(name = "user-service")
 public interface UserFeignClient {
 
+    @LastKnownGood
     @GetMapping("/user")
     List<UserDTO> getAllUsers();
 
+    @LastKnownGood
+    @GetMapping("/user/directory")
+    DirectoryPageDTO<UserDTO> getUserDirectory(@RequestParam("afterId") long afterId, @RequestParam("size") int size);
+
 }
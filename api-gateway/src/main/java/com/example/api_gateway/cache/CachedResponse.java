@@ -0,0 +1,68 @@
+package com.example.api_gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public final class CachedResponse {
+
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.CONTENT_LENGTH);
+
+    private final HttpStatusCode status;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    private final int sizeInBytes;
+
+    private CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        int size = body.length;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            size += header.getKey().length();
+            for (String value : header.getValue()) {
+                size += value.length();
+            }
+        }
+        this.sizeInBytes = size;
+    }
+
+    public static CachedResponse of(ServerHttpResponse response, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        HOP_BY_HOP_HEADERS.forEach(headers::remove);
+        HttpStatusCode status = response.getStatusCode() == null ? HttpStatusCode.valueOf(200) : response.getStatusCode();
+        return new CachedResponse(status, headers, body);
+    }
+
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public int getSizeInBytes() {
+        return sizeInBytes;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.api_gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+//passes the upstream body through as it arrives and keeps a copy of it, up to maxBytes, so it can be reused
+public class CapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    //bodies of these types are open-ended and never captured
+    private static final List<MediaType> STREAMING_TYPES = List.of(MediaType.TEXT_EVENT_STREAM,
+            MediaType.APPLICATION_NDJSON, MediaType.parseMediaType("application/stream+json"));
+
+    private final long maxBytes;
+
+    private final Consumer<CachedResponse> onCaptured;
+
+    private final Runnable onSkipped;
+
+    private boolean done;
+
+    //null once the body is known not to be captured
+    private ByteArrayOutputStream copy;
+
+    public CapturingResponseDecorator(ServerHttpResponse delegate, long maxBytes,
+                                      Consumer<CachedResponse> onCaptured, Runnable onSkipped) {
+        super(delegate);
+        this.maxBytes = maxBytes;
+        this.onCaptured = onCaptured;
+        this.onSkipped = onSkipped;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (!capturable()) {
+            skip();
+            return super.writeWith(body);
+        }
+        copy = new ByteArrayOutputStream();
+        Flux<? extends DataBuffer> teed = Flux.from(body)
+                .doOnNext(this::copy)
+                .doOnComplete(() -> {
+                    if (copy != null) {
+                        capture(copy.toByteArray());
+                    }
+                })
+                .doOnError(e -> skip())
+                .doOnCancel(this::skip);
+        return super.writeWith(teed);
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        skip();
+        return super.writeAndFlushWith(body);
+    }
+
+    @Override
+    public Mono<Void> setComplete() {
+        capture(new byte[0]);
+        return super.setComplete();
+    }
+
+    private boolean capturable() {
+        long contentLength = getHeaders().getContentLength();
+        if (contentLength > maxBytes) {
+            return false;
+        }
+        MediaType contentType = getHeaders().getContentType();
+        return contentType == null || STREAMING_TYPES.stream().noneMatch(contentType::isCompatibleWith);
+    }
+
+    private void copy(DataBuffer buffer) {
+        if (copy == null) {
+            return;
+        }
+        int readable = buffer.readableByteCount();
+        if (copy.size() + (long) readable > maxBytes) {
+            skip();
+            return;
+        }
+        //read a copy and rewind, the buffer itself still goes downstream
+        int position = buffer.readPosition();
+        byte[] bytes = new byte[readable];
+        buffer.read(bytes);
+        buffer.readPosition(position);
+        copy.writeBytes(bytes);
+    }
+
+    private void capture(byte[] bytes) {
+        if (!done) {
+            done = true;
+            copy = null;
+            onCaptured.accept(CachedResponse.of(getDelegate(), bytes));
+        }
+    }
+
+    private void skip() {
+        copy = null;
+        if (!done) {
+            done = true;
+            onSkipped.run();
+        }
+    }
+}
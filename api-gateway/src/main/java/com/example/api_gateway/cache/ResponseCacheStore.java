@@ -0,0 +1,172 @@
+package com.example.api_gateway.cache;
+
+import com.example.api_gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+//size-bounded LRU of upstream responses, keyed by region, path, query, the negotiation headers and any Vary'd
+//request headers
+@Component
+public class ResponseCacheStore {
+
+    //part of every key: upstreams pick JSON, Smile or gzip from these whether or not they answer with a Vary
+    static final List<String> NEGOTIATION_HEADERS = List.of("accept", "accept-encoding");
+
+    private final ResponseCacheProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final Map<String, List<String>> varyHeadersByKey = new ConcurrentHashMap<>();
+
+    //bumped by every purge; a response read before the purge must not be put back after it
+    private final Map<String, Long> generations = new HashMap<>();
+
+    private final Map<String, Counter[]> requestCounters = new ConcurrentHashMap<>();
+
+    private final Counter evictions;
+
+    private long totalBytes;
+
+    public ResponseCacheStore(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.evictions = meterRegistry.counter("gateway.response.cache.evictions");
+        Gauge.builder("gateway.response.cache.size", this, ResponseCacheStore::totalBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.entries", this, ResponseCacheStore::entryCount)
+                .register(meterRegistry);
+    }
+
+    //the Vary list learnt for a key applies to that negotiated representation only
+    public static String key(String region, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String path = request.getURI().getRawPath();
+        return appendHeaders(new StringBuilder(region).append(' ').append(query == null ? path : path + '?' + query),
+                NEGOTIATION_HEADERS, request.getHeaders()).toString();
+    }
+
+    public CachedResponse get(String region, String key, HttpHeaders requestHeaders) {
+        String fullKey = varyKey(key, varyHeadersByKey.get(key), requestHeaders);
+        CachedResponse response = null;
+        synchronized (this) {
+            Entry entry = entries.get(fullKey);
+            if (entry != null && entry.expiresAt() - System.nanoTime() <= 0) {
+                remove(fullKey);
+            } else if (entry != null) {
+                response = entry.response();
+            }
+        }
+        counters(region)[response == null ? 1 : 0].increment();
+        return response;
+    }
+
+    //taken before the request goes upstream and handed back to put
+    public synchronized long generation(String region) {
+        return generations.getOrDefault(region, 0L);
+    }
+
+    public void put(String region, String key, HttpHeaders requestHeaders, CachedResponse response, Duration ttl,
+                    long generation) {
+        if (response.getSizeInBytes() > properties.getMaxEntryBytes()) {
+            return;
+        }
+        List<String> varyHeaders = varyHeaders(response.getHeaders());
+        if (varyHeaders == null) {
+            return;
+        }
+        String fullKey = varyKey(key, varyHeaders, requestHeaders);
+        synchronized (this) {
+            if (generation(region) != generation) {
+                return;
+            }
+            varyHeadersByKey.put(key, varyHeaders);
+            remove(fullKey);
+            entries.put(fullKey, new Entry(region, response, System.nanoTime() + ttl.toNanos()));
+            totalBytes += response.getSizeInBytes();
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > properties.getMaxBytes() && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().response().getSizeInBytes();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public synchronized void purge(String region) {
+        generations.merge(region, 1L, Long::sum);
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.region().equals(region)) {
+                totalBytes -= entry.response().getSizeInBytes();
+                it.remove();
+            }
+        }
+        varyHeadersByKey.keySet().removeIf(key -> key.startsWith(region + ' '));
+    }
+
+    private void remove(String fullKey) {
+        Entry previous = entries.remove(fullKey);
+        if (previous != null) {
+            totalBytes -= previous.response().getSizeInBytes();
+        }
+    }
+
+    //null when the response varies on everything and so can never be reused
+    private static List<String> varyHeaders(HttpHeaders responseHeaders) {
+        List<String> names = new ArrayList<>();
+        for (String vary : responseHeaders.getVary()) {
+            if (vary.equals("*")) {
+                return null;
+            }
+            String name = vary.toLowerCase(Locale.ROOT);
+            if (!NEGOTIATION_HEADERS.contains(name) && !names.contains(name)) {
+                names.add(name);
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private static String varyKey(String key, List<String> varyHeaders, HttpHeaders requestHeaders) {
+        if (varyHeaders == null || varyHeaders.isEmpty()) {
+            return key;
+        }
+        return appendHeaders(new StringBuilder(key), varyHeaders, requestHeaders).toString();
+    }
+
+    private static StringBuilder appendHeaders(StringBuilder key, List<String> names, HttpHeaders requestHeaders) {
+        for (String name : names) {
+            key.append('\n').append(name).append('=').append(String.join(",", requestHeaders.getOrEmpty(name)));
+        }
+        return key;
+    }
+
+    private Counter[] counters(String region) {
+        return requestCounters.computeIfAbsent(region, r -> new Counter[]{
+                meterRegistry.counter("gateway.response.cache.requests", "region", r, "result", "hit"),
+                meterRegistry.counter("gateway.response.cache.requests", "region", r, "result", "miss")});
+    }
+
+    private synchronized double totalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized double entryCount() {
+        return entries.size();
+    }
+
+    private record Entry(String region, CachedResponse response, long expiresAt) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "gateway.latency")
+public class LatencyMetricsProperties {
+
+    //requests slower than this count as an SLO breach
+    private Duration slo = Duration.ofMillis(500);
+
+    //per route id overrides of the SLO
+    private Map<String, Duration> routeSlo = new HashMap<>();
+
+    private Duration minExpected = Duration.ofMillis(1);
+
+    private Duration maxExpected = Duration.ofSeconds(30);
+
+    public Duration sloFor(String routeId) {
+        return routeSlo.getOrDefault(routeId, slo);
+    }
+
+    public Duration getSlo() {
+        return slo;
+    }
+
+    public void setSlo(Duration slo) {
+        this.slo = slo;
+    }
+
+    public Map<String, Duration> getRouteSlo() {
+        return routeSlo;
+    }
+
+    public void setRouteSlo(Map<String, Duration> routeSlo) {
+        this.routeSlo = routeSlo;
+    }
+
+    public Duration getMinExpected() {
+        return minExpected;
+    }
+
+    public void setMinExpected(Duration minExpected) {
+        this.minExpected = minExpected;
+    }
+
+    public Duration getMaxExpected() {
+        return maxExpected;
+    }
+
+    public void setMaxExpected(Duration maxExpected) {
+        this.maxExpected = maxExpected;
+    }
+}
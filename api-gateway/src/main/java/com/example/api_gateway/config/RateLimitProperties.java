@@ -0,0 +1,90 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private Limits defaults = new Limits();
+
+    //per route id overrides of the defaults
+    private Map<String, Limits> routes = new HashMap<>();
+
+    //client buckets kept per route, the clients not seen for longest are dropped first
+    private int maxTrackedClients = 100_000;
+
+    public Limits limitsFor(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    public Limits getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Limits defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Limits> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Limits> routes) {
+        this.routes = routes;
+    }
+
+    public int getMaxTrackedClients() {
+        return maxTrackedClients;
+    }
+
+    public void setMaxTrackedClients(int maxTrackedClients) {
+        this.maxTrackedClients = maxTrackedClients;
+    }
+
+    //rates are requests per second, bursts are how many may arrive at once; 0 disables that bucket
+    public static class Limits {
+
+        private int clientRate = 20;
+
+        private int clientBurst = 40;
+
+        private int routeRate = 0;
+
+        private int routeBurst = 0;
+
+        public int getClientRate() {
+            return clientRate;
+        }
+
+        public void setClientRate(int clientRate) {
+            this.clientRate = clientRate;
+        }
+
+        public int getClientBurst() {
+            return clientBurst;
+        }
+
+        public void setClientBurst(int clientBurst) {
+            this.clientBurst = clientBurst;
+        }
+
+        public int getRouteRate() {
+            return routeRate;
+        }
+
+        public void setRouteRate(int routeRate) {
+            this.routeRate = routeRate;
+        }
+
+        public int getRouteBurst() {
+            return routeBurst;
+        }
+
+        public void setRouteBurst(int routeBurst) {
+            this.routeBurst = routeBurst;
+        }
+    }
+}
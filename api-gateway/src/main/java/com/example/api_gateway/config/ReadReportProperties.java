@@ -0,0 +1,30 @@
+package com.example.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "gateway.read-report")
+public class ReadReportProperties {
+
+    //how long reads answered by the gateway are counted before they are sent to the service
+    private Duration interval = Duration.ofSeconds(5);
+
+    private Duration timeout = Duration.ofSeconds(2);
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
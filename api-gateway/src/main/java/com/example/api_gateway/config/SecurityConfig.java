@@ -0,0 +1,27 @@
+package com.example.api_gateway.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+@Configuration
+@EnableWebFluxSecurity
+public class SecurityConfig {
+
+    //service-to-service endpoints that sit under a public route's path, callers reach the services directly
+    private static final String[] INTERNAL_PATHS = {"/item/trending/purchases/**", "/item/trending/reads/**", "/item/stock/**", "/purchase/checkout/**"};
+
+    @Bean
+    public SecurityWebFilterChain filterChain(ServerHttpSecurity http) {
+        http
+                .authorizeExchange(auth -> auth
+                        .pathMatchers(INTERNAL_PATHS).denyAll()
+                        .anyExchange().permitAll())
+                .headers(headers -> headers.cache(cache -> cache.disable())) //leave caching headers to the services
+                .csrf((csrf) -> csrf.disable()); //disable csrf if needed.
+        return http.build();
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.trending.ServedReadReporter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+
+//hands the ids of GETs the gateway answered itself, from the response cache or a coalesced call, to the
+//ServedReadReporter, so the service's view of what is read stays complete
+@Component
+public class ReportServedReadsGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ReportServedReadsGatewayFilterFactory.Config> {
+
+    //set by the filters that write a response without going upstream
+    public static final String SERVED_BY_GATEWAY_ATTR = ReportServedReadsGatewayFilterFactory.class.getName() + ".served";
+
+    private final ServedReadReporter reporter;
+
+    public ReportServedReadsGatewayFilterFactory(ServedReadReporter reporter) {
+        super(Config.class);
+        this.reporter = reporter;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("pattern", "service", "target");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathPattern pattern = PathPatternParser.defaultInstance.parse(config.getPattern());
+        GatewayFilter filter = (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            return chain.filter(exchange).doOnSuccess(done -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (exchange.getAttribute(SERVED_BY_GATEWAY_ATTR) == null || status == null || !status.is2xxSuccessful()) {
+                    return;
+                }
+                PathPattern.PathMatchInfo match = pattern.matchAndExtract(exchange.getRequest().getPath().pathWithinApplication());
+                if (match == null) {
+                    return;
+                }
+                try {
+                    reporter.record(config.getService(), config.getTarget(), Long.parseLong(match.getUriVariables().get("id")));
+                } catch (NumberFormatException ignored) {
+                    //not an id the service would have counted either
+                }
+            });
+        };
+        //outside the cache and coalescing filters, which answer without calling further down the chain
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2);
+    }
+
+    public static class Config {
+
+        //path of the reads to report, with an {id} variable
+        private String pattern;
+
+        //service whose instances get the counts
+        private String service;
+
+        //path on those instances that takes a JSON object of id to count
+        private String target;
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getService() {
+            return service;
+        }
+
+        public void setService(String service) {
+            this.service = service;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public void setTarget(String target) {
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.cache.CachedResponse;
+import com.example.api_gateway.cache.CapturingResponseDecorator;
+import com.example.api_gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//collapses identical concurrent GETs on a route into one upstream call and fans the response out
+@Component
+public class RequestCoalescingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ResponseCacheProperties cacheProperties;
+
+    private final Map<String, Mono<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    public RequestCoalescingGatewayFilterFactory(MeterRegistry meterRegistry, ResponseCacheProperties cacheProperties) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.cacheProperties = cacheProperties;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("keyHeaders");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<String> keyHeaders = List.of(config.getKeyHeaders().split("\\s*;\\s*"));
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+                return chain.filter(exchange);
+            }
+
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route == null ? "unknown" : route.getId();
+            String key = key(routeId, request, keyHeaders);
+            Sinks.One<CachedResponse> sink = Sinks.one();
+            Mono<CachedResponse> flight = sink.asMono();
+            Mono<CachedResponse> existing = inFlight.putIfAbsent(key, flight);
+            Counter[] routeCounters = counters(routeId);
+
+            if (existing != null) {
+                routeCounters[1].increment();
+                //if the leader fails, each waiter goes upstream on its own
+                return existing.flatMap(response -> {
+                            exchange.getAttributes().put(ReportServedReadsGatewayFilterFactory.SERVED_BY_GATEWAY_ATTR, true);
+                            return response.writeTo(exchange.getResponse());
+                        })
+                        .onErrorResume(e -> chain.filter(exchange));
+            }
+
+            routeCounters[0].increment();
+            //bodies over the cache's entry limit, and streams, are not held for fan-out, waiters are released at once
+            CapturingResponseDecorator response = new CapturingResponseDecorator(exchange.getResponse(),
+                    cacheProperties.getMaxEntryBytes(), captured -> {
+                        inFlight.remove(key, flight);
+                        sink.tryEmitValue(captured);
+                    }, () -> {
+                        if (inFlight.remove(key, flight)) {
+                            sink.tryEmitError(new IllegalStateException("Coalesced response is not shareable"));
+                        }
+                    });
+            return chain.filter(exchange.mutate().response(response).build())
+                    .doFinally(signal -> {
+                        if (inFlight.remove(key, flight)) {
+                            sink.tryEmitError(new IllegalStateException("Coalesced request ended without a response"));
+                        }
+                    });
+        };
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static String key(String routeId, ServerHttpRequest request, List<String> keyHeaders) {
+        StringBuilder key = new StringBuilder(routeId).append(' ').append(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        for (String name : keyHeaders) {
+            key.append('\n').append(String.join(",", request.getHeaders().getOrEmpty(name)));
+        }
+        return key.toString();
+    }
+
+    private Counter[] counters(String routeId) {
+        return counters.computeIfAbsent(routeId, id -> {
+            Counter leaders = meterRegistry.counter("gateway.coalescing.requests", "route", id, "role", "leader");
+            Counter followers = meterRegistry.counter("gateway.coalescing.requests", "route", id, "role", "follower");
+            Gauge.builder("gateway.coalescing.collapse.ratio", () -> {
+                double total = leaders.count() + followers.count();
+                return total == 0 ? 0 : followers.count() / total;
+            }).tag("route", id).register(meterRegistry);
+            return new Counter[]{leaders, followers};
+        });
+    }
+
+    public static class Config {
+
+        //request headers that must match for two requests to share a response, separated by ';'
+        private String keyHeaders = "Accept;Accept-Encoding";
+
+        public String getKeyHeaders() {
+            return keyHeaders;
+        }
+
+        public void setKeyHeaders(String keyHeaders) {
+            this.keyHeaders = keyHeaders;
+        }
+    }
+}
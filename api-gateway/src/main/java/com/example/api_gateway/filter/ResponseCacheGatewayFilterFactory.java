@@ -0,0 +1,115 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.cache.CachedResponse;
+import com.example.api_gateway.cache.CapturingResponseDecorator;
+import com.example.api_gateway.cache.ResponseCacheStore;
+import com.example.api_gateway.config.ResponseCacheProperties;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+//caches GET responses of a route in a named region; writes on the same route purge the region
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCacheStore store;
+
+    private final ResponseCacheProperties properties;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store, ResponseCacheProperties properties) {
+        super(Config.class);
+        this.store = store;
+        this.properties = properties;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("region", "ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String region = config.getRegion();
+        Duration ttl = config.getTtl() == null ? properties.getTtl() : DurationStyle.detectAndParse(config.getTtl());
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return ResponseCachePurgeGatewayFilterFactory.purgeAfterWrite(exchange, chain, store, region);
+            }
+            if (bypassesCache(request.getHeaders())) {
+                return chain.filter(exchange);
+            }
+
+            String key = ResponseCacheStore.key(region, request);
+            CachedResponse cached = store.get(region, key, request.getHeaders());
+            if (cached != null) {
+                Mono<Void> write = cached.writeTo(exchange.getResponse());
+                exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+                exchange.getAttributes().put(ReportServedReadsGatewayFilterFactory.SERVED_BY_GATEWAY_ATTR, true);
+                return write;
+            }
+
+            exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+            //a write that purges the region while this request is upstream may have changed what it read
+            long generation = store.generation(region);
+            CapturingResponseDecorator response = new CapturingResponseDecorator(exchange.getResponse(),
+                    properties.getMaxEntryBytes(), captured -> {
+                        if (isCacheable(captured)) {
+                            store.put(region, key, request.getHeaders(), captured, ttl, generation);
+                        }
+                    }, () -> {});
+            return chain.filter(exchange.mutate().response(response).build());
+        };
+        //must wrap the response before NettyWriteResponseFilter writes the upstream body
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static boolean bypassesCache(HttpHeaders requestHeaders) {
+        String cacheControl = requestHeaders.getCacheControl();
+        return requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)
+                || (cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store")));
+    }
+
+    private static boolean isCacheable(CachedResponse response) {
+        String cacheControl = response.getHeaders().getCacheControl();
+        return response.getStatus().value() == 200
+                && !response.getHeaders().containsKey(HttpHeaders.SET_COOKIE)
+                && (cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private")));
+    }
+
+    public static class Config {
+
+        private String region;
+
+        private String ttl;
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public String getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(String ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
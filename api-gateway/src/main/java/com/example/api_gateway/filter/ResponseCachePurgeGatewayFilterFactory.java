@@ -0,0 +1,63 @@
+package com.example.api_gateway.filter;
+
+import com.example.api_gateway.cache.ResponseCacheStore;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+//drops a cache region once a write through this route succeeds
+@Component
+public class ResponseCachePurgeGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCachePurgeGatewayFilterFactory.Config> {
+
+    private final ResponseCacheStore store;
+
+    public ResponseCachePurgeGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("region");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> purgeAfterWrite(exchange, chain, store, config.getRegion());
+    }
+
+    static Mono<Void> purgeAfterWrite(ServerWebExchange exchange, GatewayFilterChain chain,
+                                      ResponseCacheStore store, String region) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).then(Mono.fromRunnable(() -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            if (status != null && status.is2xxSuccessful()) {
+                store.purge(region);
+            }
+        }));
+    }
+
+    public static class Config {
+
+        private String region;
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+    }
+}
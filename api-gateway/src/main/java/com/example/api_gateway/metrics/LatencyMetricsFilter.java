@@ -0,0 +1,118 @@
+package com.example.api_gateway.metrics;
+
+import com.example.api_gateway.config.LatencyMetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//records end-to-end latency per route, upstream instance and status class into HdrHistogram-backed timers
+@Component
+public class LatencyMetricsFilter implements GlobalFilter, Ordered {
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx", "none"};
+
+    //set when no upstream was called, e.g. a response cache hit or a rejected request
+    private static final String NO_INSTANCE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    private final LatencyMetricsProperties properties;
+
+    private final Map<String, RouteMeters> routes = new ConcurrentHashMap<>();
+
+    public LatencyMetricsFilter(MeterRegistry meterRegistry, LatencyMetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> record(exchange, System.nanoTime() - start));
+    }
+
+    private void record(ServerWebExchange exchange, long nanos) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return;
+        }
+        RouteMeters meters = routes.get(route.getId());
+        if (meters == null) {
+            meters = routes.computeIfAbsent(route.getId(), RouteMeters::new);
+        }
+        //the request url only holds a real host once the load balancer has picked an instance
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        String instance = requestUrl == null || "lb".equals(requestUrl.getScheme()) || requestUrl.getRawAuthority() == null
+                ? NO_INSTANCE : requestUrl.getRawAuthority();
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        int statusClass = status == null || status.value() < 100 || status.value() > 599 ? 5 : status.value() / 100 - 1;
+
+        meters.timer(instance, statusClass).record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos > meters.sloNanos) {
+            meters.sloBreaches.increment();
+        }
+    }
+
+    private final class RouteMeters {
+
+        private final String routeId;
+
+        private final long sloNanos;
+
+        private final Counter sloBreaches;
+
+        private final Map<String, Timer[]> timersByInstance = new ConcurrentHashMap<>();
+
+        private RouteMeters(String routeId) {
+            this.routeId = routeId;
+            this.sloNanos = properties.sloFor(routeId).toNanos();
+            this.sloBreaches = Counter.builder("gateway.route.slo.breaches")
+                    .description("Requests slower than the route's latency SLO")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(String instance, int statusClass) {
+            Timer[] timers = timersByInstance.get(instance);
+            if (timers == null) {
+                timers = timersByInstance.computeIfAbsent(instance, key -> new Timer[STATUS_CLASSES.length]);
+            }
+            Timer timer = timers[statusClass];
+            if (timer == null) {
+                //registration is idempotent, so a racing thread just gets the same timer back
+                timer = Timer.builder("gateway.route.latency")
+                        .description("End-to-end gateway latency")
+                        .tag("route", routeId)
+                        .tag("instance", instance)
+                        .tag("status", STATUS_CLASSES[statusClass])
+                        .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                        .publishPercentileHistogram()
+                        .serviceLevelObjectives(properties.sloFor(routeId))
+                        .minimumExpectedValue(properties.getMinExpected())
+                        .maximumExpectedValue(properties.getMaxExpected())
+                        .register(meterRegistry);
+                timers[statusClass] = timer;
+            }
+            return timer;
+        }
+    }
+}
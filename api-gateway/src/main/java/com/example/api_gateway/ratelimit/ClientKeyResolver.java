@@ -0,0 +1,34 @@
+package com.example.api_gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+
+//identifies a client by its authenticated principal, falling back to the remote address; nothing the caller
+//sends in a header is trusted, so a client cannot get a fresh bucket by changing it
+@Component
+public class ClientKeyResolver implements KeyResolver {
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .filter(ClientKeyResolver::isAuthenticated)
+                .map(principal -> "principal:" + principal.getName())
+                .switchIfEmpty(Mono.defer(() -> {
+                    InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+                    return remoteAddress == null || remoteAddress.getAddress() == null
+                            ? Mono.empty() : Mono.just("address:" + remoteAddress.getAddress().getHostAddress());
+                }));
+    }
+
+    private static boolean isAuthenticated(Principal principal) {
+        return !(principal instanceof Authentication authentication)
+                || (authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken));
+    }
+}
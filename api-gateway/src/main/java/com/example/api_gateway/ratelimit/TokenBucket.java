@@ -0,0 +1,34 @@
+package com.example.api_gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//token bucket kept as a single theoretical arrival time (GCRA), so acquiring is one CAS and never locks
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival = new AtomicLong();
+
+    //returns 0 when a token was taken, otherwise the nanos until one will be available
+    long tryAcquire(long now, long intervalNanos, long burstNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    //what tryAcquire would return, without taking the token
+    long waitFor(long now, long intervalNanos, long burstNanos) {
+        return Math.max(0, Math.max(theoreticalArrival.get(), now) + intervalNanos - now - burstNanos);
+    }
+
+    //gives back a token taken by tryAcquire
+    void refund(long intervalNanos) {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+}
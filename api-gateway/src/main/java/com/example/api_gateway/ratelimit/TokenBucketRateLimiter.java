@@ -0,0 +1,171 @@
+package com.example.api_gateway.ratelimit;
+
+import com.example.api_gateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.support.AbstractStatefulConfigurable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//in-memory per-client and per-route token buckets, no external store; limits come from gateway.rate-limit
+@Component
+public class TokenBucketRateLimiter extends AbstractStatefulConfigurable<RateLimitProperties.Limits>
+        implements RateLimiter<RateLimitProperties.Limits> {
+
+    private static final Mono<Response> ALLOWED = Mono.just(new Response(true, Map.of()));
+
+    private final RateLimitProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final long origin = System.nanoTime();
+
+    private final Map<String, RouteBuckets> routes = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        super(RateLimitProperties.Limits.class);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        long retryAfterNanos = tryAcquire(routeId, id, System.nanoTime() - origin);
+        if (retryAfterNanos == 0) {
+            return ALLOWED;
+        }
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999));
+        return Mono.just(new Response(false, Map.of("Retry-After", Long.toString(retryAfterSeconds))));
+    }
+
+    //0 when admitted, otherwise nanos until the request would be admitted; a rejected request spends no token
+    long tryAcquire(String routeId, String clientId, long now) {
+        RouteBuckets buckets = routes.get(routeId);
+        if (buckets == null) {
+            buckets = routes.computeIfAbsent(routeId, this::newRouteBuckets);
+        }
+        TokenBucket client = buckets.clients == null ? null : buckets.clients.get(clientId);
+
+        //both buckets are checked before either is spent, so a client is not charged for a request the route refuses
+        long clientWait = client == null ? 0 : client.waitFor(now, buckets.clientInterval, buckets.clientBurst);
+        if (clientWait > 0) {
+            buckets.clientRejections.increment();
+            return clientWait;
+        }
+        long routeWait = buckets.route == null ? 0 : buckets.route.waitFor(now, buckets.routeInterval, buckets.routeBurst);
+        if (routeWait > 0) {
+            buckets.routeRejections.increment();
+            return routeWait;
+        }
+
+        //a concurrent request may have taken the last token since the check
+        if (client != null) {
+            clientWait = client.tryAcquire(now, buckets.clientInterval, buckets.clientBurst);
+            if (clientWait > 0) {
+                buckets.clientRejections.increment();
+                return clientWait;
+            }
+        }
+        if (buckets.route != null) {
+            routeWait = buckets.route.tryAcquire(now, buckets.routeInterval, buckets.routeBurst);
+            if (routeWait > 0) {
+                if (client != null) {
+                    client.refund(buckets.clientInterval);
+                }
+                buckets.routeRejections.increment();
+                return routeWait;
+            }
+        }
+        return 0;
+    }
+
+    private RouteBuckets newRouteBuckets(String routeId) {
+        RateLimitProperties.Limits limits = properties.limitsFor(routeId);
+        return new RouteBuckets(limits, properties.getMaxTrackedClients(),
+                meterRegistry.counter("gateway.ratelimit.rejections", "route", routeId, "bucket", "client"),
+                meterRegistry.counter("gateway.ratelimit.rejections", "route", routeId, "bucket", "route"));
+    }
+
+    private static final class RouteBuckets {
+
+        private final long clientInterval;
+
+        private final long clientBurst;
+
+        private final long routeInterval;
+
+        private final long routeBurst;
+
+        private final TokenBucket route;
+
+        //null when the route has no per-client limit
+        private final ClientBuckets clients;
+
+        private final Counter clientRejections;
+
+        private final Counter routeRejections;
+
+        private RouteBuckets(RateLimitProperties.Limits limits, int maxTrackedClients,
+                             Counter clientRejections, Counter routeRejections) {
+            this.clientInterval = limits.getClientRate() > 0 ? TimeUnit.SECONDS.toNanos(1) / limits.getClientRate() : 0;
+            this.clientBurst = clientInterval * Math.max(1, limits.getClientBurst());
+            this.routeInterval = limits.getRouteRate() > 0 ? TimeUnit.SECONDS.toNanos(1) / limits.getRouteRate() : 0;
+            this.routeBurst = routeInterval * Math.max(1, limits.getRouteBurst());
+            this.route = routeInterval > 0 ? new TokenBucket() : null;
+            this.clients = clientInterval > 0 ? new ClientBuckets(Math.max(1, maxTrackedClients / 2)) : null;
+            this.clientRejections = clientRejections;
+            this.routeRejections = routeRejections;
+        }
+    }
+
+    //client buckets in two generations: a bucket found in the older one moves to the current one, and a full current
+    //generation replaces the older one, dropping the clients not seen for a whole generation without sweeping the map
+    static final class ClientBuckets {
+
+        private final int generationSize;
+
+        private volatile Map<String, TokenBucket> current = new ConcurrentHashMap<>();
+
+        private volatile Map<String, TokenBucket> previous = Map.of();
+
+        ClientBuckets(int generationSize) {
+            this.generationSize = generationSize;
+        }
+
+        TokenBucket get(String clientId) {
+            Map<String, TokenBucket> recent = current;
+            TokenBucket bucket = recent.get(clientId);
+            if (bucket != null) {
+                return bucket;
+            }
+            bucket = previous.get(clientId);
+            if (bucket == null) {
+                bucket = new TokenBucket();
+            }
+            TokenBucket raced = recent.putIfAbsent(clientId, bucket);
+            if (raced != null) {
+                return raced;
+            }
+            if (recent.size() >= generationSize) {
+                rotate(recent);
+            }
+            return bucket;
+        }
+
+        int size() {
+            return current.size() + previous.size();
+        }
+
+        private synchronized void rotate(Map<String, TokenBucket> full) {
+            if (current == full) {
+                previous = full;
+                current = new ConcurrentHashMap<>();
+            }
+        }
+    }
+}
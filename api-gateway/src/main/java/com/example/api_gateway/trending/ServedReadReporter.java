@@ -0,0 +1,112 @@
+package com.example.api_gateway.trending;
+
+import com.example.api_gateway.config.ReadReportProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+//counts reads the gateway answered without the service seeing them, and posts the counts per id to every
+//instance of the service at a fixed interval; a failed post loses that interval's counts
+@Component
+public class ServedReadReporter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ServedReadReporter.class);
+
+    private final ReactiveDiscoveryClient discoveryClient;
+
+    private final WebClient webClient;
+
+    private final ReadReportProperties properties;
+
+    private final Counter failures;
+
+    private final Map<Target, Map<Long, LongAdder>> counts = new ConcurrentHashMap<>();
+
+    private volatile Disposable reports;
+
+    public ServedReadReporter(ReactiveDiscoveryClient discoveryClient, WebClient.Builder webClient,
+                              ReadReportProperties properties, MeterRegistry meterRegistry) {
+        this.discoveryClient = discoveryClient;
+        this.webClient = webClient.build();
+        this.properties = properties;
+        this.failures = meterRegistry.counter("gateway.read.report.failures");
+    }
+
+    public void record(String serviceId, String path, long id) {
+        counts.computeIfAbsent(new Target(serviceId, path), target -> new ConcurrentHashMap<>())
+                .computeIfAbsent(id, i -> new LongAdder())
+                .increment();
+    }
+
+    Mono<Void> report() {
+        return Flux.fromIterable(counts.entrySet())
+                .flatMap(entry -> {
+                    Map<Long, Long> batch = new HashMap<>();
+                    //ids read since the last report stay mapped, a count racing its removal may be lost
+                    entry.getValue().forEach((id, count) -> batch.put(id, count.sumThenReset()));
+                    entry.getValue().values().removeIf(count -> count.sum() == 0);
+                    batch.values().removeIf(count -> count == 0);
+                    return batch.isEmpty() ? Mono.empty() : post(entry.getKey(), batch);
+                })
+                .then();
+    }
+
+    private Mono<Void> post(Target target, Map<Long, Long> batch) {
+        return discoveryClient.getInstances(target.serviceId())
+                .flatMap(instance -> webClient.post()
+                        .uri(instance.getUri().resolve(target.path()))
+                        .bodyValue(batch)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .timeout(properties.getTimeout())
+                        .onErrorResume(e -> {
+                            failures.increment();
+                            log.debug("Reporting {} served reads to {} failed", batch.size(), describe(instance), e);
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private static String describe(ServiceInstance instance) {
+        return instance.getServiceId() + " at " + instance.getUri();
+    }
+
+    @Override
+    public void start() {
+        reports = Flux.interval(properties.getInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> report().onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable running = reports;
+        reports = null;
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return reports != null;
+    }
+
+    private record Target(String serviceId, String path) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.api_gateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapturingResponseDecoratorTests {
+
+	private static Flux<DataBuffer> chunks(String... parts) {
+		return Flux.fromArray(parts)
+				.map(part -> DefaultDataBufferFactory.sharedInstance.wrap(part.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void forwardsAndCapturesBodyWithinLimit() {
+		MockServerHttpResponse upstream = new MockServerHttpResponse();
+		AtomicReference<CachedResponse> captured = new AtomicReference<>();
+		AtomicBoolean skipped = new AtomicBoolean();
+		CapturingResponseDecorator response = new CapturingResponseDecorator(upstream, 16, captured::set, () -> skipped.set(true));
+
+		response.writeWith(chunks("{\"a\":", "1}")).block();
+
+		assertEquals("{\"a\":1}", upstream.getBodyAsString().block());
+		assertEquals("{\"a\":1}", new String(captured.get().getBody(), StandardCharsets.UTF_8));
+		assertFalse(skipped.get());
+	}
+
+	@Test
+	void stopsCapturingOncePastTheLimitButForwardsEverything() {
+		MockServerHttpResponse upstream = new MockServerHttpResponse();
+		AtomicReference<CachedResponse> captured = new AtomicReference<>();
+		AtomicBoolean skipped = new AtomicBoolean();
+		CapturingResponseDecorator response = new CapturingResponseDecorator(upstream, 8, captured::set, () -> skipped.set(true));
+
+		response.writeWith(chunks("12345", "67890", "abc")).block();
+
+		assertEquals("1234567890abc", upstream.getBodyAsString().block());
+		assertNull(captured.get());
+		assertTrue(skipped.get());
+	}
+
+	@Test
+	void neverCapturesStreamingContentTypes() {
+		MockServerHttpResponse upstream = new MockServerHttpResponse();
+		upstream.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+		AtomicReference<CachedResponse> captured = new AtomicReference<>();
+		AtomicBoolean skipped = new AtomicBoolean();
+		CapturingResponseDecorator response = new CapturingResponseDecorator(upstream, 1024, captured::set, () -> skipped.set(true));
+
+		response.writeWith(chunks("{\"id\":1}\n", "{\"id\":2}\n")).block();
+
+		assertEquals("{\"id\":1}\n{\"id\":2}\n", upstream.getBodyAsString().block());
+		assertNull(captured.get());
+		assertTrue(skipped.get());
+	}
+}
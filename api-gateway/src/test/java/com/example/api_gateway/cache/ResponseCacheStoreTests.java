@@ -0,0 +1,133 @@
+package com.example.api_gateway.cache;
+
+import com.example.api_gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheStoreTests {
+
+	private static final Duration TTL = Duration.ofMinutes(1);
+
+	private final ResponseCacheStore store = new ResponseCacheStore(new ResponseCacheProperties(), new SimpleMeterRegistry());
+
+	private static MockServerHttpRequest get(String uri, String... headers) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(uri);
+		for (int i = 0; i < headers.length; i += 2) {
+			request.header(headers[i], headers[i + 1]);
+		}
+		return request.build();
+	}
+
+	private static CachedResponse response(String body, String... headers) {
+		MockServerHttpResponse response = new MockServerHttpResponse();
+		for (int i = 0; i < headers.length; i += 2) {
+			response.getHeaders().add(headers[i], headers[i + 1]);
+		}
+		return CachedResponse.of(response, body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void put(String region, MockServerHttpRequest request, CachedResponse response) {
+		store.put(region, ResponseCacheStore.key(region, request), request.getHeaders(), response, TTL, store.generation(region));
+	}
+
+	private String body(String region, MockServerHttpRequest request) {
+		CachedResponse cached = store.get(region, ResponseCacheStore.key(region, request), request.getHeaders());
+		return cached == null ? null : new String(cached.getBody(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void keyIncludesPathQueryAndNegotiationHeaders() {
+		String key = ResponseCacheStore.key("catalog", get("/item?page=2", "Accept", "application/x-jackson-smile", "Accept-Encoding", "gzip"));
+
+		assertEquals("catalog /item?page=2\naccept=application/x-jackson-smile\naccept-encoding=gzip", key);
+		assertNotEquals(key, ResponseCacheStore.key("catalog", get("/item?page=2", "Accept-Encoding", "gzip")));
+	}
+
+	@Test
+	void separatesRepresentationsByAcceptWithoutVary() {
+		put("catalog", get("/item", "Accept", "application/json"), response("json"));
+		put("catalog", get("/item", "Accept", "application/x-jackson-smile"), response("smile"));
+
+		assertEquals("json", body("catalog", get("/item", "Accept", "application/json")));
+		assertEquals("smile", body("catalog", get("/item", "Accept", "application/x-jackson-smile")));
+		assertNull(body("catalog", get("/item")));
+	}
+
+	@Test
+	void separatesRepresentationsByAcceptEncodingWithoutVary() {
+		put("catalog", get("/item", "Accept-Encoding", "gzip"), response("gzipped", "Content-Encoding", "gzip"));
+
+		assertEquals("gzipped", body("catalog", get("/item", "Accept-Encoding", "gzip")));
+		assertNull(body("catalog", get("/item")));
+	}
+
+	@Test
+	void addsVariedRequestHeadersToTheKey() {
+		put("entity", get("/item/1", "X-Tenant", "a"), response("a", "Vary", "X-Tenant"));
+		put("entity", get("/item/1", "X-Tenant", "b"), response("b", "Vary", "X-Tenant"));
+
+		assertEquals("a", body("entity", get("/item/1", "X-Tenant", "a")));
+		assertEquals("b", body("entity", get("/item/1", "X-Tenant", "b")));
+		assertNull(body("entity", get("/item/1", "X-Tenant", "c")));
+	}
+
+	@Test
+	void keepsTheVaryListPerNegotiatedRepresentation() {
+		put("entity", get("/item/1", "Accept", "application/json", "X-Tenant", "a"), response("json", "Vary", "X-Tenant"));
+		put("entity", get("/item/1", "Accept", "application/x-jackson-smile"), response("smile", "Vary", "Accept"));
+
+		assertEquals("json", body("entity", get("/item/1", "Accept", "application/json", "X-Tenant", "a")));
+		assertNull(body("entity", get("/item/1", "Accept", "application/json", "X-Tenant", "b")));
+		assertEquals("smile", body("entity", get("/item/1", "Accept", "application/x-jackson-smile", "X-Tenant", "b")));
+	}
+
+	@Test
+	void neverCachesVaryStar() {
+		put("entity", get("/item/1"), response("any", HttpHeaders.VARY, "*"));
+
+		assertNull(body("entity", get("/item/1")));
+	}
+
+	@Test
+	void expiredEntriesMiss() {
+		MockServerHttpRequest request = get("/item/1");
+		store.put("entity", ResponseCacheStore.key("entity", request), request.getHeaders(), response("old"), Duration.ZERO, 0);
+
+		assertNull(body("entity", request));
+	}
+
+	@Test
+	void purgeDropsOnlyTheRegion() {
+		put("catalog", get("/item"), response("catalog"));
+		put("entity", get("/item/1"), response("entity"));
+
+		store.purge("catalog");
+
+		assertNull(body("catalog", get("/item")));
+		assertEquals("entity", body("entity", get("/item/1")));
+	}
+
+	@Test
+	void dropsAResponseReadBeforeAPurgeOfItsRegion() {
+		MockServerHttpRequest request = get("/item");
+		long catalog = store.generation("catalog");
+		long entity = store.generation("entity");
+
+		store.purge("catalog");
+		store.put("catalog", ResponseCacheStore.key("catalog", request), request.getHeaders(), response("stale"), TTL, catalog);
+		store.put("entity", ResponseCacheStore.key("entity", request), request.getHeaders(), response("fresh"), TTL, entity);
+
+		assertNull(body("catalog", request));
+		assertEquals("fresh", body("entity", request));
+		put("catalog", request, response("current"));
+		assertEquals("current", body("catalog", request));
+	}
+}
@@ -0,0 +1,35 @@
+package com.example.api_gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientKeyResolverTests {
+
+	private final ClientKeyResolver resolver = new ClientKeyResolver();
+
+	@Test
+	void ignoresClientSuppliedHeadersAndUsesTheRemoteAddress() {
+		MockServerHttpRequest request = MockServerHttpRequest.get("/item")
+				.header("X-Client-Id", "rotated-1")
+				.remoteAddress(new InetSocketAddress("10.0.0.7", 40000))
+				.build();
+		assertEquals("address:10.0.0.7", resolver.resolve(MockServerWebExchange.from(request)).block());
+	}
+
+	@Test
+	void prefersTheAuthenticatedPrincipal() {
+		TestingAuthenticationToken principal = new TestingAuthenticationToken("alice", null, "ROLE_USER");
+		ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/item")
+						.remoteAddress(new InetSocketAddress("10.0.0.7", 40000)))
+				.mutate().principal(Mono.just(principal)).build();
+		assertEquals("principal:alice", resolver.resolve(exchange).block());
+	}
+}
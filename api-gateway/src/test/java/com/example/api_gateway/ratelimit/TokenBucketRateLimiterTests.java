@@ -0,0 +1,77 @@
+package com.example.api_gateway.ratelimit;
+
+import com.example.api_gateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTests {
+
+	private static TokenBucketRateLimiter limiter(int clientRate, int clientBurst, int routeRate, int routeBurst) {
+		RateLimitProperties properties = new RateLimitProperties();
+		properties.getDefaults().setClientRate(clientRate);
+		properties.getDefaults().setClientBurst(clientBurst);
+		properties.getDefaults().setRouteRate(routeRate);
+		properties.getDefaults().setRouteBurst(routeBurst);
+		return new TokenBucketRateLimiter(properties, new SimpleMeterRegistry());
+	}
+
+	@Test
+	void rejectsClientOverItsBurstWithRetryAfter() {
+		TokenBucketRateLimiter limiter = limiter(1, 3, 0, 0);
+		for (int i = 0; i < 3; i++) {
+			assertTrue(limiter.isAllowed("user-service", "client-a").block().isAllowed());
+		}
+		RateLimiter.Response rejected = limiter.isAllowed("user-service", "client-a").block();
+		assertFalse(rejected.isAllowed());
+		assertEquals("1", rejected.getHeaders().get("Retry-After"));
+		assertTrue(limiter.isAllowed("user-service", "client-b").block().isAllowed());
+	}
+
+	@Test
+	void refillsAtConfiguredRate() {
+		TokenBucketRateLimiter limiter = limiter(10, 1, 0, 0);
+		long now = TimeUnit.SECONDS.toNanos(5);
+		assertEquals(0, limiter.tryAcquire("item-service", "client", now));
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.tryAcquire("item-service", "client", now));
+		assertEquals(0, limiter.tryAcquire("item-service", "client", now + TimeUnit.MILLISECONDS.toNanos(100)));
+	}
+
+	@Test
+	void routeBucketIsSharedAcrossClients() {
+		TokenBucketRateLimiter limiter = limiter(1000, 1000, 1, 2);
+		assertTrue(limiter.isAllowed("purchase-service", "client-a").block().isAllowed());
+		assertTrue(limiter.isAllowed("purchase-service", "client-b").block().isAllowed());
+		assertFalse(limiter.isAllowed("purchase-service", "client-c").block().isAllowed());
+	}
+
+	@Test
+	void routeRejectionDoesNotSpendTheClientToken() {
+		TokenBucketRateLimiter limiter = limiter(1, 1, 10, 1);
+		long now = TimeUnit.SECONDS.toNanos(5);
+		assertEquals(0, limiter.tryAcquire("purchase-service", "client-a", now));
+		assertTrue(limiter.tryAcquire("purchase-service", "client-b", now) > 0);
+		//client-b was refused by the route bucket, so its own token is still there once the route refills after 100ms
+		assertEquals(0, limiter.tryAcquire("purchase-service", "client-b", now + TimeUnit.MILLISECONDS.toNanos(100)));
+	}
+
+	@Test
+	void clientBucketsAreBoundedAndKeepRecentClients() {
+		TokenBucketRateLimiter.ClientBuckets buckets = new TokenBucketRateLimiter.ClientBuckets(100);
+		TokenBucket recent = buckets.get("recent");
+		TokenBucket forgotten = buckets.get("forgotten");
+		for (int i = 0; i < 10_000; i++) {
+			buckets.get("client-" + i);
+			if (i % 50 == 0) {
+				assertSame(recent, buckets.get("recent"));
+			}
+		}
+		assertTrue(buckets.size() <= 200, "tracked " + buckets.size());
+		assertNotSame(forgotten, buckets.get("forgotten"));
+	}
+
+}
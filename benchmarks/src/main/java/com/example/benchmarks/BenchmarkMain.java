@@ -0,0 +1,28 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JMH the same way {@code org.openjdk.jmh.Main} does, but writes the results as JSON to
+ * {@code jmh-result.json} unless {@code -rf}/{@code -rff} are given, so every run leaves a file
+ * {@link CompareResults} can check against the previous release.
+ */
+public class BenchmarkMain {
+
+    static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.addAll(0, List.of("-rf", "json"));
+        }
+        if (!options.contains("-rff")) {
+            options.addAll(0, List.of("-rff", DEFAULT_RESULT_FILE));
+        }
+        Main.main(options.toArray(new String[0]));
+    }
+}
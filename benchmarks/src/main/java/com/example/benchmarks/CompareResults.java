@@ -0,0 +1,69 @@
+package com.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and fails when a benchmark got slower than the allowed
+ * tolerance. Usage: {@code java -cp benchmarks.jar com.example.benchmarks.CompareResults baseline.json current.json [tolerancePercent]}.
+ * Only average time and sample time results are compared; a benchmark missing from either file is reported and skipped.
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: CompareResults <baseline.json> <current.json> [tolerancePercent]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, Double> baseline = read(new File(args[0]));
+        Map<String, Double> current = read(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            Double before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW        %s %.3f%n", entry.getKey(), entry.getValue());
+                continue;
+            }
+            double change = (entry.getValue() - before) / before * 100;
+            String verdict = change > tolerance ? "REGRESSED" : change < -tolerance ? "IMPROVED" : "SAME";
+            if (change > tolerance) {
+                regressions++;
+            }
+            System.out.printf("%-10s %s %.3f -> %.3f (%+.1f%%)%n", verdict, entry.getKey(), before, entry.getValue(), change);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("MISSING    %s%n", key));
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) slower than %.0f%% tolerance%n", regressions, tolerance);
+            System.exit(1);
+        }
+    }
+
+    //benchmark name plus its parameters -> score, lower is better
+    private static Map<String, Double> read(File file) throws IOException {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String mode = result.path("mode").asText();
+            if (!mode.equals("avgt") && !mode.equals("sample")) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            scores.put(key.toString(), result.path("primaryMetric").path("score").asDouble());
+        }
+        return scores;
+    }
+}
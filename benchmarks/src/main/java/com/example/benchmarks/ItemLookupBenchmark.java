@@ -0,0 +1,94 @@
+package com.example.benchmarks;
+
+import com.example.item_service.ItemServiceApplication;
+import com.example.item_service.model.Item;
+import com.example.item_service.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item lookups through the real {@code ItemServiceImpl}, Spring Data repository and Hibernate,
+ * with an in-memory H2 database standing in for MySQL.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemLookupBenchmark {
+
+    private static final int SELLERS = 50;
+
+    @Param({"1000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ItemServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.application.name=item-service",
+                        "--spring.datasource.url=jdbc:h2:mem:items;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--eureka.client.enabled=false",
+                        "--logging.level.root=WARN");
+        itemService = context.getBean(ItemService.class);
+        List<Item> items = new ArrayList<>(catalogSize);
+        for (long i = 1; i <= catalogSize; i++) {
+            items.add(new Item(null, "Item " + i, 1_000 + i * 37, "Description of item " + i, (int) (i % 50), 1 + i % SELLERS));
+        }
+        itemService.addItems(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Item getItemById() {
+        return itemService.getItemById(ThreadLocalRandom.current().nextLong(1, catalogSize + 1));
+    }
+
+    @Benchmark
+    public Item getItemByName() {
+        return itemService.getItemByName("Item " + ThreadLocalRandom.current().nextLong(1, catalogSize + 1));
+    }
+
+    @Benchmark
+    public List<Item> getItemsBySellerId() {
+        return itemService.getItemsBySellerId(ThreadLocalRandom.current().nextLong(1, SELLERS + 1));
+    }
+
+    @Benchmark
+    public List<Item> getAllItems() {
+        return itemService.getAllItems();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.benchmarks;
+
+import com.example.common_service.dto.ItemDTO;
+import com.example.common_service.dto.PurchaseDTO;
+import com.example.user_service.controller.UserController;
+import com.example.user_service.feign.ItemFeignClient;
+import com.example.user_service.feign.PurchaseFeignClient;
+import com.example.user_service.model.User;
+import com.example.user_service.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@code UserController.getUserPurchases} with the user service and both Feign clients stubbed.
+ * {@code itemLatencyMicros} stands in for the round trip to item-service, which the enrichment pays
+ * once per purchase.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PurchaseEnrichmentBenchmark {
+
+    @Param({"10", "100"})
+    private int purchases;
+
+    @Param({"0", "200"})
+    private int itemLatencyMicros;
+
+    private UserController controller;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        List<PurchaseDTO> history = new ArrayList<>(purchases);
+        for (long i = 1; i <= purchases; i++) {
+            history.add(new PurchaseDTO(i, 1L, i, (int) (1 + i % 3)));
+        }
+        long latencyNanos = TimeUnit.MICROSECONDS.toNanos(itemLatencyMicros);
+
+        controller = new UserController();
+        inject("userService", stub(UserService.class, (method, args) ->
+                method.equals("getUserById") ? new User(1L, "user", "user@example.com", null, "USER", null) : null));
+        inject("purchaseFeignClient", stub(PurchaseFeignClient.class, (method, args) ->
+                method.equals("getPurchasesByUserId") ? history : null));
+        inject("itemFeignClient", stub(ItemFeignClient.class, (method, args) -> {
+            if (!method.equals("getItemById")) {
+                return null;
+            }
+            if (latencyNanos > 0) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            long id = (Long) args[0];
+            return new ItemDTO(id, "Item " + id, 1_000 + id * 37, "Description of item " + id, 10, 1L);
+        }));
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getUserPurchases() {
+        return controller.getUserPurchases(1L);
+    }
+
+    private interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    private static <T> T stub(Class<T> type, Answer answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> answer.answer(method.getName(), args)));
+    }
+
+    //the controller only has field injection
+    private void inject(String name, Object value) throws ReflectiveOperationException {
+        Field field = UserController.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(controller, value);
+    }
+}
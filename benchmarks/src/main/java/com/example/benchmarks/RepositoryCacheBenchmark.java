@@ -0,0 +1,100 @@
+package com.example.benchmarks;
+
+import com.example.item_service.ItemServiceApplication;
+import com.example.item_service.model.Item;
+import com.example.item_service.repository.ItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ItemRepository} finders with the Hibernate second-level and query cache switched on and off,
+ * on the same in-memory H2 catalog. Every lookup is inside the catalog, so with the cache on the
+ * measurement is the steady state hit path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryCacheBenchmark {
+
+    private static final int SELLERS = 50;
+
+    @Param({"1000"})
+    private int catalogSize;
+
+    @Param({"true", "false"})
+    private boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemRepository itemRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ItemServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.application.name=item-service",
+                        "--spring.datasource.url=jdbc:h2:mem:cached-items;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+                        //the shaded jar keeps a single application.properties, so the cache setup is passed in full
+                        "--spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+                        "--spring.jpa.properties.hibernate.javax.cache.provider=org.ehcache.jsr107.EhcacheCachingProvider",
+                        "--spring.jpa.properties.hibernate.javax.cache.uri=ehcache-item.xml",
+                        "--eureka.client.enabled=false",
+                        "--logging.level.root=WARN");
+        itemRepository = context.getBean(ItemRepository.class);
+        List<Item> items = new ArrayList<>(catalogSize);
+        for (long i = 1; i <= catalogSize; i++) {
+            items.add(new Item(null, "Item " + i, 1_000 + i * 37, "Description of item " + i, (int) (i % 50), 1 + i % SELLERS));
+        }
+        itemRepository.saveAll(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Item> findById() {
+        return itemRepository.findById(ThreadLocalRandom.current().nextLong(1, catalogSize + 1));
+    }
+
+    @Benchmark
+    public Item findByItemName() {
+        return itemRepository.findByItemName("Item " + ThreadLocalRandom.current().nextLong(1, catalogSize + 1));
+    }
+
+    @Benchmark
+    public List<Item> findBySellerId() {
+        return itemRepository.findBySellerId(ThreadLocalRandom.current().nextLong(1, SELLERS + 1));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.benchmarks;
+
+import com.example.item_service.model.Item;
+import com.example.item_service.search.InvertedIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries against item-service's search index over a synthetic catalog: names are an adjective, a
+ * noun and a model number, descriptions a dozen words from a 5000 word vocabulary with a skewed
+ * distribution, so some words occur in most items and others in a handful.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SearchIndexBenchmark {
+
+    private static final String[] ADJECTIVES = {"red", "blue", "green", "black", "white", "small", "large", "light",
+            "heavy", "classic", "modern", "compact", "portable", "wireless", "organic", "steel"};
+
+    private static final String[] NOUNS = {"shoe", "shirt", "lamp", "chair", "table", "kettle", "speaker", "backpack",
+            "bottle", "jacket", "charger", "blender", "mirror", "pillow", "headphones", "notebook", "umbrella", "watch"};
+
+    private static final int VOCABULARY = 5000;
+
+    @Param({"1000000"})
+    private int catalogSize;
+
+    private InvertedIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new InvertedIndex(64, 10_000);
+        Random random = new Random(7);
+        StringBuilder description = new StringBuilder();
+        for (long id = 1; id <= catalogSize; id++) {
+            description.setLength(0);
+            for (int word = 0; word < 12; word++) {
+                //squaring skews towards the low word numbers
+                double skewed = random.nextDouble();
+                description.append("w").append((int) (skewed * skewed * VOCABULARY)).append(' ');
+            }
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + id;
+            index.add(new Item(id, name, 1_000 + id, description.toString(), 10, 1 + id % 50));
+        }
+    }
+
+    //a noun alone matches one item in 18
+    @Benchmark
+    public List<InvertedIndex.Hit> singleWord() {
+        return index.search(NOUNS[ThreadLocalRandom.current().nextInt(NOUNS.length)] + " ", 20);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> twoWords() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.search(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " ", 20);
+    }
+
+    //what autocomplete sends while the second word is being typed
+    @Benchmark
+    public List<InvertedIndex.Hit> prefix() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String noun = NOUNS[random.nextInt(NOUNS.length)];
+        return index.search(ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun.substring(0, 2), 10);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> rareWord() {
+        return index.search("w" + (VOCABULARY - 1 - ThreadLocalRandom.current().nextInt(100)) + " ", 20);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.Hit> modelNumber() {
+        return index.search(String.valueOf(1 + ThreadLocalRandom.current().nextInt(catalogSize)) + " ", 20);
+    }
+}
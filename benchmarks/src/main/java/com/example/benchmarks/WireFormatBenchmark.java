@@ -0,0 +1,81 @@
+package com.example.benchmarks;
+
+import com.example.common_service.dto.ItemDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of the item payloads services exchange as JSON, CBOR and Smile. One item is
+ * a {@code getItemById} answer, a few hundred is what the browse and dashboard calls move. Payload
+ * sizes are printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"1", "200"})
+    private int items;
+
+    private List<ItemDTO> payload;
+
+    private byte[] encoded;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> new ObjectMapper();
+        };
+        writer = mapper.writerFor(new TypeReference<List<ItemDTO>>() {});
+        reader = mapper.readerFor(new TypeReference<List<ItemDTO>>() {});
+        payload = new ArrayList<>(items);
+        for (long i = 1; i <= items; i++) {
+            payload.add(new ItemDTO(i, "Item " + i, 1_000 + i * 37, "Description of item " + i + ", sold by the unit",
+                    (int) (i % 50), 1 + i % 20));
+        }
+        encoded = writer.writeValueAsBytes(payload);
+        System.out.printf("%n%s payload for %d items: %d bytes%n", format, items, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public List<ItemDTO> decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.common_service.codec;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import feign.Feign;
+import feign.RequestInterceptor;
+import feign.codec.Encoder;
+import feign.form.spring.SpringFormEncoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.openfeign.support.FeignEncoderProperties;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Lets services exchange the shared DTOs as Smile, Jackson's binary JSON, instead of text JSON.
+ * Controllers produce and consume {@code application/x-jackson-smile} next to JSON, and Feign clients
+ * ask for Smile first with JSON as the fallback, so a call to a service that cannot produce Smile
+ * still works. Decoding follows the Content-Type of the response. Responses written through a converter
+ * carry {@code Vary: Accept}, so caches in between keep the two representations apart.
+ */
+@AutoConfiguration(after = JacksonAutoConfiguration.class, before = HttpMessageConvertersAutoConfiguration.class)
+@ConditionalOnClass(SmileFactory.class)
+@ConditionalOnProperty(prefix = "ims.codec", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(BinaryCodecProperties.class)
+public class BinaryCodecAutoConfiguration {
+
+    static final String SMILE = "application/x-jackson-smile";
+
+    static final String ACCEPT = SMILE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    //same Jackson settings as the JSON converter, only the factory differs
+    @Bean
+    @ConditionalOnMissingBean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectProvider<Jackson2ObjectMapperBuilder> builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.getIfAvailable(Jackson2ObjectMapperBuilder::smile)
+                .factory(new SmileFactory())
+                .build());
+    }
+
+    //every body that reaches a converter was negotiated against Accept, whichever representation was picked
+    @ControllerAdvice
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class VaryAcceptResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            HttpHeaders headers = response.getHeaders();
+            if (headers.getVary().stream().noneMatch(vary -> vary.equals("*") || vary.equalsIgnoreCase(HttpHeaders.ACCEPT))) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            return body;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Feign.class)
+    static class FeignBinaryCodecConfiguration {
+
+        @Bean
+        public RequestInterceptor binaryAcceptRequestInterceptor() {
+            return template -> {
+                if (!template.headers().containsKey(HttpHeaders.ACCEPT)) {
+                    template.header(HttpHeaders.ACCEPT, ACCEPT);
+                }
+            };
+        }
+
+        //replaces the encoder every Feign client would otherwise get, bodies without a declared type go out as Smile
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(prefix = "ims.codec", name = "binary-requests")
+        public Encoder binaryFeignEncoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                                          ObjectProvider<FeignEncoderProperties> encoderProperties,
+                                          ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+            SpringEncoder delegate = new SpringEncoder(new SpringFormEncoder(),
+                    messageConverters, encoderProperties.getIfAvailable(FeignEncoderProperties::new), customizers);
+            return (object, bodyType, template) -> {
+                boolean binary = !template.headers().containsKey(HttpHeaders.CONTENT_TYPE);
+                if (binary) {
+                    template.header(HttpHeaders.CONTENT_TYPE, SMILE);
+                }
+                delegate.encode(object, bodyType, template);
+                //without a charset the transports send the bytes as they are instead of going through a String
+                if (binary && template.body() != null) {
+                    template.body(template.body(), null);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.common_service.codec;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ims.codec")
+public class BinaryCodecProperties {
+
+    private boolean enabled = true;
+
+    //send request bodies as Smile too, only safe once every service this one calls can read it
+    private boolean binaryRequests = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isBinaryRequests() {
+        return binaryRequests;
+    }
+
+    public void setBinaryRequests(boolean binaryRequests) {
+        this.binaryRequests = binaryRequests;
+    }
+}
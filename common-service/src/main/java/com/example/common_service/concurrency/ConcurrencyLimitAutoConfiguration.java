@@ -0,0 +1,56 @@
+package com.example.common_service.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+/**
+ * Adaptive concurrency limit for the servlet routes listed under {@code ims.concurrency-limit.routes}.
+ * Without routes nothing is limited. The filter runs right after the observation filter, so shed
+ * requests still show up in {@code http.server.requests}, but ahead of security and the controllers.
+ * The current limit is published as {@code http.server.concurrency.limit}.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "ims.concurrency-limit", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ConcurrencyLimiter concurrencyLimiter(ConcurrencyLimitProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(new GradientLimit(properties.getInitialLimit(),
+                properties.getMinLimit(), properties.getMaxLimit(), properties.getSmoothing(), properties.getRttTolerance(),
+                properties.getBackoffRatio(), properties.getWindow().toNanos(), properties.getMinWindowSamples(),
+                properties.getBaselineWindows()), properties.getShares());
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("http.server.concurrency.limit", limiter, ConcurrencyLimiter::limit)
+                    .description("Current adaptive limit on concurrent requests to the limited routes")
+                    .register(registry);
+            Gauge.builder("http.server.concurrency.in-flight", limiter, ConcurrencyLimiter::inFlight)
+                    .description("Requests to the limited routes in progress")
+                    .register(registry);
+        }
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimiter limiter,
+                                                                                 ConcurrencyLimitProperties properties,
+                                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limiter, properties.getRoutes(), meterRegistry.getIfAvailable()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        registration.setEnabled(!properties.getRoutes().isEmpty());
+        return registration;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.common_service.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sheds requests to the configured routes with 503 and {@code Retry-After} as soon as their
+ * priority's share of the concurrency limit is in use, before they reach a controller or wait for a
+ * database connection. Admitted requests report their round trip back to the limiter; a 5xx or an
+ * exception counts as a drop.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] SHED_BODY = "{\"message\":\"Too many requests in progress, please try again later\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final ConcurrencyLimiter limiter;
+
+    private final List<LimitedRoute> routes;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter, List<ConcurrencyLimitProperties.Route> routes, MeterRegistry registry) {
+        this.limiter = limiter;
+        this.routes = routes.stream().map(route -> new LimitedRoute(route, registry)).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        LimitedRoute route = match(request);
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire(route.priority);
+        if (permit == null) {
+            if (route.rejected != null) {
+                route.rejected.increment();
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(SHED_BODY.length);
+            response.getOutputStream().write(SHED_BODY);
+            return;
+        }
+        boolean dropped = true;
+        try {
+            chain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            permit.release(dropped);
+        }
+    }
+
+    private LimitedRoute match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (LimitedRoute route : routes) {
+            if ((route.method == null || route.method.equalsIgnoreCase(request.getMethod())) && route.pattern.matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static final class LimitedRoute {
+
+        private final String method;
+
+        private final PathPattern pattern;
+
+        private final Priority priority;
+
+        private final Counter rejected;
+
+        LimitedRoute(ConcurrencyLimitProperties.Route route, MeterRegistry registry) {
+            this.method = route.getMethod() == null || route.getMethod().isBlank() ? null : route.getMethod();
+            this.pattern = PathPatternParser.defaultInstance.parse(route.getPath());
+            this.priority = route.getPriority();
+            this.rejected = registry == null ? null : Counter.builder("http.server.concurrency.rejected")
+                    .description("Requests shed because their priority's share of the concurrency limit was in use")
+                    .tag("route", (method == null ? "" : method + " ") + route.getPath())
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.common_service.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "ims.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 200;
+
+    //weight of each window's new limit, lower reacts slower but steadier
+    private double smoothing = 0.2;
+
+    //how much slower than the baseline a window may be before the limit shrinks
+    private double rttTolerance = 1.5;
+
+    //factor applied to the limit after a window with a timeout or 5xx
+    private double backoffRatio = 0.9;
+
+    //the limit is recalculated at most this often, and only with enough completed requests
+    private Duration window = Duration.ofMillis(100);
+
+    private int minWindowSamples = 10;
+
+    //number of windows the baseline round trip is averaged over
+    private int baselineWindows = 600;
+
+    //share of the limit each priority may fill, defaults in Priority
+    private Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+
+    //only these routes are limited, anything else passes untouched
+    private List<Route> routes = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public void setRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getMinWindowSamples() {
+        return minWindowSamples;
+    }
+
+    public void setMinWindowSamples(int minWindowSamples) {
+        this.minWindowSamples = minWindowSamples;
+    }
+
+    public int getBaselineWindows() {
+        return baselineWindows;
+    }
+
+    public void setBaselineWindows(int baselineWindows) {
+        this.baselineWindows = baselineWindows;
+    }
+
+    public Map<Priority, Double> getShares() {
+        return shares;
+    }
+
+    public void setShares(Map<Priority, Double> shares) {
+        this.shares = shares;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route {
+
+        //any method when empty
+        private String method;
+
+        //path pattern as in @RequestMapping, e.g. /purchase/user/{userId}
+        private String path;
+
+        private Priority priority = Priority.NORMAL;
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public void setPriority(Priority priority) {
+            this.priority = priority;
+        }
+    }
+}
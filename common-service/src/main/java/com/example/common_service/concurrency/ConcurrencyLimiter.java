@@ -0,0 +1,63 @@
+package com.example.common_service.concurrency;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits requests while fewer than the priority's share of the {@link GradientLimit} are in flight.
+ * Every admitted request hands back its round trip when it completes, which is what moves the limit.
+ */
+public class ConcurrencyLimiter {
+
+    private final GradientLimit limit;
+
+    private final Map<Priority, Double> shares;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    ConcurrencyLimiter(GradientLimit limit, Map<Priority, Double> shares) {
+        this.limit = limit;
+        this.shares = shares;
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    //null when the request is to be shed
+    public Permit tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit.limit() * shares.getOrDefault(priority, priority.defaultShare())));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), current + 1);
+            }
+        }
+    }
+
+    public final class Permit {
+
+        private final long start;
+
+        private final int inFlightAtStart;
+
+        private Permit(long start, int inFlightAtStart) {
+            this.start = start;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        //dropped: the request failed in a way that suggests overload, a timeout or a 5xx
+        public void release(boolean dropped) {
+            inFlight.decrementAndGet();
+            long now = System.nanoTime();
+            limit.onSample(now, now - start, inFlightAtStart, dropped);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.common_service.concurrency;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows latency. Completed requests are averaged per window and compared
+ * with a baseline taken from the fastest recent windows: while the window stays within the tolerated
+ * multiple of the baseline the limit grows by about its square root, once it is slower the limit
+ * shrinks in proportion. A window with a failed request (timeout, 5xx) cuts the limit by the
+ * backoff ratio instead. Growth only happens when the limit is actually being used, so a quiet
+ * service does not wander up to the maximum.
+ */
+class GradientLimit {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double smoothing;
+
+    private final double rttTolerance;
+
+    private final double backoffRatio;
+
+    private final long windowNanos;
+
+    private final int minWindowSamples;
+
+    private final int baselineWindows;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile double limit;
+
+    private double baselineRtt = -1;
+
+    private long windowStart = Long.MIN_VALUE;
+
+    private long windowRttSum;
+
+    private int windowSamples;
+
+    private int windowMaxInFlight;
+
+    private boolean windowDropped;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance,
+                  double backoffRatio, long windowNanos, int minWindowSamples, int baselineWindows) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.backoffRatio = backoffRatio;
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.baselineWindows = baselineWindows;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    //baseline round trip in nanoseconds, -1 before the first window closed
+    double baselineRtt() {
+        return baselineRtt;
+    }
+
+    void onSample(long now, long rttNanos, int inFlight, boolean dropped) {
+        lock.lock();
+        try {
+            if (windowStart == Long.MIN_VALUE) {
+                windowStart = now;
+            }
+            windowRttSum += rttNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+            windowDropped |= dropped;
+            if (windowSamples >= minWindowSamples && now - windowStart >= windowNanos) {
+                update();
+                windowStart = now;
+                windowRttSum = 0;
+                windowSamples = 0;
+                windowMaxInFlight = 0;
+                windowDropped = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update() {
+        double current = limit;
+        if (windowDropped) {
+            limit = Math.max(minLimit, current * backoffRatio);
+            return;
+        }
+        double shortRtt = (double) windowRttSum / windowSamples;
+        //a faster window resets the baseline at once, slower ones only nudge it, so neither a cold start
+        //nor a long overload becomes the new normal
+        if (baselineRtt < 0 || shortRtt < baselineRtt) {
+            baselineRtt = shortRtt;
+        } else {
+            baselineRtt += (shortRtt - baselineRtt) / baselineWindows;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * baselineRtt / shortRtt));
+        if (gradient >= 1.0 && windowMaxInFlight < current / 2) {
+            return;
+        }
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.max(minLimit, Math.min(maxLimit, current * (1 - smoothing) + target * smoothing));
+    }
+}
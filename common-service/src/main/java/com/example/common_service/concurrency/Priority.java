@@ -0,0 +1,22 @@
+package com.example.common_service.concurrency;
+
+/**
+ * How long a route keeps being admitted as the service fills up. Each priority may use its share of
+ * the current limit, so lower priorities are shed first and critical routes keep the remainder.
+ */
+public enum Priority {
+
+    CRITICAL(1.0),
+    NORMAL(0.8),
+    LOW(0.5);
+
+    private final double defaultShare;
+
+    Priority(double defaultShare) {
+        this.defaultShare = defaultShare;
+    }
+
+    public double defaultShare() {
+        return defaultShare;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.common_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Boot leaves out its JDBC pool as soon as an R2DBC {@code ConnectionFactory} exists, it expects a service
+ * to use one or the other. A service that reads over R2DBC but keeps JPA for its writes gets the usual
+ * {@code spring.datasource} Hikari pool back from here. With a read replica configured,
+ * {@link ReadReplicaDataSourceAutoConfiguration} has already provided the DataSource and this backs off.
+ */
+@AutoConfiguration(after = {R2dbcAutoConfiguration.class, ReadReplicaDataSourceAutoConfiguration.class},
+        before = DataSourceAutoConfiguration.class)
+@ConditionalOnClass(HikariDataSource.class)
+@ConditionalOnBean(type = "io.r2dbc.spi.ConnectionFactory")
+@ConditionalOnProperty(prefix = "spring.datasource", name = "url")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class JdbcWithR2dbcDataSourceAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(DataSource.class)
+    public HikariDataSource dataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+}
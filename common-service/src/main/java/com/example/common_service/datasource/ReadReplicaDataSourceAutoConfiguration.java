@@ -0,0 +1,84 @@
+package com.example.common_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the single Boot managed pool with a primary and a replica pool once
+ * {@code ims.datasource.replica.url} is set. Read-only transactions go to the replica, everything else,
+ * including reads inside a read-write transaction, stays on the primary. Without the property the
+ * service keeps Boot's own {@code spring.datasource} pool. Needs {@code spring.jpa.open-in-view=false}:
+ * with open-in-view the first connection of a request is kept, and reused, until the response is written.
+ */
+@AutoConfiguration(before = DataSourceAutoConfiguration.class)
+@ConditionalOnClass({HikariDataSource.class, LazyConnectionDataSourceProxy.class})
+@ConditionalOnProperty(prefix = "ims.datasource.replica", name = "url")
+@EnableConfigurationProperties({DataSourceProperties.class, ReadReplicaProperties.class})
+public class ReadReplicaDataSourceAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(DataSource.class)
+    public ReadReplicaRoutingDataSource dataSource(DataSourceProperties properties,
+                                                   ReadReplicaProperties replicaProperties,
+                                                   Environment environment) {
+        Binder binder = Binder.get(environment);
+        String name = environment.getProperty("spring.application.name", "application");
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (!StringUtils.hasText(primary.getPoolName())) {
+            primary.setPoolName(name + "-primary");
+        }
+
+        HikariDataSource replica = DataSourceBuilder.create(properties.getClassLoader())
+                .type(HikariDataSource.class)
+                .url(replicaProperties.getUrl())
+                .username(StringUtils.hasText(replicaProperties.getUsername()) ? replicaProperties.getUsername() : properties.determineUsername())
+                .password(replicaProperties.getPassword() != null ? replicaProperties.getPassword() : properties.determinePassword())
+                .driverClassName(StringUtils.hasText(replicaProperties.getDriverClassName())
+                        ? replicaProperties.getDriverClassName() : properties.determineDriverClassName())
+                .build();
+        binder.bind("ims.datasource.replica.hikari", Bindable.ofInstance(replica));
+        if (!StringUtils.hasText(replica.getPoolName())) {
+            replica.setPoolName(name + "-replica");
+        }
+        //a statement that slips through with a write fails on the replica connection instead of diverging it
+        replica.setReadOnly(true);
+        return new ReadReplicaRoutingDataSource(primary, replica);
+    }
+
+    //Boot's pool metrics only see the pool the DataSource bean unwraps to, which is the primary
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class ReplicaPoolMetricsConfiguration {
+
+        @Bean
+        SmartInitializingSingleton replicaPoolMetrics(ObjectProvider<ReadReplicaRoutingDataSource> dataSource,
+                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+            return () -> dataSource.ifAvailable(routing -> meterRegistry.ifAvailable(registry -> {
+                if (routing.getReplica().getMetricRegistry() == null) {
+                    routing.getReplica().setMetricRegistry(registry);
+                }
+            }));
+        }
+    }
+}
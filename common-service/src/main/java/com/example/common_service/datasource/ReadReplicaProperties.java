@@ -0,0 +1,52 @@
+package com.example.common_service.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection settings of the optional read replica. Pool settings go under
+ * {@code ims.datasource.replica.hikari.*}, the same keys as {@code spring.datasource.hikari.*}.
+ */
+@ConfigurationProperties(prefix = "ims.datasource.replica")
+public class ReadReplicaProperties {
+
+    //routing is only set up when this is given
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private String driverClassName;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public void setDriverClassName(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.common_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Hands out connections from the primary pool, or from the replica pool once the connection has been
+ * marked read-only, which is what {@code @Transactional(readOnly = true)} does when the transaction begins.
+ * The physical connection is only fetched at the first statement so that flag is known by then.
+ */
+public class ReadReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements DisposableBean {
+
+    private final HikariDataSource primary;
+
+    private final HikariDataSource replica;
+
+    public ReadReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        super(primary);
+        this.primary = primary;
+        this.replica = replica;
+        setReadOnlyDataSource(replica);
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    @Override
+    public void destroy() {
+        replica.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.common_service.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class DirectoryPageDTO<T> {
+
+    private List<T> content;
+
+    //id to pass as afterId for the next page, null on the last page
+    private Long nextAfterId;
+
+    private long totalCount;
+
+}
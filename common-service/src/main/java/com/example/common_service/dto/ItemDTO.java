@@ -1,5 +1,4 @@
-package com.example.admin_service.model;
-
+package com.example.common_service.dto;
 
 import lombok.*;
 
@@ -20,4 +19,6 @@ public class ItemDTO {
 
     private int quantity;
 
-}
+    private Long sellerId;
+
+}
\ No newline at end of file
@@ -1,4 +1,4 @@
-package com.example.user_service.model;
+package com.example.common_service.dto;
 
 import lombok.*;
 
@@ -0,0 +1,31 @@
+package com.example.common_service.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class StockReservationDTO {
+
+    //chosen by the caller, repeating a reserve or release with the same id changes nothing
+    private String checkoutId;
+
+    private List<Line> lines;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @ToString
+    public static class Line {
+
+        private Long itemId;
+
+        private int quantity;
+
+    }
+}
@@ -1,4 +1,4 @@
-package com.example.admin_service.model;
+package com.example.common_service.dto;
 
 import lombok.*;
 
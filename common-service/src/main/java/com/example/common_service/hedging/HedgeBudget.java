@@ -0,0 +1,39 @@
+package com.example.common_service.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every hedgeable call deposits a fraction of a token, every hedge spends a whole one,
+ * so hedges can never exceed the configured share of calls (plus a small saved up burst).
+ */
+class HedgeBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    private final long depositPerCall;
+
+    private final long maxBalance;
+
+    HedgeBudget(double ratio, int burst) {
+        this.depositPerCall = Math.round(ratio * TOKEN);
+        this.maxBalance = Math.max(1, burst) * TOKEN;
+    }
+
+    void deposit() {
+        balance.accumulateAndGet(depositPerCall, (current, add) -> Math.min(maxBalance, current + add));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.common_service.hedging;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an idempotent GET method of a Feign client as safe to hedge: when the first attempt is slower
+ * than the configured latency percentile a second attempt goes to another instance and the first
+ * response wins. Never put this on a method that changes state.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedged {
+}
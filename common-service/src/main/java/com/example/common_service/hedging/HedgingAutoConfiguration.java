@@ -0,0 +1,49 @@
+package com.example.common_service.hedging;
+
+import com.example.common_service.loadbalancer.InstanceLatencyTracker;
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Wraps the load balanced Feign client in a {@link HedgingFeignClient} so {@link Hedged} methods get hedged.
+ * Switch off with {@code ims.hedging.enabled=false}. Hedge attempts run on virtual threads when
+ * {@code spring.threads.virtual.enabled} is set and the JVM supports them.
+ */
+@AutoConfiguration
+@ConditionalOnClass({Client.class, FeignBlockingLoadBalancerClient.class, MeterRegistry.class})
+@ConditionalOnProperty(prefix = "ims.hedging", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(HedgingProperties.class)
+public class HedgingAutoConfiguration {
+
+    @Bean
+    static BeanPostProcessor hedgingFeignClientPostProcessor(ObjectProvider<LoadBalancerClient> loadBalancerClient,
+                                                             ObjectProvider<DiscoveryClient> discoveryClient,
+                                                             ObjectProvider<InstanceLatencyTracker> tracker,
+                                                             ObjectProvider<MeterRegistry> meterRegistry,
+                                                             ObjectProvider<HedgingProperties> properties,
+                                                             Environment environment) {
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof FeignBlockingLoadBalancerClient loadBalanced) {
+                    return new HedgingFeignClient(loadBalanced, loadBalanced.getDelegate(), loadBalancerClient,
+                            discoveryClient, tracker, meterRegistry, properties.getObject(), virtualThreads);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.common_service.hedging;
+
+import com.example.common_service.loadbalancer.InstanceLatencyTracker;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps the load balanced Feign client. Calls to methods annotated with {@link Hedged} pick their
+ * instance here so a late second attempt can be sent to a different instance; everything else
+ * goes straight to the load balanced client.
+ */
+public class HedgingFeignClient implements Client, DisposableBean {
+
+    private static final int WINDOW_SIZE = 512;
+
+    private final Client delegate;
+
+    private final Client transport;
+
+    private final ObjectProvider<LoadBalancerClient> loadBalancerClient;
+
+    private final ObjectProvider<DiscoveryClient> discoveryClient;
+
+    private final ObjectProvider<InstanceLatencyTracker> tracker;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final HedgingProperties properties;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    private final Map<String, HedgeBudget> budgets = new ConcurrentHashMap<>();
+
+    public HedgingFeignClient(Client delegate,
+                              Client transport,
+                              ObjectProvider<LoadBalancerClient> loadBalancerClient,
+                              ObjectProvider<DiscoveryClient> discoveryClient,
+                              ObjectProvider<InstanceLatencyTracker> tracker,
+                              ObjectProvider<MeterRegistry> meterRegistry,
+                              HedgingProperties properties) {
+        this(delegate, transport, loadBalancerClient, discoveryClient, tracker, meterRegistry, properties, false);
+    }
+
+    //virtualThreads needs Java 21, the pool then only bounds concurrent attempts instead of holding platform threads
+    public HedgingFeignClient(Client delegate,
+                              Client transport,
+                              ObjectProvider<LoadBalancerClient> loadBalancerClient,
+                              ObjectProvider<DiscoveryClient> discoveryClient,
+                              ObjectProvider<InstanceLatencyTracker> tracker,
+                              ObjectProvider<MeterRegistry> meterRegistry,
+                              HedgingProperties properties,
+                              boolean virtualThreads) {
+        this.delegate = delegate;
+        this.transport = transport;
+        this.loadBalancerClient = loadBalancerClient;
+        this.discoveryClient = discoveryClient;
+        this.tracker = tracker;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.executor = new ThreadPoolExecutor(0, properties.getMaxConcurrentAttempts(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), virtualThreads ? new VirtualThreadTaskExecutor("feign-hedge-").getVirtualThreadFactory()
+                : platformThreads());
+    }
+
+    private static ThreadFactory platformThreads() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "feign-hedge-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        MethodMetadata metadata = request.requestTemplate() == null ? null : request.requestTemplate().methodMetadata();
+        if (request.httpMethod() != Request.HttpMethod.GET || metadata == null || metadata.method() == null
+                || !metadata.method().isAnnotationPresent(Hedged.class)) {
+            return delegate.execute(request, options);
+        }
+        URI original = URI.create(request.url());
+        String serviceId = original.getHost();
+        LoadBalancerClient balancer = loadBalancerClient.getIfAvailable();
+        ServiceInstance primary = balancer == null ? null : balancer.choose(serviceId);
+        if (primary == null) {
+            return delegate.execute(request, options);
+        }
+        String method = metadata.configKey();
+        LatencyWindow window = windows.computeIfAbsent(method,
+                key -> new LatencyWindow(WINDOW_SIZE, properties.getPercentile(), properties.getMinSamples()));
+        HedgeBudget budget = budgets.computeIfAbsent(serviceId,
+                key -> new HedgeBudget(properties.getBudget(), properties.getBudgetBurst()));
+        budget.deposit();
+
+        CompletableFuture<Response> first;
+        try {
+            first = attempt(request, options, balancer, original, primary, window);
+        } catch (RejectedExecutionException e) {
+            return delegate.execute(request, options);
+        }
+        try {
+            return first.get(hedgeDelayNanos(window), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            //first attempt is slow, fall through and hedge
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + method);
+        }
+
+        ServiceInstance secondary = pickOther(serviceId, primary);
+        if (secondary == null) {
+            return await(first, method);
+        }
+        if (!budget.tryWithdraw()) {
+            count(serviceId, method, "budget_exhausted");
+            return await(first, method);
+        }
+        CompletableFuture<Response> second;
+        try {
+            second = attempt(request, options, balancer, original, secondary, window);
+        } catch (RejectedExecutionException e) {
+            return await(first, method);
+        }
+        count(serviceId, method, "issued");
+        Response response = await(firstResponse(first, second), method);
+        if (second.isDone() && !second.isCompletedExceptionally() && second.getNow(null) == response) {
+            count(serviceId, method, "won");
+        }
+        return response;
+    }
+
+    private CompletableFuture<Response> attempt(Request request, Request.Options options, LoadBalancerClient balancer,
+                                                URI original, ServiceInstance instance, LatencyWindow window) {
+        Request resolved = Request.create(request.httpMethod(), balancer.reconstructURI(instance, original).toString(),
+                request.headers(), request.body(), request.charset(), request.requestTemplate());
+        InstanceLatencyTracker latencyTracker = tracker.getIfAvailable();
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            boolean failed = true;
+            if (latencyTracker != null) {
+                latencyTracker.requestStarted(instance);
+            }
+            try {
+                Response response = transport.execute(resolved, options);
+                failed = response.status() >= 500;
+                return response;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                long latency = System.nanoTime() - start;
+                window.record(latency);
+                if (latencyTracker != null) {
+                    latencyTracker.requestFinished(instance, latency, failed);
+                }
+            }
+        }, executor);
+    }
+
+    //completes with whichever attempt answers first, fails only when both failed; the losing response is closed
+    private static CompletableFuture<Response> firstResponse(CompletableFuture<Response> first, CompletableFuture<Response> second) {
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<Response> attempt : List.of(first, second)) {
+            attempt.whenComplete((response, error) -> {
+                if (error != null) {
+                    if (failures.incrementAndGet() == 2) {
+                        winner.completeExceptionally(error);
+                    }
+                } else if (!winner.complete(response)) {
+                    response.close();
+                }
+            });
+        }
+        return winner;
+    }
+
+    private long hedgeDelayNanos(LatencyWindow window) {
+        long percentile = window.percentileNanos();
+        if (percentile < 0) {
+            return properties.getInitialDelay().toNanos();
+        }
+        return Math.max(properties.getMinDelay().toNanos(), percentile);
+    }
+
+    private ServiceInstance pickOther(String serviceId, ServiceInstance primary) {
+        DiscoveryClient discovery = discoveryClient.getIfAvailable();
+        if (discovery == null) {
+            return null;
+        }
+        InstanceLatencyTracker latencyTracker = tracker.getIfAvailable();
+        long now = System.nanoTime();
+        return discovery.getInstances(serviceId).stream()
+                .filter(instance -> !(instance.getHost().equals(primary.getHost()) && instance.getPort() == primary.getPort()))
+                .min(Comparator.comparingDouble(instance -> latencyTracker == null ? 0 : latencyTracker.peakEwmaCost(instance, now)))
+                .orElse(null);
+    }
+
+    private void count(String serviceId, String method, String outcome) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.counter("feign.hedge.requests", "service", serviceId, "method", method, "outcome", outcome).increment();
+        }
+    }
+
+    private static Response await(CompletableFuture<Response> future, String method) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + method);
+        }
+    }
+
+    private static IOException unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof IOException io) {
+            return io;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        return new IOException(cause);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.common_service.hedging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ims.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = true;
+
+    //the hedge fires once the first attempt is slower than this percentile of recent attempts
+    private double percentile = 0.95;
+
+    //hedges allowed as a fraction of hedgeable calls, per target service
+    private double budget = 0.05;
+
+    //hedges that may be saved up while traffic is quiet
+    private int budgetBurst = 10;
+
+    //never hedge sooner than this, even when the percentile is lower
+    private Duration minDelay = Duration.ofMillis(5);
+
+    //delay used until enough samples were recorded for a method
+    private Duration initialDelay = Duration.ofMillis(100);
+
+    private int minSamples = 50;
+
+    //threads available for running attempts, calls beyond that are not hedged
+    private int maxConcurrentAttempts = 200;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public double getBudget() {
+        return budget;
+    }
+
+    public void setBudget(double budget) {
+        this.budget = budget;
+    }
+
+    public int getBudgetBurst() {
+        return budgetBurst;
+    }
+
+    public void setBudgetBurst(int budgetBurst) {
+        this.budgetBurst = budgetBurst;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public Duration getInitialDelay() {
+        return initialDelay;
+    }
+
+    public void setInitialDelay(Duration initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public int getMaxConcurrentAttempts() {
+        return maxConcurrentAttempts;
+    }
+
+    public void setMaxConcurrentAttempts(int maxConcurrentAttempts) {
+        this.maxConcurrentAttempts = maxConcurrentAttempts;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.common_service.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The latencies of the last few hundred attempts of one Feign method. The percentile is
+ * recomputed every few samples instead of on every call. Guarded by a lock rather than a monitor:
+ * every attempt of the method records here, and a virtual thread blocked on a monitor pins its carrier.
+ */
+class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+
+    private final double percentile;
+
+    private final int minSamples;
+
+    private int next;
+
+    private long count;
+
+    private volatile long percentileNanos = -1;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    LatencyWindow(int size, double percentile, int minSamples) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, size);
+    }
+
+    void record(long latencyNanos) {
+        lock.lock();
+        try {
+            samples[next] = latencyNanos;
+            next = (next + 1) % samples.length;
+            count++;
+            if (count >= minSamples && count % RECOMPUTE_EVERY == 0) {
+                int filled = (int) Math.min(count, samples.length);
+                long[] sorted = Arrays.copyOf(samples, filled);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(percentile * filled) - 1;
+                percentileNanos = sorted[Math.max(0, Math.min(filled - 1, index))];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //-1 until enough samples were recorded
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
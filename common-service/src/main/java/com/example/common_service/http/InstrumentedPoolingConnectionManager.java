@@ -0,0 +1,112 @@
+package com.example.common_service.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.core5.http.config.Registry;
+import org.apache.hc.core5.http.io.HttpConnectionFactory;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Keep-alive connection pool for Feign that records how long callers wait for a connection and how
+ * many new connections get opened, and sizes the per route limit by target service.
+ */
+public class InstrumentedPoolingConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final Map<String, Integer> maxPerTarget;
+
+    private final Supplier<DiscoveryClient> discoveryClient;
+
+    private final Set<HttpRoute> sizedRoutes = ConcurrentHashMap.newKeySet();
+
+    private final Timer leaseTimer;
+
+    public InstrumentedPoolingConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry,
+                                                PoolConcurrencyPolicy concurrencyPolicy,
+                                                PoolReusePolicy reusePolicy,
+                                                TimeValue timeToLive,
+                                                Map<String, Integer> maxPerTarget,
+                                                Supplier<DiscoveryClient> discoveryClient,
+                                                MeterRegistry meterRegistry) {
+        super(socketFactoryRegistry, concurrencyPolicy, reusePolicy, timeToLive,
+                countingConnectionFactory(Counter.builder("feign.http.pool.connections.created")
+                        .description("New connections opened by the Feign pool, a steady rate means connections are not being reused")
+                        .register(meterRegistry)));
+        this.maxPerTarget = maxPerTarget;
+        this.discoveryClient = discoveryClient;
+        this.leaseTimer = Timer.builder("feign.http.pool.lease")
+                .description("Time spent waiting for a pooled connection")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        sizeRoute(route);
+        LeaseRequest request = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.get(timeout);
+                } finally {
+                    leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    //routes are host:port of a resolved instance, look up which service it belongs to the first time we see it
+    private void sizeRoute(HttpRoute route) {
+        if (maxPerTarget.isEmpty() || !sizedRoutes.add(route)) {
+            return;
+        }
+        DiscoveryClient discovery = discoveryClient.get();
+        if (discovery == null) {
+            return;
+        }
+        String host = route.getTargetHost().getHostName();
+        int port = route.getTargetHost().getPort();
+        for (Map.Entry<String, Integer> target : maxPerTarget.entrySet()) {
+            for (ServiceInstance instance : discovery.getInstances(target.getKey())) {
+                if (instance.getHost().equalsIgnoreCase(host) && instance.getPort() == port) {
+                    setMaxPerRoute(route, target.getValue());
+                    return;
+                }
+            }
+        }
+    }
+
+    private static HttpConnectionFactory<ManagedHttpClientConnection> countingConnectionFactory(Counter created) {
+        return socket -> {
+            created.increment();
+            return ManagedHttpClientConnectionFactory.INSTANCE.createConnection(socket);
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.common_service.http;
+
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
+import org.apache.hc.client5.http.socket.PlainConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.openfeign.FeignAutoConfiguration;
+import org.springframework.cloud.openfeign.loadbalancer.FeignLoadBalancerAutoConfiguration;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Replaces the connection manager Spring Cloud OpenFeign builds for Apache HttpClient 5 with an
+ * instrumented one, so the pooled keep-alive transport reports utilisation, lease wait and churn.
+ */
+@AutoConfiguration(before = {FeignAutoConfiguration.class, FeignLoadBalancerAutoConfiguration.class})
+@ConditionalOnClass({ApacheHttp5Client.class, MeterRegistry.class})
+@ConditionalOnProperty(name = "spring.cloud.openfeign.httpclient.hc5.enabled", matchIfMissing = true)
+@EnableConfigurationProperties({PooledFeignHttpProperties.class, FeignHttpClientProperties.class})
+public class PooledFeignHttpClientAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(HttpClientConnectionManager.class)
+    public InstrumentedPoolingConnectionManager feignConnectionManager(FeignHttpClientProperties httpClientProperties,
+                                                                       PooledFeignHttpProperties properties,
+                                                                       ObjectProvider<DiscoveryClient> discoveryClient,
+                                                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        FeignHttpClientProperties.Hc5Properties hc5 = httpClientProperties.getHc5();
+        InstrumentedPoolingConnectionManager manager = new InstrumentedPoolingConnectionManager(
+                RegistryBuilder.<ConnectionSocketFactory>create()
+                        .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                        .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                        .build(),
+                PoolConcurrencyPolicy.valueOf(hc5.getPoolConcurrencyPolicy().name()),
+                PoolReusePolicy.valueOf(hc5.getPoolReusePolicy().name()),
+                TimeValue.of(httpClientProperties.getTimeToLive(), httpClientProperties.getTimeToLiveUnit()),
+                properties.getMaxPerTarget(),
+                discoveryClient::getIfAvailable,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        manager.setMaxTotal(httpClientProperties.getMaxConnections());
+        manager.setDefaultMaxPerRoute(httpClientProperties.getMaxConnectionsPerRoute());
+        manager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(Timeout.of(hc5.getSocketTimeout(), hc5.getSocketTimeoutUnit()))
+                .build());
+        manager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(properties.getValidateAfterInactivity().toMillis()))
+                .build());
+        return manager;
+    }
+
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<InstrumentedPoolingConnectionManager> manager) {
+        return registry -> manager.ifAvailable(pool ->
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry));
+    }
+}
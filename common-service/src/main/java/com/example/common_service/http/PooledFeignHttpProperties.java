@@ -0,0 +1,36 @@
+package com.example.common_service.http;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool sizing on top of {@code spring.cloud.openfeign.httpclient.*}, which still holds the total and default per route limits.
+ */
+@ConfigurationProperties(prefix = "ims.feign.http")
+public class PooledFeignHttpProperties {
+
+    //max connections to each instance of a target service, by service id
+    private Map<String, Integer> maxPerTarget = new HashMap<>();
+
+    //pooled connections idle for longer than this are checked before being handed out again
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    public Map<String, Integer> getMaxPerTarget() {
+        return maxPerTarget;
+    }
+
+    public void setMaxPerTarget(Map<String, Integer> maxPerTarget) {
+        this.maxPerTarget = maxPerTarget;
+    }
+
+    public Duration getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+        this.validateAfterInactivity = validateAfterInactivity;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.common_service.jpa;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/hibernatecache}: hits, misses, puts and hit ratio of the second-level cache as a whole,
+ * of the query cache and of every cache region, read from Hibernate statistics. All counters are zero
+ * unless {@code hibernate.generate_statistics} is on.
+ */
+@Endpoint(id = "hibernatecache")
+public class HibernateCacheEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public HibernateCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public CacheReport report() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, RegionReport> regions = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                regions.put(region, new RegionReport(regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                        regionStatistics.getPutCount(), ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount()),
+                        inMemory(regionStatistics.getElementCountInMemory())));
+            }
+        }
+        return new CacheReport(statistics.isStatisticsEnabled(),
+                new Counts(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                        statistics.getSecondLevelCachePutCount(),
+                        ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount())),
+                new Counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                        statistics.getQueryCachePutCount(),
+                        ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount())),
+                regions);
+    }
+
+    //providers without the extended statistics, Ehcache among them, report a negative count
+    private static Long inMemory(long count) {
+        return count < 0 ? null : count;
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    public record CacheReport(boolean statisticsEnabled, Counts secondLevelCache, Counts queryCache,
+                              Map<String, RegionReport> regions) {
+    }
+
+    public record Counts(long hits, long misses, long puts, double hitRatio) {
+    }
+
+    public record RegionReport(long hits, long misses, long puts, double hitRatio, Long elementsInMemory) {
+    }
+}
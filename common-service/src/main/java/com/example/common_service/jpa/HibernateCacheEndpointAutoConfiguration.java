@@ -0,0 +1,26 @@
+package com.example.common_service.jpa;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Adds the {@link HibernateCacheEndpoint} to services that run Hibernate and actuator.
+ */
+@AutoConfiguration(after = HibernateJpaAutoConfiguration.class)
+@ConditionalOnClass(value = {SessionFactory.class, EntityManagerFactory.class},
+        name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+@ConditionalOnBean(EntityManagerFactory.class)
+public class HibernateCacheEndpointAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public HibernateCacheEndpoint hibernateCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        return new HibernateCacheEndpoint(entityManagerFactory);
+    }
+}
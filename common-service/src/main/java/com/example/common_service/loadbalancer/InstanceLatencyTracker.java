@@ -0,0 +1,156 @@
+package com.example.common_service.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps a peak-EWMA of call latency and the number of outstanding calls for every
+ * instance the load balancer has sent traffic to, grouped by service.
+ */
+public class InstanceLatencyTracker {
+
+    //service id to host:port to stats
+    private final Map<String, Map<String, InstanceStats>> stats = new ConcurrentHashMap<>();
+
+    private final double decayNanos;
+
+    private final long failurePenaltyNanos;
+
+    private final long initialLatencyNanos;
+
+    private final LongSupplier clock;
+
+    public InstanceLatencyTracker(Duration decay, Duration failurePenalty, Duration initialLatency) {
+        this(decay, failurePenalty, initialLatency, System::nanoTime);
+    }
+
+    InstanceLatencyTracker(Duration decay, Duration failurePenalty, Duration initialLatency, LongSupplier clock) {
+        this.decayNanos = decay.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+        this.initialLatencyNanos = initialLatency.toNanos();
+        this.clock = clock;
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    public void requestStarted(ServiceInstance instance) {
+        statsFor(instance).outstanding.incrementAndGet();
+    }
+
+    //a negative latency means the call was not timed, it then only counts if it failed
+    public void requestFinished(ServiceInstance instance, long latencyNanos, boolean failed) {
+        InstanceStats instanceStats = statsFor(instance);
+        instanceStats.outstanding.updateAndGet(current -> Math.max(0, current - 1));
+        if (latencyNanos < 0 && !failed) {
+            return;
+        }
+        instanceStats.observe(failed ? Math.max(latencyNanos, failurePenaltyNanos) : latencyNanos, now(), decayNanos);
+    }
+
+    public int outstanding(ServiceInstance instance) {
+        InstanceStats instanceStats = find(instance);
+        return instanceStats == null ? 0 : instanceStats.outstanding.get();
+    }
+
+    //expected latency of the next call weighted by the calls already waiting on the instance
+    public double peakEwmaCost(ServiceInstance instance, long now) {
+        InstanceStats instanceStats = find(instance);
+        if (instanceStats == null) {
+            return unsampledLatency(instance, now);
+        }
+        double latency = instanceStats.cost(now, decayNanos);
+        if (Double.isNaN(latency)) {
+            latency = unsampledLatency(instance, now);
+        }
+        return latency * (instanceStats.outstanding.get() + 1);
+    }
+
+    //as slow as the slowest instance of the service: a new instance gets tried, but not by every pair it is drawn in
+    private double unsampledLatency(ServiceInstance instance, long now) {
+        Map<String, InstanceStats> service = stats.get(instance.getServiceId());
+        double max = -1;
+        if (service != null) {
+            for (InstanceStats instanceStats : service.values()) {
+                double latency = instanceStats.cost(now, decayNanos);
+                //NaN for the ones without a sample either, which never compares greater
+                if (latency > max) {
+                    max = latency;
+                }
+            }
+        }
+        return max < 0 ? initialLatencyNanos : max;
+    }
+
+    void observe(ServiceInstance instance, long latencyNanos, long now) {
+        statsFor(instance).observe(latencyNanos, now, decayNanos);
+    }
+
+    private InstanceStats find(ServiceInstance instance) {
+        Map<String, InstanceStats> service = stats.get(instance.getServiceId());
+        return service == null ? null : service.get(key(instance));
+    }
+
+    private InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(instance.getServiceId(), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key(instance), k -> new InstanceStats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    //locked per instance on every load balanced call; a lock, unlike a monitor, lets a waiting virtual thread unmount
+    private static final class InstanceStats {
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private double ewmaNanos;
+
+        private long stamp;
+
+        private boolean sampled;
+
+        void observe(long latencyNanos, long now, double decayNanos) {
+            lock.lock();
+            try {
+                if (!sampled) {
+                    ewmaNanos = latencyNanos;
+                    sampled = true;
+                } else if (latencyNanos > ewmaNanos) {
+                    //peak sensitive: a slow call is taken at face value straight away
+                    ewmaNanos = latencyNanos;
+                } else {
+                    double weight = Math.exp(-Math.max(0, now - stamp) / decayNanos);
+                    ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+                }
+                stamp = now;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        //NaN until the first sample
+        double cost(long now, double decayNanos) {
+            lock.lock();
+            try {
+                if (!sampled) {
+                    return Double.NaN;
+                }
+                //decay towards zero while idle so an instance that was slow gets probed again eventually
+                return ewmaNanos * Math.exp(-Math.max(0, now - stamp) / decayNanos);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.common_service.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks two random instances and sends the call to the cheaper one ("power of two choices").
+ * Cost is either the peak-EWMA latency weighted by outstanding calls or just the outstanding calls.
+ * Sampling two instead of always taking the global minimum keeps a burst of callers from all
+ * piling onto the same instance between two latency updates.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+
+    private final InstanceLatencyTracker tracker;
+
+    private final LatencyAwareLoadBalancerProperties.Strategy strategy;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    InstanceLatencyTracker tracker,
+                                    LatencyAwareLoadBalancerProperties.Strategy strategy) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.tracker = tracker;
+        this.strategy = strategy;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::select);
+    }
+
+    Response<ServiceInstance> select(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        long now = tracker.now();
+        return new DefaultResponse(cost(b, now) < cost(a, now) ? b : a);
+    }
+
+    private double cost(ServiceInstance instance, long now) {
+        if (strategy == LatencyAwareLoadBalancerProperties.Strategy.LEAST_OUTSTANDING) {
+            return tracker.outstanding(instance);
+        }
+        return tracker.peakEwmaCost(instance, now);
+    }
+}
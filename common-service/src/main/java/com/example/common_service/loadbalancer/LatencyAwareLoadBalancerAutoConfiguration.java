@@ -0,0 +1,34 @@
+package com.example.common_service.loadbalancer;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Replaces the default round robin choice for every load balanced client (Feign included)
+ * with {@link LatencyAwareLoadBalancer}. Switch off with {@code ims.loadbalancer.enabled=false}.
+ */
+@AutoConfiguration
+@ConditionalOnClass(ReactorServiceInstanceLoadBalancer.class)
+@ConditionalOnProperty(prefix = "ims.loadbalancer", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(LatencyAwareLoadBalancerProperties.class)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerClientConfiguration.class)
+public class LatencyAwareLoadBalancerAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public InstanceLatencyTracker instanceLatencyTracker(LatencyAwareLoadBalancerProperties properties) {
+        return new InstanceLatencyTracker(properties.getDecay(), properties.getFailurePenalty(),
+                properties.getInitialLatency());
+    }
+
+    @Bean
+    public LatencyRecordingLoadBalancerLifecycle latencyRecordingLoadBalancerLifecycle(InstanceLatencyTracker tracker) {
+        return new LatencyRecordingLoadBalancerLifecycle(tracker);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.common_service.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ims.loadbalancer")
+public class LatencyAwareLoadBalancerProperties {
+
+    public enum Strategy {
+        PEAK_EWMA,
+        LEAST_OUTSTANDING
+    }
+
+    private boolean enabled = true;
+
+    private Strategy strategy = Strategy.PEAK_EWMA;
+
+    //how quickly old latency samples stop mattering, also how long a slow instance is avoided before it is probed again
+    private Duration decay = Duration.ofSeconds(10);
+
+    //latency charged to an instance for a failed call or a 5xx response
+    private Duration failurePenalty = Duration.ofSeconds(1);
+
+    //latency assumed for an instance without samples while no other instance of its service has any either;
+    //once one has, the slowest of them is assumed instead
+    private Duration initialLatency = Duration.ofMillis(100);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public Duration getDecay() {
+        return decay;
+    }
+
+    public void setDecay(Duration decay) {
+        this.decay = decay;
+    }
+
+    public Duration getFailurePenalty() {
+        return failurePenalty;
+    }
+
+    public void setFailurePenalty(Duration failurePenalty) {
+        this.failurePenalty = failurePenalty;
+    }
+
+    public Duration getInitialLatency() {
+        return initialLatency;
+    }
+
+    public void setInitialLatency(Duration initialLatency) {
+        this.initialLatency = initialLatency;
+    }
+}
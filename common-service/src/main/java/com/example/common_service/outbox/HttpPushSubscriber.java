@@ -0,0 +1,79 @@
+package com.example.common_service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Posts each batch as a JSON array to every target, either a fixed URL or each registered instance of a
+ * service. A batch is acknowledged when every target answered 2xx; otherwise the whole batch is sent to all
+ * of them again, so the targets deduplicate on the event id.
+ */
+public class HttpPushSubscriber implements OutboxSubscriber {
+
+    private final String name;
+
+    //resolved again for every batch, so instances that joined or left are picked up
+    private final Supplier<List<URI>> targets;
+
+    private final Duration timeout;
+
+    private final ObjectMapper objectMapper;
+
+    private final HttpClient http;
+
+    public HttpPushSubscriber(String name, Supplier<List<URI>> targets, Duration timeout, ObjectMapper objectMapper) {
+        this.name = name;
+        this.targets = targets;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) throws IOException, InterruptedException {
+        List<URI> uris = targets.get();
+        if (uris.isEmpty()) {
+            throw new IOException(name + " has no instances to take a batch of " + events.size() + " outbox events");
+        }
+        byte[] body = objectMapper.writeValueAsBytes(events);
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(uris.size());
+        for (URI uri : uris) {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            responses.add(http.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < uris.size(); i++) {
+            try {
+                int status = responses.get(i).get().statusCode();
+                if (status / 100 != 2) {
+                    failures.add(uris.get(i) + " answered " + status);
+                }
+            } catch (ExecutionException e) {
+                failures.add(uris.get(i) + " failed with " + e.getCause());
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IOException(name + " did not take a batch of " + events.size() + " outbox events: " + String.join(", ", failures));
+        }
+    }
+}
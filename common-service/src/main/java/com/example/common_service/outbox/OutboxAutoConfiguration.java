@@ -0,0 +1,115 @@
+package com.example.common_service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Transactional outbox for services that set {@code ims.outbox.enabled=true}: an {@link OutboxPublisher}
+ * for the write paths and an {@link OutboxRelay} that pushes the rows to the {@link OutboxSubscriber}
+ * beans and the HTTP subscribers configured under {@code ims.outbox.subscribers}.
+ */
+@AutoConfiguration(after = {JdbcTemplateAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        TransactionAutoConfiguration.class, JacksonAutoConfiguration.class})
+@ConditionalOnClass({JdbcTemplate.class, MeterRegistry.class})
+@ConditionalOnBean({JdbcTemplate.class, PlatformTransactionManager.class})
+@ConditionalOnProperty(prefix = "ims.outbox", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxAutoConfiguration {
+
+    //portable between MySQL and the H2 databases the tests and the load harness use
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS outbox_event ("
+            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "aggregate_type VARCHAR(64) NOT NULL, "
+            + "aggregate_id VARCHAR(64) NOT NULL, "
+            + "event_type VARCHAR(64) NOT NULL, "
+            + "payload TEXT NOT NULL, "
+            + "created_at TIMESTAMP(3) NOT NULL)";
+
+    //one queue per subscriber, filled by the relay's fan-out
+    private static final String CREATE_DELIVERY_TABLE = "CREATE TABLE IF NOT EXISTS outbox_delivery ("
+            + "subscriber VARCHAR(64) NOT NULL, "
+            + "event_id BIGINT NOT NULL, "
+            + "aggregate_type VARCHAR(64) NOT NULL, "
+            + "aggregate_id VARCHAR(64) NOT NULL, "
+            + "event_type VARCHAR(64) NOT NULL, "
+            + "payload TEXT NOT NULL, "
+            + "created_at TIMESTAMP(3) NOT NULL, "
+            + "PRIMARY KEY (subscriber, event_id))";
+
+    //which instance fans out and which delivers to each subscriber
+    private static final String CREATE_LEASE_TABLE = "CREATE TABLE IF NOT EXISTS outbox_lease ("
+            + "name VARCHAR(128) PRIMARY KEY, "
+            + "owner VARCHAR(64), "
+            + "expires_at TIMESTAMP(3))";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ims.outbox", name = "initialize-schema", matchIfMissing = true)
+    InitializingBean outboxSchemaInitializer(JdbcTemplate jdbcTemplate) {
+        return () -> {
+            jdbcTemplate.execute(CREATE_TABLE);
+            jdbcTemplate.execute(CREATE_DELIVERY_TABLE);
+            jdbcTemplate.execute(CREATE_LEASE_TABLE);
+        };
+    }
+
+    @Bean
+    public OutboxPublisher outboxPublisher(JdbcTemplate jdbcTemplate, ObjectProvider<ObjectMapper> objectMapper,
+                                           ObjectProvider<OutboxRelay> relay, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OutboxPublisher(jdbcTemplate, objectMapper.getIfAvailable(ObjectMapper::new), relay, meterRegistry);
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   ObjectProvider<OutboxSubscriber> subscriberBeans, ObjectProvider<ObjectMapper> objectMapper,
+                                   ObjectProvider<DiscoveryClient> discoveryClient, OutboxProperties properties,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        List<OutboxSubscriber> subscribers = new ArrayList<>(subscriberBeans.orderedStream().toList());
+        properties.getSubscribers().forEach((name, subscriber) -> subscribers.add(new HttpPushSubscriber(name,
+                targets(name, subscriber, discoveryClient), subscriber.getTimeout(),
+                //the events carry an Instant, which a bare ObjectMapper cannot write
+                objectMapper.getIfAvailable(() -> new ObjectMapper().findAndRegisterModules()))));
+        return new OutboxRelay(jdbcTemplate, new TransactionTemplate(transactionManager), subscribers, properties, meterRegistry);
+    }
+
+    private static Supplier<List<URI>> targets(String name, OutboxProperties.Subscriber subscriber,
+                                               ObjectProvider<DiscoveryClient> discoveryClient) {
+        if (subscriber.getServiceId() != null && subscriber.getUrl() != null) {
+            throw new IllegalStateException("ims.outbox.subscribers." + name + " sets both url and service-id");
+        }
+        if (subscriber.getUrl() != null) {
+            List<URI> url = List.of(subscriber.getUrl());
+            return () -> url;
+        }
+        if (subscriber.getServiceId() == null) {
+            throw new IllegalStateException("ims.outbox.subscribers." + name + " needs a url or a service-id");
+        }
+        DiscoveryClient discovery = discoveryClient.getIfAvailable();
+        if (discovery == null) {
+            throw new IllegalStateException("ims.outbox.subscribers." + name + ".service-id needs a discovery client");
+        }
+        return () -> discovery.getInstances(subscriber.getServiceId()).stream()
+                .map(instance -> instance.getUri().resolve(subscriber.getPath()))
+                .toList();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.common_service.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * One row of the outbox. The id grows with every event and is what subscribers deduplicate on, since
+ * delivery is at least once. The payload is the JSON written by the publisher and is passed on as is.
+ */
+public record OutboxEvent(long id, String aggregateType, String aggregateId, String eventType,
+                          @JsonRawValue String payload, Instant createdAt) {
+}
@@ -0,0 +1,134 @@
+package com.example.common_service.outbox;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "ims.outbox")
+public class OutboxProperties {
+
+    private boolean enabled = false;
+
+    //creates the outbox_event table on startup when it is missing
+    private boolean initializeSchema = true;
+
+    //rows moved per fan-out transaction and handed to a subscriber per delivery
+    private int batchSize = 200;
+
+    //how often the relay looks for rows when nothing woke it up; a commit that published wakes it straight away
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    //wait before retrying a batch a subscriber rejected, the other subscribers are not held up meanwhile
+    private Duration retryBackoff = Duration.ofSeconds(5);
+
+    //how long an instance keeps delivering to a subscriber after it last renewed its lease; has to outlast a
+    //subscriber's slowest delivery, or a second instance may deliver the same rows alongside it
+    private Duration leaseDuration = Duration.ofSeconds(30);
+
+    //HTTP push subscribers by name, each receives every batch as a JSON array at a url, or at the path on every
+    //registered instance of service-id
+    private Map<String, Subscriber> subscribers = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isInitializeSchema() {
+        return initializeSchema;
+    }
+
+    public void setInitializeSchema(boolean initializeSchema) {
+        this.initializeSchema = initializeSchema;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(Duration retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public Duration getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public void setLeaseDuration(Duration leaseDuration) {
+        this.leaseDuration = leaseDuration;
+    }
+
+    public Map<String, Subscriber> getSubscribers() {
+        return subscribers;
+    }
+
+    public void setSubscribers(Map<String, Subscriber> subscribers) {
+        this.subscribers = subscribers;
+    }
+
+    public static class Subscriber {
+
+        private URI url;
+
+        //pushes to every instance the discovery client knows, for subscribers that keep per-instance state
+        private String serviceId;
+
+        private String path = "/";
+
+        private Duration timeout = Duration.ofSeconds(5);
+
+        public URI getUrl() {
+            return url;
+        }
+
+        public void setUrl(URI url) {
+            this.url = url;
+        }
+
+        public String getServiceId() {
+            return serviceId;
+        }
+
+        public void setServiceId(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
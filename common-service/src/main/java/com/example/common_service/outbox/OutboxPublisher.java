@@ -0,0 +1,94 @@
+package com.example.common_service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes events to the outbox table on the connection of the caller's transaction, so an event exists
+ * exactly when the change it describes was committed. Publish after writing the aggregate: the aggregate's
+ * row lock then keeps the events of one aggregate in id order.
+ */
+public class OutboxPublisher {
+
+    private static final String INSERT = "INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<OutboxRelay> relay;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public OutboxPublisher(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ObjectProvider<OutboxRelay> relay,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.relay = relay;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void publish(String aggregateType, Object aggregateId, String eventType, Object payload) {
+        requireTransaction();
+        jdbcTemplate.update(INSERT, aggregateType, String.valueOf(aggregateId), eventType, toJson(payload), Timestamp.from(Instant.now()));
+        published(aggregateType, eventType, 1);
+    }
+
+    //one JDBC batch for the lot, used by the bulk write paths
+    public <T> void publishAll(String aggregateType, String eventType, List<T> payloads, Function<T, ?> aggregateId) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        requireTransaction();
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(payloads.size());
+        for (T payload : payloads) {
+            rows.add(new Object[]{aggregateType, String.valueOf(aggregateId.apply(payload)), eventType, toJson(payload), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        published(aggregateType, eventType, payloads.size());
+    }
+
+    private void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be published inside the transaction that makes the change");
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot write outbox payload " + payload.getClass().getName(), e);
+        }
+    }
+
+    private void published(String aggregateType, String eventType, int count) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.counter("outbox.events.published", "aggregate", aggregateType, "event", eventType).increment(count);
+        }
+        //relay right after the commit instead of at the next poll
+        OutboxRelay outboxRelay = relay.getIfAvailable();
+        if (outboxRelay != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.wakeUp();
+                }
+            });
+        }
+    }
+}
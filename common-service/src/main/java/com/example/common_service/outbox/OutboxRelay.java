@@ -0,0 +1,341 @@
+package com.example.common_service.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves outbox rows to the subscribers in two steps, neither of which holds a transaction while a
+ * subscriber is called:
+ * <ul>
+ *     <li>fan-out: a short transaction copies the visible {@code outbox_event} rows into one
+ *     {@code outbox_delivery} queue per subscriber and deletes them by id. It reads without locking, so
+ *     the publishers' inserts never wait on it.</li>
+ *     <li>delivery: each subscriber's queue is read in event id order, handed to the subscriber and its
+ *     rows deleted once the subscriber took them. A subscriber that fails backs off on its own and
+ *     keeps its rows, the others carry on.</li>
+ * </ul>
+ * Fan-out and every subscriber's delivery are guarded by a lease in {@code outbox_lease}, so with several
+ * instances only one of them delivers to a given subscriber at a time and the id order holds. Delivery is
+ * at least once: a failure, a crash or an expired lease means the rows are delivered again. Every instance
+ * is expected to be configured with the same subscribers, since fan-out only queues for the ones it knows.
+ */
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String FAN_OUT_LEASE = "fan-out";
+
+    private static final String SELECT_EVENTS = "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at "
+            + "FROM outbox_event ORDER BY id LIMIT ?";
+
+    private static final String INSERT_DELIVERY = "INSERT INTO outbox_delivery "
+            + "(subscriber, event_id, aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_DELIVERIES = "SELECT event_id AS id, aggregate_type, aggregate_id, event_type, payload, created_at "
+            + "FROM outbox_delivery WHERE subscriber = ? ORDER BY event_id LIMIT ?";
+
+    private static final String CLAIM_LEASE = "UPDATE outbox_lease SET owner = ?, expires_at = ? "
+            + "WHERE name = ? AND (owner IS NULL OR owner = ? OR expires_at < ?)";
+
+    private static final RowMapper<OutboxEvent> EVENT = (rs, rowNum) -> new OutboxEvent(rs.getLong("id"),
+            rs.getString("aggregate_type"), rs.getString("aggregate_id"), rs.getString("event_type"),
+            rs.getString("payload"), rs.getTimestamp("created_at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final List<Lane> lanes;
+
+    private final OutboxProperties properties;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    //identifies this relay in outbox_lease
+    private final String owner = UUID.randomUUID().toString();
+
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    private final AtomicLong pending = new AtomicLong();
+
+    //age of the oldest row not yet relayed, 0 when the outbox is empty
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, List<OutboxSubscriber> subscribers,
+                       OutboxProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.lanes = subscribers.stream().map(Lane::new).toList();
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    public long pending() {
+        return pending.get();
+    }
+
+    @Override
+    public void start() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                    .description("Outbox rows not yet delivered to every subscriber")
+                    .register(registry);
+            Gauge.builder("outbox.oldest.age", oldestAgeMillis, age -> age.get() / 1000.0)
+                    .description("Age of the oldest outbox row not yet delivered")
+                    .baseUnit("seconds")
+                    .register(registry);
+            for (Lane lane : lanes) {
+                Gauge.builder("outbox.subscriber.pending", lane.pending, AtomicLong::get)
+                        .description("Outbox rows queued for a subscriber")
+                        .tag("subscriber", lane.subscriber.name())
+                        .register(registry);
+                lane.deliveryLag = Timer.builder("outbox.delivery.lag")
+                        .description("Time from publishing an event to a subscriber acknowledging it")
+                        .tag("subscriber", lane.subscriber.name())
+                        .register(registry);
+            }
+        }
+        if (lanes.isEmpty()) {
+            log.info("No outbox subscribers configured, relayed events are discarded");
+        }
+        running = true;
+        thread = new Thread(this::run, "outbox-relay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        wakeUp();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //let another instance take over without waiting for the leases to expire
+        try {
+            jdbcTemplate.update("UPDATE outbox_lease SET owner = NULL WHERE owner = ?", owner);
+        } catch (RuntimeException e) {
+            log.debug("Could not release the outbox leases", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            Duration wait = properties.getPollInterval();
+            try {
+                if (fanOut() == properties.getBatchSize()) {
+                    wait = Duration.ZERO;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Outbox fan-out failed, retrying in {}: {}", properties.getRetryBackoff(), e.toString());
+                wait = properties.getRetryBackoff();
+            }
+            for (Lane lane : lanes) {
+                long untilRetry = lane.retryAt - System.nanoTime();
+                if (untilRetry > 0) {
+                    wait = min(wait, Duration.ofNanos(untilRetry));
+                } else if (relay(lane) == properties.getBatchSize()) {
+                    wait = Duration.ZERO;
+                } else if (lane.retryAt > System.nanoTime()) {
+                    wait = min(wait, properties.getRetryBackoff());
+                }
+            }
+            try {
+                refreshBacklog();
+            } catch (RuntimeException e) {
+                log.debug("Could not read the outbox backlog", e);
+            }
+            if (!wait.isZero()) {
+                try {
+                    if (wakeUps.tryAcquire(wait.toMillis(), TimeUnit.MILLISECONDS)) {
+                        wakeUps.drainPermits();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    //number of outbox_event rows moved to the subscriber queues
+    int fanOut() {
+        if (!claim(FAN_OUT_LEASE)) {
+            return 0;
+        }
+        Integer moved = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = jdbcTemplate.query(SELECT_EVENTS, EVENT, properties.getBatchSize());
+            List<Object[]> deliveries = new ArrayList<>(events.size() * lanes.size());
+            for (OutboxEvent event : events) {
+                //by id, not by range: a row with a lower id committed after this read is still waiting for its turn.
+                //a row another relay already took is left to it
+                if (jdbcTemplate.update("DELETE FROM outbox_event WHERE id = ?", event.id()) == 0) {
+                    continue;
+                }
+                for (Lane lane : lanes) {
+                    deliveries.add(new Object[]{lane.subscriber.name(), event.id(), event.aggregateType(), event.aggregateId(),
+                            event.eventType(), event.payload(), Timestamp.from(event.createdAt())});
+                }
+            }
+            if (!deliveries.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_DELIVERY, deliveries);
+            }
+            return events.size();
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    //number of events the subscriber acknowledged, 0 when it failed or another instance delivers to it
+    int relay(Lane lane) {
+        OutboxSubscriber subscriber = lane.subscriber;
+        List<OutboxEvent> events;
+        try {
+            if (!claim(lane.leaseName)) {
+                return 0;
+            }
+            events = jdbcTemplate.query(SELECT_DELIVERIES, EVENT, subscriber.name(), properties.getBatchSize());
+        } catch (RuntimeException e) {
+            log.warn("Could not read the outbox queue of {}: {}", subscriber.name(), e.toString());
+            lane.retryAt = System.nanoTime() + properties.getRetryBackoff().toNanos();
+            return 0;
+        }
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            subscriber.deliver(Collections.unmodifiableList(events));
+        } catch (Exception e) {
+            count(subscriber, "failure", events.size());
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Outbox subscriber {} rejected {} events, retrying in {}: {}", subscriber.name(), events.size(),
+                    properties.getRetryBackoff(), e.toString());
+            lane.retryAt = System.nanoTime() + properties.getRetryBackoff().toNanos();
+            return 0;
+        }
+        count(subscriber, "success", events.size());
+        try {
+            jdbcTemplate.batchUpdate("DELETE FROM outbox_delivery WHERE subscriber = ? AND event_id = ?",
+                    events.stream().map(event -> new Object[]{subscriber.name(), event.id()}).toList());
+        } catch (RuntimeException e) {
+            //the subscriber took them, they are delivered again once the queue can be written
+            log.warn("Could not acknowledge {} outbox events of {}: {}", events.size(), subscriber.name(), e.toString());
+            lane.retryAt = System.nanoTime() + properties.getRetryBackoff().toNanos();
+            return 0;
+        }
+        if (lane.deliveryLag != null) {
+            Instant now = Instant.now();
+            events.forEach(event -> lane.deliveryLag.record(Duration.between(event.createdAt(), now)));
+        }
+        return events.size();
+    }
+
+    //takes or renews a lease, a single statement so no lock outlives it
+    private boolean claim(String name) {
+        Instant now = Instant.now();
+        Timestamp expiresAt = Timestamp.from(now.plus(properties.getLeaseDuration()));
+        if (jdbcTemplate.update(CLAIM_LEASE, owner, expiresAt, name, owner, Timestamp.from(now)) == 1) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update("INSERT INTO outbox_lease (name, owner, expires_at) VALUES (?, ?, ?)",
+                    name, owner, expiresAt) == 1;
+        } catch (DuplicateKeyException e) {
+            //held by another instance
+            return false;
+        }
+    }
+
+    private void refreshBacklog() {
+        long[] events = new long[1];
+        long[] oldest = {Long.MAX_VALUE};
+        jdbcTemplate.query("SELECT COUNT(*), MIN(created_at) FROM outbox_event", rs -> {
+            events[0] += rs.getLong(1);
+            oldest[0] = Math.min(oldest[0], millis(rs.getTimestamp(2)));
+        });
+        jdbcTemplate.query("SELECT COUNT(DISTINCT event_id), MIN(created_at) FROM outbox_delivery", rs -> {
+            events[0] += rs.getLong(1);
+            oldest[0] = Math.min(oldest[0], millis(rs.getTimestamp(2)));
+        });
+        pending.set(events[0]);
+        oldestAgeMillis.set(oldest[0] == Long.MAX_VALUE ? 0 : Math.max(0, System.currentTimeMillis() - oldest[0]));
+        lanes.forEach(lane -> lane.pending.set(0));
+        jdbcTemplate.query("SELECT subscriber, COUNT(*) FROM outbox_delivery GROUP BY subscriber", rs -> {
+            String name = rs.getString(1);
+            long queued = rs.getLong(2);
+            lanes.stream().filter(lane -> lane.subscriber.name().equals(name)).forEach(lane -> lane.pending.set(queued));
+        });
+    }
+
+    private static long millis(Timestamp timestamp) {
+        return timestamp == null ? Long.MAX_VALUE : timestamp.getTime();
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private void count(OutboxSubscriber subscriber, String outcome, int events) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registry.counter("outbox.events.relayed", "subscriber", subscriber.name(), "outcome", outcome).increment(events);
+        }
+    }
+
+    //one subscriber's delivery state, only touched by the relay thread
+    static final class Lane {
+
+        final OutboxSubscriber subscriber;
+
+        final String leaseName;
+
+        final AtomicLong pending = new AtomicLong();
+
+        Timer deliveryLag;
+
+        //System.nanoTime() before which the subscriber is not tried again
+        long retryAt = System.nanoTime();
+
+        Lane(OutboxSubscriber subscriber) {
+            this.subscriber = subscriber;
+            this.leaseName = "subscriber:" + subscriber.name();
+        }
+    }
+}
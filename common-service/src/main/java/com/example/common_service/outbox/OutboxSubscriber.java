@@ -0,0 +1,17 @@
+package com.example.common_service.outbox;
+
+import java.util.List;
+
+/**
+ * Receives relayed outbox events in id order, so in order per aggregate. A batch may be delivered again
+ * after a failure or a restart, so handling has to be idempotent on the event id. Every bean of this
+ * type is a subscriber, next to the HTTP push subscribers from {@code ims.outbox.subscribers}.
+ */
+public interface OutboxSubscriber {
+
+    String name();
+
+    //called outside any transaction; throwing rejects the whole batch, it is retried after ims.outbox.retry-backoff
+    //while the other subscribers carry on
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
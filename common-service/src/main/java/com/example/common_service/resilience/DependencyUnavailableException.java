@@ -0,0 +1,19 @@
+package com.example.common_service.resilience;
+
+/**
+ * Thrown instead of the original error when a Feign target failed, its circuit is open or its
+ * bulkhead is full and there is no last known good answer to fall back to.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    private final String service;
+
+    public DependencyUnavailableException(String service, Throwable cause) {
+        super(service + " is unavailable", cause);
+        this.service = service;
+    }
+
+    public String getService() {
+        return service;
+    }
+}
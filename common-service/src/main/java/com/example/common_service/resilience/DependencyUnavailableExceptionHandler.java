@@ -0,0 +1,19 @@
+package com.example.common_service.resilience;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+@RestControllerAdvice
+public class DependencyUnavailableExceptionHandler {
+
+    @ExceptionHandler(DependencyUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleDependencyUnavailable(DependencyUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(Map.of("message", e.getService() + " is currently unavailable, please try again later"));
+    }
+}
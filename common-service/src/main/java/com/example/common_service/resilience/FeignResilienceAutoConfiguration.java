@@ -0,0 +1,55 @@
+package com.example.common_service.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Feign;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.cloud.openfeign.FeignAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Circuit breakers and bulkheads come from Spring Cloud CircuitBreaker (Resilience4j) once
+ * {@code spring.cloud.openfeign.circuitbreaker.enabled=true}. This names them after the Feign target
+ * instead of the method so all calls to one service share a breaker and a bulkhead, and adds the
+ * last known good fallback for the reads marked {@link LastKnownGood}.
+ */
+@AutoConfiguration(before = FeignAutoConfiguration.class)
+@ConditionalOnClass({Feign.class, MeterRegistry.class})
+@EnableConfigurationProperties(LastKnownGoodProperties.class)
+public class FeignResilienceAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CircuitBreakerNameResolver perTargetCircuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "ims.feign.last-known-good", name = "enabled", matchIfMissing = true)
+    public LastKnownGoodCache lastKnownGoodCache(LastKnownGoodProperties properties, ObjectProvider<ObjectMapper> objectMapper) {
+        return new LastKnownGoodCache(properties.getMaxSize().toBytes(), properties.getRefreshInterval(),
+                objectMapper.getIfAvailable(() -> new ObjectMapper().findAndRegisterModules()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ims.feign.last-known-good", name = "enabled", matchIfMissing = true)
+    static LastKnownGoodFeignClientPostProcessor lastKnownGoodFeignClientPostProcessor(ObjectProvider<LastKnownGoodCache> cache,
+                                                                                      ObjectProvider<LastKnownGoodProperties> properties,
+                                                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        return new LastKnownGoodFeignClientPostProcessor(cache, properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public DependencyUnavailableExceptionHandler dependencyUnavailableExceptionHandler() {
+        return new DependencyUnavailableExceptionHandler();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.common_service.resilience;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET method of a Feign client whose last successful answer may stand in while the target is
+ * failing. Only put this on reads where an answer of up to {@link #maxAge()} old is still correct to
+ * show, never on prices, stock or anything a write is decided on. A stale answer is flagged to the
+ * client with the {@value LastKnownGoodFeignClientPostProcessor#STALE_HEADER} response header.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LastKnownGood {
+
+    //oldest answer served for this method, e.g. "2m"; empty uses ims.feign.last-known-good.max-age
+    String maxAge() default "";
+}
@@ -0,0 +1,146 @@
+package com.example.common_service.resilience;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU of the last successful answer per Feign read (method plus arguments), bounded by bytes. Answers
+ * are kept serialized, which is what makes them measurable and keeps callers that modify a returned
+ * list from changing the cached copy. A key is stored again at most once per refresh interval, so a
+ * hot read is not serialized on every call. Guarded by a ReentrantLock that virtual threads can wait
+ * on without pinning.
+ */
+public class LastKnownGoodCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LastKnownGoodCache.class);
+
+    //rough per-entry cost of the key, the map node and the entry itself
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxBytes;
+
+    private final long refreshMillis;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Object, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long totalBytes;
+
+    public LastKnownGoodCache(long maxBytes, Duration refreshInterval, ObjectMapper objectMapper) {
+        this.maxBytes = maxBytes;
+        this.refreshMillis = refreshInterval.toMillis();
+        this.objectMapper = objectMapper;
+    }
+
+    public void put(Object key, Object value) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entry current = entries.get(key);
+            if (current != null && now - current.storedAt() < refreshMillis) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            log.debug("Cannot keep the answer for {}", key, ex);
+            return;
+        }
+        Entry entry = new Entry(body, now);
+        lock.lock();
+        try {
+            remove(key);
+            if (entry.size() > maxBytes) {
+                return;
+            }
+            entries.put(key, entry);
+            totalBytes += entry.size();
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().size();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Optional.empty() when nothing younger than maxAge is cached, a present Optional may still hold a null answer
+    public Optional<Stale> get(Object key, Type type, Duration maxAge) {
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (System.currentTimeMillis() - entry.storedAt() > maxAge.toMillis()) {
+                remove(key);
+                return Optional.empty();
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            JavaType javaType = objectMapper.getTypeFactory().constructType(type);
+            return Optional.of(new Stale(objectMapper.readValue(entry.body(), javaType), entry.storedAt()));
+        } catch (IOException ex) {
+            log.debug("Cannot read back the answer for {}", key, ex);
+            return Optional.empty();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long sizeInBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Object key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+    }
+
+    private record Entry(byte[] body, long storedAt) {
+
+        long size() {
+            return body.length + ENTRY_OVERHEAD;
+        }
+    }
+
+    public record Stale(Object value, long storedAt) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.common_service.resilience;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.client.circuitbreaker.NoFallbackAvailableException;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Puts every Feign client proxy behind a second proxy that turns a failure other than a 4xx (target
+ * down, circuit open, bulkhead full) into a {@link DependencyUnavailableException}. For the GET methods
+ * marked {@link LastKnownGood} it also remembers the last successful answer and serves that instead,
+ * adding a {@value #STALE_HEADER} header naming the method and the answer's age in seconds to the
+ * response of the request being handled. Everything else fails rather than answering with old data.
+ */
+public class LastKnownGoodFeignClientPostProcessor implements BeanPostProcessor {
+
+    public static final String STALE_HEADER = "X-Served-Stale";
+
+    private final ObjectProvider<LastKnownGoodCache> cache;
+
+    private final ObjectProvider<LastKnownGoodProperties> properties;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public LastKnownGoodFeignClientPostProcessor(ObjectProvider<LastKnownGoodCache> cache,
+                                                 ObjectProvider<LastKnownGoodProperties> properties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = cache;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!Proxy.isProxyClass(bean.getClass())) {
+            return bean;
+        }
+        for (Class<?> type : bean.getClass().getInterfaces()) {
+            FeignClient feignClient = AnnotatedElementUtils.findMergedAnnotation(type, FeignClient.class);
+            if (feignClient != null) {
+                checkFallbacks(type);
+                String service = StringUtils.hasText(feignClient.name()) ? feignClient.name() : feignClient.value();
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                        new LastKnownGoodHandler(bean, type, service));
+            }
+        }
+        return bean;
+    }
+
+    private final class LastKnownGoodHandler implements InvocationHandler {
+
+        private final Object target;
+
+        private final String client;
+
+        private final String service;
+
+        //Optional.empty() for methods without a fallback
+        private final Map<Method, Optional<Duration>> fallbacks = new ConcurrentHashMap<>();
+
+        LastKnownGoodHandler(Object target, Class<?> type, String service) {
+            this.target = target;
+            this.client = type.getSimpleName();
+            this.service = service;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            Optional<Duration> maxAge = fallbacks.computeIfAbsent(method, this::maxAge);
+            boolean read = maxAge.isPresent();
+            List<Object> key = read ? List.of(client, method.getName(), Arrays.asList(args == null ? new Object[0] : args)) : null;
+            try {
+                Object result = method.invoke(target, args);
+                if (read) {
+                    cache.getObject().put(key, result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable failure = e.getCause();
+                while ((failure instanceof NoFallbackAvailableException || failure instanceof ExecutionException
+                        || failure instanceof CompletionException) && failure.getCause() != null) {
+                    failure = failure.getCause();
+                }
+                //4xx is an answer from a healthy service, the caller handles it as before
+                if (failure instanceof FeignException.FeignClientException) {
+                    throw failure;
+                }
+                if (read) {
+                    Optional<LastKnownGoodCache.Stale> stale = cache.getObject().get(key, method.getGenericReturnType(), maxAge.get());
+                    if (stale.isPresent()) {
+                        count(method, "stale");
+                        markStale(method, stale.get().storedAt());
+                        return stale.get().value();
+                    }
+                }
+                count(method, "unavailable");
+                throw new DependencyUnavailableException(service, failure);
+            }
+        }
+
+        private Optional<Duration> maxAge(Method method) {
+            LastKnownGood lastKnownGood = AnnotatedElementUtils.findMergedAnnotation(method, LastKnownGood.class);
+            if (lastKnownGood == null) {
+                return Optional.empty();
+            }
+            return Optional.of(StringUtils.hasText(lastKnownGood.maxAge())
+                    ? DurationStyle.detectAndParse(lastKnownGood.maxAge()) : properties.getObject().getMaxAge());
+        }
+
+        //calls made off the request thread have no response to mark, the fallback counter still sees them
+        private void markStale(Method method, long storedAt) {
+            if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                    && attributes.getResponse() != null && !attributes.getResponse().isCommitted()) {
+                long ageSeconds = Math.max(0, (System.currentTimeMillis() - storedAt) / 1000);
+                attributes.getResponse().addHeader(STALE_HEADER, client + "." + method.getName() + "; age=" + ageSeconds);
+            }
+        }
+
+        private void count(Method method, String outcome) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            if (registry != null) {
+                registry.counter("feign.fallback.requests", "service", service,
+                        "method", client + "." + method.getName(), "outcome", outcome).increment();
+            }
+        }
+    }
+
+    //a fallback on a write would answer it without making the change, so that fails the startup
+    private static void checkFallbacks(Class<?> type) {
+        for (Method method : type.getMethods()) {
+            if (AnnotatedElementUtils.hasAnnotation(method, LastKnownGood.class)) {
+                RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+                if (mapping == null || !Arrays.asList(mapping.method()).contains(RequestMethod.GET)) {
+                    throw new IllegalStateException("@LastKnownGood is only allowed on GET methods, not on " + method);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.common_service.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ims.feign.last-known-good")
+public class LastKnownGoodProperties {
+
+    private boolean enabled = true;
+
+    //serialized answers of @LastKnownGood reads kept around to answer with while the target is failing
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+
+    //older answers are not served any more, the caller gets a 503 instead; @LastKnownGood(maxAge) overrides it
+    private Duration maxAge = Duration.ofMinutes(10);
+
+    //a successful read replaces the kept answer at most this often
+    private Duration refreshInterval = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.common_service.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+
+/**
+ * Times every public method of the application's controllers, services, repositories and Feign clients
+ * into the {@code method.calls} timer, so all services report call latency with the same name and tags.
+ * The advisor is an infrastructure bean and is picked up by the auto proxy creator Boot already registers;
+ * no AspectJ weaving is involved. Switch off with {@code ims.timing.enabled=false}.
+ */
+@AutoConfiguration(after = AopAutoConfiguration.class)
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "ims.timing", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(MethodTimingProperties.class)
+public class MethodTimingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SlowCallSampler slowCallSampler(MethodTimingProperties properties) {
+        return new SlowCallSampler(properties.getSampleCapacity());
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor methodTimingAdvisor(Environment environment,
+                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                       ObjectProvider<SlowCallSampler> sampler,
+                                       MethodTimingProperties properties) {
+        MethodTimingInterceptor interceptor = new MethodTimingInterceptor(
+                environment.getProperty("spring.application.name", "application"), meterRegistry, sampler, properties);
+        return new DefaultPointcutAdvisor(new MethodTimingPointcut(), interceptor);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class SlowCallsEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public SlowCallsEndpoint slowCallsEndpoint(SlowCallSampler sampler) {
+            return new SlowCallsEndpoint(sampler);
+        }
+    }
+}
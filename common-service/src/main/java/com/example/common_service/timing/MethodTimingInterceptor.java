@@ -0,0 +1,132 @@
+package com.example.common_service.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records every intercepted call in the {@code method.calls} timer tagged with service, class, method and
+ * outcome. Timers are looked up once per class and method, after that a call costs two clock reads and
+ * a timer update. Calls over the slow threshold are handed to the {@link SlowCallSampler}, at most one
+ * per method and sample interval.
+ */
+public class MethodTimingInterceptor implements MethodInterceptor {
+
+    public static final String METRIC_NAME = "method.calls";
+
+    private final String service;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final ObjectProvider<SlowCallSampler> sampler;
+
+    private final MethodTimingProperties properties;
+
+    private final long slowThresholdNanos;
+
+    private final long sampleIntervalNanos;
+
+    private final Map<CallSite, CallTimers> timers = new ConcurrentHashMap<>();
+
+    public MethodTimingInterceptor(String service, ObjectProvider<MeterRegistry> meterRegistry,
+                                   ObjectProvider<SlowCallSampler> sampler, MethodTimingProperties properties) {
+        this.service = service;
+        this.meterRegistry = meterRegistry;
+        this.sampler = sampler;
+        this.properties = properties;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.sampleIntervalNanos = properties.getSampleInterval().toNanos();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object target = invocation.getThis();
+        if (target == null) {
+            return invocation.proceed();
+        }
+        CallTimers callTimers = timers.computeIfAbsent(new CallSite(target.getClass(), invocation.getMethod()), this::timersFor);
+        if (callTimers == null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            (failed ? callTimers.error : callTimers.success).record(elapsed, TimeUnit.NANOSECONDS);
+            if (elapsed >= slowThresholdNanos && callTimers.trySample(start, sampleIntervalNanos)) {
+                SlowCallSampler slowCalls = sampler.getIfAvailable();
+                if (slowCalls != null) {
+                    slowCalls.record(callTimers.type, invocation.getMethod().getName(), elapsed,
+                            failed ? "error" : "success", invocation.getArguments());
+                }
+            }
+        }
+    }
+
+    //null while no registry is available yet, computeIfAbsent then stores nothing and the next call tries again
+    private CallTimers timersFor(CallSite site) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return null;
+        }
+        String type = typeName(site.targetClass());
+        String method = site.method().getName();
+        return new CallTimers(type, timer(registry, type, method, "success"), timer(registry, type, method, "error"));
+    }
+
+    private Timer timer(MeterRegistry registry, String type, String method, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("Calls to application controllers, services, repositories and Feign clients")
+                .tags("service", service, "class", type, "method", method, "outcome", outcome)
+                .publishPercentileHistogram(properties.isPercentileHistogram())
+                .register(registry);
+    }
+
+    //Spring Data repositories and Feign clients are JDK proxies, their first interface is the one the application declared
+    static String typeName(Class<?> targetClass) {
+        if (Proxy.isProxyClass(targetClass) && targetClass.getInterfaces().length > 0) {
+            return targetClass.getInterfaces()[0].getSimpleName();
+        }
+        return ClassUtils.getUserClass(targetClass).getSimpleName();
+    }
+
+    //the same Method object is shared by every repository inheriting it, so the target class is part of the key
+    private record CallSite(Class<?> targetClass, Method method) {
+    }
+
+    private static final class CallTimers {
+
+        private final String type;
+
+        private final Timer success;
+
+        private final Timer error;
+
+        private final AtomicLong lastSample = new AtomicLong(Long.MIN_VALUE);
+
+        CallTimers(String type, Timer success, Timer error) {
+            this.type = type;
+            this.success = success;
+            this.error = error;
+        }
+
+        boolean trySample(long now, long intervalNanos) {
+            long last = lastSample.get();
+            return (last == Long.MIN_VALUE || now - last >= intervalNanos) && lastSample.compareAndSet(last, now);
+        }
+    }
+}
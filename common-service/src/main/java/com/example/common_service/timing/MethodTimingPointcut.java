@@ -0,0 +1,52 @@
+package com.example.common_service.timing;
+
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.stereotype.Controller;
+import org.springframework.stereotype.Repository;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+
+/**
+ * Matches the public methods of application controllers, services and repositories, Spring Data
+ * repositories and Feign clients. The last two are JDK proxies so they are recognised by their interfaces.
+ */
+class MethodTimingPointcut extends StaticMethodMatcherPointcut {
+
+    private static final String SPRING_DATA_REPOSITORY = "org.springframework.data.repository.Repository";
+
+    private static final String FEIGN_CLIENT = "org.springframework.cloud.openfeign.FeignClient";
+
+    MethodTimingPointcut() {
+        setClassFilter(MethodTimingPointcut::isTimed);
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        return Modifier.isPublic(method.getModifiers()) && !method.isBridge() && !method.isSynthetic()
+                && method.getDeclaringClass() != Object.class;
+    }
+
+    static boolean isTimed(Class<?> type) {
+        if (Proxy.isProxyClass(type)) {
+            for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+                if (ifc.getName().equals(SPRING_DATA_REPOSITORY) || MergedAnnotations.from(ifc).isPresent(FEIGN_CLIENT)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        //framework beans such as BasicErrorController are stereotyped too but are not ours to time
+        if (type.getName().startsWith("org.springframework.")) {
+            return false;
+        }
+        return AnnotatedElementUtils.hasAnnotation(type, Controller.class)
+                || AnnotatedElementUtils.hasAnnotation(type, Service.class)
+                || AnnotatedElementUtils.hasAnnotation(type, Repository.class);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.common_service.timing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ims.timing")
+public class MethodTimingProperties {
+
+    private boolean enabled = true;
+
+    //publishes histogram buckets so p95/p99 can be aggregated across instances, costs a few dozen extra series per method
+    private boolean percentileHistogram = false;
+
+    //calls slower than this are candidates for a slow call sample
+    private Duration slowThreshold = Duration.ofMillis(250);
+
+    //at most one slow call sample per method in this interval
+    private Duration sampleInterval = Duration.ofSeconds(10);
+
+    //how many of the most recent slow call samples the slowcalls endpoint keeps
+    private int sampleCapacity = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isPercentileHistogram() {
+        return percentileHistogram;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public Duration getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public void setSampleInterval(Duration sampleInterval) {
+        this.sampleInterval = sampleInterval;
+    }
+
+    public int getSampleCapacity() {
+        return sampleCapacity;
+    }
+
+    public void setSampleCapacity(int sampleCapacity) {
+        this.sampleCapacity = sampleCapacity;
+    }
+}
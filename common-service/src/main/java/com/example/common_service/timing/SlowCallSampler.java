@@ -0,0 +1,85 @@
+package com.example.common_service.timing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Array;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the most recent slow calls together with the shape of their arguments: the type and size of
+ * each argument, never its value, so samples are safe to log and expose.
+ */
+public class SlowCallSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowCallSampler.class);
+
+    private final int capacity;
+
+    private final Deque<Sample> samples;
+
+    public SlowCallSampler(int capacity) {
+        this.capacity = capacity;
+        this.samples = new ArrayDeque<>(capacity);
+    }
+
+    public void record(String type, String method, long durationNanos, String outcome, Object[] args) {
+        List<String> shapes = new ArrayList<>(args == null ? 0 : args.length);
+        if (args != null) {
+            for (Object arg : args) {
+                shapes.add(shapeOf(arg));
+            }
+        }
+        Sample sample = new Sample(Instant.now(), type, method, durationNanos / 1_000_000, outcome, shapes);
+        log.warn("Slow call {}.{} took {} ms ({}) with arguments {}", type, method, sample.durationMillis(), outcome, shapes);
+        synchronized (samples) {
+            if (samples.size() == capacity) {
+                samples.removeFirst();
+            }
+            samples.addLast(sample);
+        }
+    }
+
+    //newest first
+    public List<Sample> samples() {
+        synchronized (samples) {
+            List<Sample> copy = new ArrayList<>(samples);
+            Collections.reverse(copy);
+            return copy;
+        }
+    }
+
+    static String shapeOf(Object arg) {
+        if (arg == null) {
+            return "null";
+        }
+        String type = arg.getClass().getSimpleName();
+        if (arg instanceof CharSequence text) {
+            return type + "(length=" + text.length() + ")";
+        }
+        if (arg instanceof Collection<?> collection) {
+            return type + "(size=" + collection.size() + ")";
+        }
+        if (arg instanceof Map<?, ?> map) {
+            return type + "(size=" + map.size() + ")";
+        }
+        if (arg instanceof Optional<?> optional) {
+            return optional.map(value -> "Optional(" + shapeOf(value) + ")").orElse("Optional.empty");
+        }
+        if (arg.getClass().isArray()) {
+            return arg.getClass().getComponentType().getSimpleName() + "[" + Array.getLength(arg) + "]";
+        }
+        return type;
+    }
+
+    public record Sample(Instant at, String type, String method, long durationMillis, String outcome, List<String> arguments) {
+    }
+}
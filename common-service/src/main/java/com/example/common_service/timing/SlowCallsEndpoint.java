@@ -0,0 +1,24 @@
+package com.example.common_service.timing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/slowcalls}: the most recent slow call samples, newest first.
+ */
+@Endpoint(id = "slowcalls")
+public class SlowCallsEndpoint {
+
+    private final SlowCallSampler sampler;
+
+    public SlowCallsEndpoint(SlowCallSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    @ReadOperation
+    public List<SlowCallSampler.Sample> slowCalls() {
+        return sampler.samples();
+    }
+}
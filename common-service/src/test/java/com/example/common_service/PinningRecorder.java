@@ -0,0 +1,69 @@
+package com.example.common_service;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records {@code jdk.VirtualThreadPinned} with JFR while a workload runs and keeps the events whose
+ * stack passes through the given package: a virtual thread that blocked while pinned to its carrier,
+ * inside a monitor or a native frame. The event only exists from Java 21 on.
+ */
+public final class PinningRecorder {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    public interface Workload {
+        void run() throws Exception;
+    }
+
+    private PinningRecorder() {
+    }
+
+    public static List<RecordedEvent> pinnedIn(String packagePrefix, Workload workload) throws Exception {
+        Path file = Files.createTempFile("pinning", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(PINNED).withThreshold(Duration.ZERO).withStackTrace();
+                recording.start();
+                workload.run();
+                recording.stop();
+                recording.dump(file);
+            }
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(PINNED))
+                    .filter(event -> passesThrough(event, packagePrefix))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public static String describe(List<RecordedEvent> events) {
+        return events.stream()
+                .map(event -> event.getDuration().toNanos() / 1000 + "us pinned at\n" + event.getStackTrace().getFrames().stream()
+                        .map(frame -> "\t" + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                                + ":" + frame.getLineNumber())
+                        .collect(Collectors.joining("\n")))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static boolean passesThrough(RecordedEvent event, String packagePrefix) {
+        if (event.getStackTrace() == null) {
+            return false;
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod() != null && frame.getMethod().getType().getName().startsWith(packagePrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
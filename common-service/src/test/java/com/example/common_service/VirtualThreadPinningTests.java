@@ -0,0 +1,156 @@
+package com.example.common_service;
+
+import com.example.common_service.hedging.Hedged;
+import com.example.common_service.hedging.HedgingFeignClient;
+import com.example.common_service.hedging.HedgingProperties;
+import com.example.common_service.loadbalancer.InstanceLatencyTracker;
+import com.example.common_service.resilience.LastKnownGoodCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives hedged Feign calls over the pooled Apache HttpClient from many virtual threads, with more
+ * callers than pooled connections, and fails when any of them blocked while pinned inside our code.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadPinningTests {
+
+	private static final String SERVICE_ID = "item-service";
+
+	private final List<HttpServer> servers = new ArrayList<>();
+
+	interface ItemApi {
+
+		@Hedged
+		@RequestLine("GET /item/{id}")
+		String getItemById(@Param("id") Long id);
+	}
+
+	@AfterEach
+	void stopServers() {
+		servers.forEach(server -> server.stop(0));
+	}
+
+	@Test
+	void feignCallsDoNotPinCarrierThreads() throws Exception {
+		ServiceInstance slow = instance("slow", 30);
+		ServiceInstance fast = instance("fast", 1);
+		HedgingProperties properties = new HedgingProperties();
+		properties.setInitialDelay(Duration.ofMillis(10));
+		properties.setBudget(1.0);
+		LastKnownGoodCache lastKnownGood = new LastKnownGoodCache(64 * 1024, Duration.ZERO, new ObjectMapper());
+
+		CloseableHttpClient httpClient = HttpClients.custom()
+				.setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+						.setMaxConnTotal(8)
+						.setMaxConnPerRoute(4)
+						.build())
+				.build();
+		HedgingFeignClient hedgingClient = hedgingClient(new ApacheHttp5Client(httpClient), slow, fast, properties);
+		ItemApi api = Feign.builder().client(hedgingClient).target(ItemApi.class, "http://" + SERVICE_ID);
+
+		VirtualThreadTaskExecutor callers = new VirtualThreadTaskExecutor("pinning-test-");
+		List<RecordedEvent> pinned = PinningRecorder.pinnedIn("com.example.", () -> {
+			List<Future<String>> calls = new ArrayList<>();
+			for (long i = 0; i < 256; i++) {
+				long id = i % 32;
+				calls.add(callers.submit(() -> {
+					String body = api.getItemById(id);
+					lastKnownGood.put(id, body);
+					return lastKnownGood.get(id, String.class, Duration.ofMinutes(1)).map(stale -> (String) stale.value()).orElseThrow();
+				}));
+			}
+			for (Future<String> call : calls) {
+				assertThat(call.get()).isIn("slow", "fast");
+			}
+		});
+		hedgingClient.destroy();
+		httpClient.close();
+
+		assertThat(pinned).as(PinningRecorder.describe(pinned)).isEmpty();
+	}
+
+	private ServiceInstance instance(String name, long delayMillis) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/item", exchange -> {
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = name.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+		servers.add(server);
+		return new DefaultServiceInstance(name, SERVICE_ID, "localhost", server.getAddress().getPort(), false);
+	}
+
+	private HedgingFeignClient hedgingClient(ApacheHttp5Client transport, ServiceInstance slow, ServiceInstance fast,
+											 HedgingProperties properties) {
+		LoadBalancerClient loadBalancerClient = mock(LoadBalancerClient.class);
+		when(loadBalancerClient.choose(anyString())).thenReturn(slow);
+		when(loadBalancerClient.reconstructURI(any(), any())).thenAnswer(invocation ->
+				LoadBalancerUriTools.reconstructURI(invocation.getArgument(0), invocation.getArgument(1)));
+		SimpleDiscoveryProperties discoveryProperties = new SimpleDiscoveryProperties();
+		discoveryProperties.setInstances(Map.of(SERVICE_ID, List.of(
+				(DefaultServiceInstance) slow, (DefaultServiceInstance) fast)));
+
+		StaticListableBeanFactory beans = new StaticListableBeanFactory();
+		beans.addBean("loadBalancerClient", loadBalancerClient);
+		beans.addBean("discoveryClient", new SimpleDiscoveryClient(discoveryProperties));
+		beans.addBean("latencyTracker", new InstanceLatencyTracker(Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofMillis(100)));
+		beans.addBean("meterRegistry", new SimpleMeterRegistry());
+		//the delegate is only used for calls that are not hedged, the api above has none
+		return new HedgingFeignClient(transport, transport,
+				beans.getBeanProvider(LoadBalancerClient.class),
+				beans.getBeanProvider(DiscoveryClient.class),
+				beans.getBeanProvider(InstanceLatencyTracker.class),
+				beans.getBeanProvider(MeterRegistry.class),
+				properties, true);
+	}
+}
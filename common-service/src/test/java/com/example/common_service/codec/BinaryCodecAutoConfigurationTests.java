@@ -0,0 +1,87 @@
+package com.example.common_service.codec;
+
+import com.example.common_service.dto.ItemDTO;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryCodecAutoConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class,
+					HttpMessageConvertersAutoConfiguration.class, BinaryCodecAutoConfiguration.class));
+
+	@Test
+	void feignClientsPreferSmileAndKeepJsonRequestBodiesByDefault() {
+		contextRunner.run(context -> {
+			assertThat(context).hasSingleBean(MappingJackson2SmileHttpMessageConverter.class);
+			assertThat(context).doesNotHaveBean(Encoder.class);
+
+			RequestTemplate template = new RequestTemplate();
+			context.getBean(RequestInterceptor.class).apply(template);
+			assertThat(template.headers().get(HttpHeaders.ACCEPT))
+					.containsExactly("application/x-jackson-smile, application/json;q=0.9");
+		});
+	}
+
+	@Test
+	void negotiatedResponsesVaryOnAcceptOnce() {
+		new WebApplicationContextRunner()
+				.withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class,
+						HttpMessageConvertersAutoConfiguration.class, BinaryCodecAutoConfiguration.class))
+				.run(context -> {
+					ResponseBodyAdvice<Object> advice = context.getBean(BinaryCodecAutoConfiguration.VaryAcceptResponseBodyAdvice.class);
+					MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+					servletResponse.setHeader(HttpHeaders.VARY, "Accept-Encoding");
+					ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+
+					advice.beforeBodyWrite("body", null, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class,
+							new ServletServerHttpRequest(new MockHttpServletRequest()), response);
+					advice.beforeBodyWrite("body", null, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class,
+							new ServletServerHttpRequest(new MockHttpServletRequest()), response);
+					response.flush();
+
+					assertThat(servletResponse.getHeaders(HttpHeaders.VARY)).containsExactly("Accept-Encoding", "Accept");
+				});
+	}
+
+	@Test
+	void noVaryAdviceOutsideServletApplications() {
+		contextRunner.run(context -> assertThat(context)
+				.doesNotHaveBean(BinaryCodecAutoConfiguration.VaryAcceptResponseBodyAdvice.class));
+	}
+
+	@Test
+	void binaryRequestBodiesAreSentAsRawSmile() {
+		contextRunner.withPropertyValues("ims.codec.binary-requests=true").run(context -> {
+			ItemDTO item = new ItemDTO(7L, "Widget", 1250L, "Blue, 10cm", 4, 3L);
+			RequestTemplate template = new RequestTemplate();
+
+			context.getBean(Encoder.class).encode(item, ItemDTO.class, template);
+
+			assertThat(template.headers().get(HttpHeaders.CONTENT_TYPE)).containsExactly("application/x-jackson-smile");
+			//a charset would make the transports push the bytes through a String and corrupt them
+			assertThat(template.requestBody().getEncoding()).isEmpty();
+			assertThat(new SmileMapper().readValue(template.body(), ItemDTO.class))
+					.usingRecursiveComparison().isEqualTo(item);
+		});
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.common_service.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitFilterTests {
+
+	private final MeterRegistry registry = new SimpleMeterRegistry();
+
+	//a fixed limit of 10: low priority may fill 5 of them
+	private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+			new GradientLimit(10, 10, 10, 0.2, 1.5, 0.9, 100_000_000, 10, 600), Map.of());
+
+	private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, List.of(
+			route("POST", "/purchase/batch", Priority.CRITICAL),
+			route("POST", "/purchase/summary", Priority.LOW)), registry);
+
+	@Test
+	void shedsLowPriorityRoutesFirst() throws Exception {
+		List<ConcurrencyLimiter.Permit> busy = List.of(limiter.tryAcquire(Priority.CRITICAL), limiter.tryAcquire(Priority.CRITICAL),
+				limiter.tryAcquire(Priority.CRITICAL), limiter.tryAcquire(Priority.CRITICAL), limiter.tryAcquire(Priority.CRITICAL),
+				limiter.tryAcquire(Priority.CRITICAL));
+
+		MockHttpServletResponse summary = send("POST", "/purchase/summary", new MockFilterChain());
+		MockHttpServletResponse batch = send("POST", "/purchase/batch", new MockFilterChain());
+
+		assertThat(summary.getStatus()).isEqualTo(503);
+		assertThat(summary.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(batch.getStatus()).isEqualTo(200);
+		assertThat(registry.get("http.server.concurrency.rejected").tag("priority", "low").counter().count()).isEqualTo(1);
+		busy.forEach(permit -> permit.release(false));
+		assertThat(limiter.inFlight()).isZero();
+	}
+
+	@Test
+	void leavesOtherRoutesAlone() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			limiter.tryAcquire(Priority.CRITICAL);
+		}
+
+		assertThat(send("GET", "/purchase/all", new MockFilterChain()).getStatus()).isEqualTo(200);
+		assertThat(send("GET", "/purchase/batch", new MockFilterChain()).getStatus()).isEqualTo(200);
+		assertThat(send("POST", "/purchase/batch", new MockFilterChain()).getStatus()).isEqualTo(503);
+	}
+
+	@Test
+	void releasesThePermitWhenTheRequestFails() {
+		FilterChain failing = (request, response) -> {
+			throw new IllegalStateException("no connection available");
+		};
+
+		assertThatThrownBy(() -> send("POST", "/purchase/batch", failing)).isInstanceOf(IllegalStateException.class);
+
+		assertThat(limiter.inFlight()).isZero();
+	}
+
+	private MockHttpServletResponse send(String method, String path, FilterChain chain) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest(method, path), response, chain);
+		return response;
+	}
+
+	private static ConcurrencyLimitProperties.Route route(String method, String path, Priority priority) {
+		ConcurrencyLimitProperties.Route route = new ConcurrencyLimitProperties.Route();
+		route.setMethod(method);
+		route.setPath(path);
+		route.setPriority(priority);
+		return route;
+	}
+}
@@ -0,0 +1,58 @@
+package com.example.common_service.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTests {
+
+	private static final long MS = 1_000_000;
+
+	//every request finds the limit in use
+	private static final int FULL = -1;
+
+	private final GradientLimit limit = new GradientLimit(20, 4, 200, 0.2, 1.5, 0.9, 100 * MS, 10, 600);
+
+	private long now;
+
+	@Test
+	void growsWhileLatencyHoldsAndTheLimitIsUsed() {
+		windows(20, 5 * MS, FULL, false);
+
+		assertThat(limit.limit()).isGreaterThan(40);
+	}
+
+	@Test
+	void staysPutWhenTheServiceIsMostlyIdle() {
+		windows(20, 5 * MS, 3, false);
+
+		assertThat(limit.limit()).isEqualTo(20);
+	}
+
+	@Test
+	void shrinksWhenLatencyRisesAboveTheBaseline() {
+		windows(10, 5 * MS, FULL, false);
+		int before = limit.limit();
+
+		windows(20, 50 * MS, FULL, false);
+
+		assertThat(limit.limit()).isLessThan(before / 2);
+		assertThat(limit.limit()).isGreaterThanOrEqualTo(4);
+	}
+
+	@Test
+	void backsOffOncePerWindowWithFailures() {
+		windows(1, 5 * MS, 20, true);
+
+		assertThat(limit.limit()).isEqualTo(18);
+	}
+
+	private void windows(int count, long rtt, int inFlight, boolean dropped) {
+		for (int window = 0; window < count; window++) {
+			for (int sample = 0; sample < 10; sample++) {
+				now += 12 * MS;
+				limit.onSample(now, rtt, inFlight == FULL ? limit.limit() : inFlight, dropped);
+			}
+		}
+	}
+}
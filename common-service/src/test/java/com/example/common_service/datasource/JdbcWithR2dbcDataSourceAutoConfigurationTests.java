@@ -0,0 +1,41 @@
+package com.example.common_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcWithR2dbcDataSourceAutoConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(R2dbcAutoConfiguration.class, ReadReplicaDataSourceAutoConfiguration.class,
+					JdbcWithR2dbcDataSourceAutoConfiguration.class, DataSourceAutoConfiguration.class))
+			.withPropertyValues("spring.application.name=item-service",
+					"spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+					"spring.datasource.hikari.maximum-pool-size=7",
+					"spring.r2dbc.url=r2dbc:h2:mem:///primary");
+
+	@Test
+	void jdbcPoolIsKeptNextToR2dbc() {
+		contextRunner.run(context -> {
+			assertThat(context).hasSingleBean(ConnectionFactory.class);
+			assertThat(context).hasSingleBean(DataSource.class);
+			assertThat(context.getBean(HikariDataSource.class).getMaximumPoolSize()).isEqualTo(7);
+		});
+	}
+
+	@Test
+	void replicaRoutingStillWins() {
+		contextRunner.withPropertyValues("ims.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1").run(context -> {
+			assertThat(context).hasSingleBean(DataSource.class);
+			assertThat(context).hasSingleBean(ReadReplicaRoutingDataSource.class);
+		});
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.common_service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaDataSourceAutoConfigurationTests {
+
+	//two separate in-memory databases stand in for the primary and its replica
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(ReadReplicaDataSourceAutoConfiguration.class,
+					DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+					TransactionAutoConfiguration.class, JdbcTemplateAutoConfiguration.class))
+			.withPropertyValues("spring.application.name=item-service",
+					"spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+					"spring.datasource.hikari.maximum-pool-size=7");
+
+	@Test
+	void readOnlyTransactionsAreRoutedToTheReplica() {
+		contextRunner.withPropertyValues("ims.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+				"ims.datasource.replica.hikari.maximum-pool-size=3").run(context -> {
+			ReadReplicaRoutingDataSource dataSource = context.getBean(ReadReplicaRoutingDataSource.class);
+			assertThat(dataSource.getPrimary().getMaximumPoolSize()).isEqualTo(7);
+			assertThat(dataSource.getPrimary().getPoolName()).isEqualTo("item-service-primary");
+			assertThat(dataSource.getReplica().getMaximumPoolSize()).isEqualTo(3);
+			mark(dataSource.getPrimary(), "primary");
+			mark(dataSource.getReplica(), "replica");
+
+			JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+			TransactionTemplate readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+			readOnly.setReadOnly(true);
+			TransactionTemplate readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+			String readOnlyOrigin = readOnly.execute(status -> origin(jdbc));
+			String readWriteOrigin = readWrite.execute(status -> origin(jdbc));
+			//joining a read-write transaction keeps the read on the primary
+			String joinedOrigin = readWrite.execute(status -> readOnly.execute(inner -> origin(jdbc)));
+			assertThat(readOnlyOrigin).isEqualTo("replica");
+			assertThat(readWriteOrigin).isEqualTo("primary");
+			assertThat(joinedOrigin).isEqualTo("primary");
+			assertThat(origin(jdbc)).isEqualTo("primary");
+		});
+	}
+
+	@Test
+	void withoutReplicaTheBootPoolIsKept() {
+		contextRunner.run(context -> {
+			assertThat(context).doesNotHaveBean(ReadReplicaRoutingDataSource.class);
+			assertThat(context.getBean(DataSource.class)).isInstanceOf(HikariDataSource.class);
+		});
+	}
+
+	private static void mark(DataSource dataSource, String name) {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("create table if not exists origin (name varchar(16))");
+		jdbc.update("delete from origin");
+		jdbc.update("insert into origin values (?)", name);
+	}
+
+	private static String origin(JdbcTemplate jdbc) {
+		return jdbc.queryForObject("select name from origin", String.class);
+	}
+}
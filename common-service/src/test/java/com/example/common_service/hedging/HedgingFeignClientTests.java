@@ -0,0 +1,149 @@
+package com.example.common_service.hedging;
+
+import com.example.common_service.loadbalancer.InstanceLatencyTracker;
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HedgingFeignClientTests {
+
+	private static final String SERVICE_ID = "item-service";
+
+	private final ServiceInstance slow = new DefaultServiceInstance("slow", SERVICE_ID, "localhost", 9001, false);
+
+	private final ServiceInstance fast = new DefaultServiceInstance("fast", SERVICE_ID, "localhost", 9002, false);
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final AtomicInteger transportCalls = new AtomicInteger();
+
+	private final HedgingProperties properties = new HedgingProperties();
+
+	private HedgingFeignClient hedgingClient;
+
+	interface ItemApi {
+
+		@Hedged
+		@RequestLine("GET /item/{id}")
+		String getItemById(@Param("id") Long id);
+
+		@RequestLine("GET /item")
+		String getAllItems();
+	}
+
+	@AfterEach
+	void shutdown() {
+		if (hedgingClient != null) {
+			hedgingClient.destroy();
+		}
+	}
+
+	@Test
+	void slowFirstAttemptIsHedgedToAnotherInstance() {
+		properties.setInitialDelay(Duration.ofMillis(20));
+		properties.setBudgetBurst(1);
+		properties.setBudget(1.0);
+		ItemApi api = client();
+
+		long start = System.nanoTime();
+		String body = api.getItemById(1L);
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertThat(body).isEqualTo("9002");
+		assertThat(elapsedMillis).isLessThan(300);
+		assertThat(count("issued")).isEqualTo(1);
+		assertThat(count("won")).isEqualTo(1);
+	}
+
+	@Test
+	void hedgesStopWhenBudgetIsSpent() {
+		properties.setInitialDelay(Duration.ofMillis(20));
+		properties.setBudget(0.0);
+		ItemApi api = client();
+
+		assertThat(api.getItemById(1L)).isEqualTo("9001");
+		assertThat(count("issued")).isZero();
+		assertThat(count("budget_exhausted")).isEqualTo(1);
+	}
+
+	@Test
+	void methodsWithoutAnnotationAreNotHedged() {
+		properties.setInitialDelay(Duration.ofMillis(20));
+		properties.setBudget(1.0);
+		ItemApi api = client();
+
+		assertThat(api.getAllItems()).isEqualTo("delegate");
+		assertThat(transportCalls).hasValue(0);
+	}
+
+	private ItemApi client() {
+		//the slow instance takes 400ms, the fast one answers straight away; both echo their port
+		Client transport = (request, options) -> {
+			transportCalls.incrementAndGet();
+			int port = URI.create(request.url()).getPort();
+			if (port == slow.getPort()) {
+				try {
+					Thread.sleep(400);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return Response.builder().status(200).request(request)
+					.body(String.valueOf(port), StandardCharsets.UTF_8).headers(Map.of()).build();
+		};
+		Client delegate = (request, options) -> Response.builder().status(200).request(request)
+				.body("delegate", StandardCharsets.UTF_8).headers(Map.of()).build();
+
+		LoadBalancerClient loadBalancerClient = mock(LoadBalancerClient.class);
+		when(loadBalancerClient.choose(anyString())).thenReturn(slow);
+		when(loadBalancerClient.reconstructURI(any(), any())).thenAnswer(invocation ->
+				LoadBalancerUriTools.reconstructURI(invocation.getArgument(0), invocation.getArgument(1)));
+		SimpleDiscoveryProperties discoveryProperties = new SimpleDiscoveryProperties();
+		discoveryProperties.setInstances(Map.of(SERVICE_ID, List.of(
+				(DefaultServiceInstance) slow, (DefaultServiceInstance) fast)));
+
+		StaticListableBeanFactory beans = new StaticListableBeanFactory();
+		beans.addBean("loadBalancerClient", loadBalancerClient);
+		beans.addBean("discoveryClient", new SimpleDiscoveryClient(discoveryProperties));
+		beans.addBean("meterRegistry", meterRegistry);
+		hedgingClient = new HedgingFeignClient(delegate, transport,
+				beans.getBeanProvider(LoadBalancerClient.class),
+				beans.getBeanProvider(DiscoveryClient.class),
+				beans.getBeanProvider(InstanceLatencyTracker.class),
+				beans.getBeanProvider(MeterRegistry.class),
+				properties);
+		return Feign.builder().client(hedgingClient).target(ItemApi.class, "http://" + SERVICE_ID);
+	}
+
+	private double count(String outcome) {
+		return meterRegistry.find("feign.hedge.requests").tag("outcome", outcome).counters().stream()
+				.mapToDouble(counter -> counter.count()).sum();
+	}
+}
@@ -0,0 +1,137 @@
+package com.example.common_service.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyAwareLoadBalancerTests {
+
+	private static final String SERVICE_ID = "item-service";
+
+	private static final long MS = 1_000_000L;
+
+	private final ServiceInstance fastA = instance("fast-a", 9001);
+
+	private final ServiceInstance fastB = instance("fast-b", 9002);
+
+	private final ServiceInstance slow = instance("slow", 9003);
+
+	private final AtomicLong clock = new AtomicLong(1);
+
+	private final InstanceLatencyTracker tracker = new InstanceLatencyTracker(
+			Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofMillis(100), clock::get);
+
+	@Test
+	void peakEwmaCutsTailLatencyWithOneSlowInstance() {
+		ReactorServiceInstanceLoadBalancer roundRobin = new RoundRobinLoadBalancer(
+				ServiceInstanceListSuppliers.toProvider(SERVICE_ID, fastA, fastB, slow), SERVICE_ID);
+		LatencyAwareLoadBalancer peakEwma = new LatencyAwareLoadBalancer(
+				ServiceInstanceListSuppliers.toProvider(SERVICE_ID, fastA, fastB, slow), tracker,
+				LatencyAwareLoadBalancerProperties.Strategy.PEAK_EWMA);
+
+		long[] roundRobinLatencies = simulate(roundRobin, new HashMap<>(), new InstanceLatencyTracker(
+				Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofMillis(100), clock::get));
+		Map<String, Integer> picks = new HashMap<>();
+		long[] peakEwmaLatencies = simulate(peakEwma, picks, tracker);
+
+		long roundRobinP99 = percentile(roundRobinLatencies, 0.99);
+		long peakEwmaP99 = percentile(peakEwmaLatencies, 0.99);
+
+		assertThat(roundRobinP99).as("round robin p99 %d ms", roundRobinP99 / MS).isGreaterThanOrEqualTo(150 * MS);
+		assertThat(peakEwmaP99).as("peak-ewma p99 %d ms", peakEwmaP99 / MS).isLessThan(20 * MS);
+		//still probed now and then so a recovered instance gets traffic back
+		assertThat(picks.getOrDefault("slow", 0)).as("calls to the slow instance out of %d", peakEwmaLatencies.length)
+				.isPositive();
+	}
+
+	@Test
+	void leastOutstandingAvoidsBusyInstance() {
+		LatencyAwareLoadBalancer leastOutstanding = new LatencyAwareLoadBalancer(
+				ServiceInstanceListSuppliers.toProvider(SERVICE_ID, fastA, slow), tracker,
+				LatencyAwareLoadBalancerProperties.Strategy.LEAST_OUTSTANDING);
+		tracker.requestStarted(slow);
+		tracker.requestStarted(slow);
+
+		for (int i = 0; i < 50; i++) {
+			assertThat(choose(leastOutstanding)).isEqualTo(fastA);
+		}
+	}
+
+	@Test
+	void failuresArePenalised() {
+		LatencyAwareLoadBalancer peakEwma = new LatencyAwareLoadBalancer(
+				ServiceInstanceListSuppliers.toProvider(SERVICE_ID, fastA, fastB), tracker,
+				LatencyAwareLoadBalancerProperties.Strategy.PEAK_EWMA);
+		tracker.observe(fastA, 20 * MS, clock.get());
+		tracker.requestStarted(fastB);
+		tracker.requestFinished(fastB, 5 * MS, true);
+
+		assertThat(tracker.peakEwmaCost(fastB, clock.get())).isGreaterThanOrEqualTo(1000 * MS);
+		for (int i = 0; i < 50; i++) {
+			assertThat(choose(peakEwma)).isEqualTo(fastA);
+		}
+	}
+
+	@Test
+	void instancesWithoutSamplesCostAsMuchAsTheSlowestOne() {
+		ServiceInstance cold = instance("cold", 9004);
+		tracker.requestStarted(cold);
+		assertThat(tracker.peakEwmaCost(cold, clock.get())).isEqualTo(2 * 100.0 * MS);
+
+		tracker.observe(fastA, 10 * MS, clock.get());
+		tracker.observe(slow, 200 * MS, clock.get());
+		assertThat(tracker.peakEwmaCost(cold, clock.get())).isEqualTo(2 * 200.0 * MS);
+
+		LatencyAwareLoadBalancer peakEwma = new LatencyAwareLoadBalancer(
+				ServiceInstanceListSuppliers.toProvider(SERVICE_ID, fastA, cold), tracker,
+				LatencyAwareLoadBalancerProperties.Strategy.PEAK_EWMA);
+		for (int i = 0; i < 50; i++) {
+			assertThat(choose(peakEwma)).isEqualTo(fastA);
+		}
+	}
+
+	//sequential callers, one request every 5ms for a minute, the slow stand-in answers in ~200ms and the fast ones in ~10ms
+	private long[] simulate(ReactorServiceInstanceLoadBalancer loadBalancer, Map<String, Integer> picks,
+			InstanceLatencyTracker tracker) {
+		Random random = new Random(42);
+		long[] latencies = new long[12_000];
+		for (int i = 0; i < latencies.length; i++) {
+			ServiceInstance chosen = choose(loadBalancer);
+			long latency = chosen == slow
+					? (150 + random.nextInt(100)) * MS
+					: (8 + random.nextInt(5)) * MS;
+			latencies[i] = latency;
+			picks.merge(chosen.getInstanceId(), 1, Integer::sum);
+			tracker.observe(chosen, latency, clock.get());
+			clock.addAndGet(5 * MS);
+		}
+		return latencies;
+	}
+
+	private static ServiceInstance choose(ReactorServiceInstanceLoadBalancer loadBalancer) {
+		return loadBalancer.choose(new DefaultRequest<>()).block().getServer();
+	}
+
+	private static long percentile(long[] values, double percentile) {
+		long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+	}
+
+	private static ServiceInstance instance(String id, int port) {
+		return new DefaultServiceInstance(id, SERVICE_ID, "localhost", port, false);
+	}
+}
@@ -0,0 +1,199 @@
+package com.example.common_service.outbox;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryClient;
+import org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class OutboxAutoConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+					DataSourceTransactionManagerAutoConfiguration.class, TransactionAutoConfiguration.class,
+					JdbcTemplateAutoConfiguration.class, OutboxAutoConfiguration.class))
+			.withPropertyValues("spring.datasource.url=jdbc:h2:mem:outbox-${random.uuid};DB_CLOSE_DELAY=-1",
+					"ims.outbox.enabled=true", "ims.outbox.retry-backoff=50ms");
+
+	@Test
+	void committedEventsAreRelayedInOrderAndRolledBackOnesNever() {
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		contextRunner.withBean(OutboxSubscriber.class, () -> subscriber).run(context -> {
+			OutboxPublisher publisher = context.getBean(OutboxPublisher.class);
+			TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+			transaction.executeWithoutResult(status -> {
+				publisher.publish("item", 1L, "ItemCreated", Map.of("itemId", 1));
+				publisher.publishAll("item", "ItemCreated", List.of(2L, 3L), id -> id);
+				publisher.publish("item", 1L, "ItemDeleted", Map.of("itemId", 1));
+			});
+			transaction.executeWithoutResult(status -> {
+				publisher.publish("item", 4L, "ItemCreated", Map.of("itemId", 4));
+				status.setRollbackOnly();
+			});
+
+			awaitUntil(() -> subscriber.received.size() >= 4);
+			assertThat(subscriber.received).extracting(event -> event.aggregateId() + ":" + event.eventType())
+					.containsExactly("1:ItemCreated", "2:ItemCreated", "3:ItemCreated", "1:ItemDeleted");
+			assertThat(subscriber.received.get(0).payload()).isEqualTo("{\"itemId\":1}");
+			awaitUntil(() -> outboxRows(context.getBean(JdbcTemplate.class)) == 0);
+		});
+	}
+
+	@Test
+	void rejectedBatchIsDeliveredAgain() {
+		RecordingSubscriber subscriber = new RecordingSubscriber(2);
+		contextRunner.withBean(OutboxSubscriber.class, () -> subscriber).run(context -> {
+			OutboxPublisher publisher = context.getBean(OutboxPublisher.class);
+			new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status ->
+					publisher.publish("purchase", 7L, "PurchaseCreated", Map.of("purchaseId", 7)));
+
+			awaitUntil(() -> subscriber.received.size() == 1);
+			assertThat(subscriber.attempts).hasValue(3);
+			assertThat(subscriber.received.get(0).aggregateId()).isEqualTo("7");
+			awaitUntil(() -> outboxRows(context.getBean(JdbcTemplate.class)) == 0);
+		});
+	}
+
+	@Test
+	void failingSubscriberDoesNotHoldBackTheOthers() {
+		RecordingSubscriber failing = new RecordingSubscriber("failing", Integer.MAX_VALUE);
+		RecordingSubscriber healthy = new RecordingSubscriber("healthy", 0);
+		contextRunner.withBean("failing", OutboxSubscriber.class, () -> failing)
+				.withBean("healthy", OutboxSubscriber.class, () -> healthy)
+				.run(context -> {
+					OutboxPublisher publisher = context.getBean(OutboxPublisher.class);
+					TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+					transaction.executeWithoutResult(status -> publisher.publish("item", 1L, "ItemCreated", Map.of()));
+					awaitUntil(() -> healthy.received.size() == 1);
+					transaction.executeWithoutResult(status -> publisher.publish("item", 2L, "ItemCreated", Map.of()));
+					awaitUntil(() -> healthy.received.size() == 2);
+
+					awaitUntil(() -> failing.attempts.get() > 1);
+					assertThat(failing.received).isEmpty();
+					assertThat(healthy.transactionActive).isFalse();
+					//still queued for the failing one
+					JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+					awaitUntil(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event", Integer.class) == 0);
+					assertThat(jdbcTemplate.queryForList("SELECT subscriber FROM outbox_delivery", String.class))
+							.containsOnly("failing").hasSize(2);
+				});
+	}
+
+	@Test
+	void serviceSubscriberReceivesEveryBatchOnEveryInstance() throws IOException {
+		List<String> first = new CopyOnWriteArrayList<>();
+		List<String> second = new CopyOnWriteArrayList<>();
+		HttpServer one = instance(first);
+		HttpServer two = instance(second);
+		try {
+			SimpleDiscoveryProperties discovery = new SimpleDiscoveryProperties();
+			discovery.setInstances(Map.of("trending", List.of(
+					new DefaultServiceInstance("one", "trending", "localhost", one.getAddress().getPort(), false),
+					new DefaultServiceInstance("two", "trending", "localhost", two.getAddress().getPort(), false))));
+			contextRunner.withBean(DiscoveryClient.class, () -> new SimpleDiscoveryClient(discovery))
+					.withPropertyValues("ims.outbox.subscribers.trending.service-id=trending",
+							"ims.outbox.subscribers.trending.path=/events")
+					.run(context -> {
+						new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status ->
+								context.getBean(OutboxPublisher.class).publish("purchase", 7L, "PurchaseCreated", Map.of()));
+						awaitUntil(() -> first.size() == 1 && second.size() == 1);
+						assertThat(first.get(0)).contains("PurchaseCreated").isEqualTo(second.get(0));
+					});
+		} finally {
+			one.stop(0);
+			two.stop(0);
+		}
+	}
+
+	@Test
+	void publishingOutsideATransactionIsRefused() {
+		contextRunner.run(context -> assertThatIllegalStateException().isThrownBy(() ->
+				context.getBean(OutboxPublisher.class).publish("item", 1L, "ItemCreated", Map.of())));
+	}
+
+	//answers 200 to POST /events and keeps the bodies
+	private static HttpServer instance(List<String> bodies) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/events", exchange -> {
+			bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		server.start();
+		return server;
+	}
+
+	private static int outboxRows(JdbcTemplate jdbcTemplate) {
+		return jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM outbox_event) + (SELECT COUNT(*) FROM outbox_delivery)",
+				Integer.class);
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+			Thread.sleep(20);
+		}
+	}
+
+	//fails the first few batches, then keeps what it was given
+	static class RecordingSubscriber implements OutboxSubscriber {
+
+		final List<OutboxEvent> received = new CopyOnWriteArrayList<>();
+
+		final AtomicInteger attempts = new AtomicInteger();
+
+		volatile boolean transactionActive;
+
+		private final String name;
+
+		private final int failures;
+
+		RecordingSubscriber(int failures) {
+			this("recording", failures);
+		}
+
+		RecordingSubscriber(String name, int failures) {
+			this.name = name;
+			this.failures = failures;
+		}
+
+		@Override
+		public String name() {
+			return name;
+		}
+
+		@Override
+		public void deliver(List<OutboxEvent> events) {
+			transactionActive |= TransactionSynchronizationManager.isActualTransactionActive();
+			if (attempts.incrementAndGet() <= failures) {
+				throw new IllegalStateException("subscriber unavailable");
+			}
+			received.addAll(events);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.common_service.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LastKnownGoodFeignClientPostProcessorTests {
+
+	@FeignClient(name = "item-service")
+	interface ItemApi {
+
+		@LastKnownGood
+		@GetMapping("/item")
+		List<Map<String, Object>> getAllItems();
+
+		@GetMapping("/item/{id}")
+		Map<String, Object> getItemById(@PathVariable("id") Long id);
+	}
+
+	@FeignClient(name = "item-service")
+	interface WriteApi {
+
+		@LastKnownGood
+		@PostMapping("/item")
+		void addItem(Map<String, Object> item);
+	}
+
+	private final AtomicBoolean down = new AtomicBoolean();
+
+	private final LastKnownGoodCache cache = new LastKnownGoodCache(1024 * 1024, Duration.ZERO, new ObjectMapper());
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void resetRequest() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	private ItemApi client() {
+		Object target = Proxy.newProxyInstance(ItemApi.class.getClassLoader(), new Class<?>[]{ItemApi.class}, (proxy, method, args) -> {
+			if (down.get()) {
+				throw new IllegalStateException("connection refused");
+			}
+			return method.getName().equals("getAllItems")
+					? List.of(Map.of("itemId", 1, "itemName", "lamp"))
+					: Map.of("itemId", args[0], "quantity", 3);
+		});
+		return (ItemApi) processor().postProcessAfterInitialization(target, "itemApi");
+	}
+
+	private LastKnownGoodFeignClientPostProcessor processor() {
+		DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+		beans.registerSingleton("cache", cache);
+		beans.registerSingleton("properties", new LastKnownGoodProperties());
+		beans.registerSingleton("meterRegistry", meterRegistry);
+		return new LastKnownGoodFeignClientPostProcessor(beans.getBeanProvider(LastKnownGoodCache.class),
+				beans.getBeanProvider(LastKnownGoodProperties.class), beans.getBeanProvider(MeterRegistry.class));
+	}
+
+	@Test
+	void servesMarkedReadsStaleAndFlagsTheResponse() {
+		ItemApi api = client();
+		List<Map<String, Object>> fresh = new ArrayList<>(api.getAllItems());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+
+		down.set(true);
+
+		assertThat(api.getAllItems()).isEqualTo(fresh);
+		assertThat(response.getHeader(LastKnownGoodFeignClientPostProcessor.STALE_HEADER)).startsWith("ItemApi.getAllItems; age=");
+		assertThat(meterRegistry.counter("feign.fallback.requests", "service", "item-service",
+				"method", "ItemApi.getAllItems", "outcome", "stale").count()).isEqualTo(1);
+	}
+
+	@Test
+	void unmarkedReadsFailInsteadOfAnsweringStale() {
+		ItemApi api = client();
+		api.getItemById(1L);
+
+		down.set(true);
+
+		assertThatThrownBy(() -> api.getItemById(1L)).isInstanceOf(DependencyUnavailableException.class);
+	}
+
+	@Test
+	void refusesAFallbackOnAWrite() {
+		Object target = Proxy.newProxyInstance(WriteApi.class.getClassLoader(), new Class<?>[]{WriteApi.class}, (proxy, method, args) -> null);
+		assertThatThrownBy(() -> processor().postProcessAfterInitialization(target, "writeApi"))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void cacheIsBoundedByBytesAndKeepsRecentAnswers() {
+		LastKnownGoodCache small = new LastKnownGoodCache(4 * 1024, Duration.ZERO, new ObjectMapper());
+		String body = "x".repeat(900);
+		for (int i = 0; i < 20; i++) {
+			small.put(i, body);
+		}
+		assertThat(small.sizeInBytes()).isLessThanOrEqualTo(4 * 1024);
+		assertThat(small.get(19, String.class, Duration.ofMinutes(1))).isPresent();
+		assertThat(small.get(0, String.class, Duration.ofMinutes(1))).isEmpty();
+
+		small.put("huge", "x".repeat(8 * 1024));
+		assertThat(small.get("huge", String.class, Duration.ofMinutes(1))).isEmpty();
+	}
+}
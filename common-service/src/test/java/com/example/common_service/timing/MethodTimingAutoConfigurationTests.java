@@ -0,0 +1,101 @@
+package com.example.common_service.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MethodTimingAutoConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class, MethodTimingAutoConfiguration.class))
+			.withUserConfiguration(TestConfiguration.class)
+			.withPropertyValues("spring.application.name=item-service", "ims.timing.slow-threshold=20ms");
+
+	@Test
+	void servicesAreTimedWithServiceClassMethodAndOutcome() {
+		contextRunner.run(context -> {
+			CatalogService catalog = context.getBean(CatalogService.class);
+			assertThat(AopUtils.isAopProxy(catalog)).isTrue();
+
+			catalog.find(1L);
+			catalog.find(2L);
+			assertThatThrownBy(() -> catalog.find(-1L)).isInstanceOf(IllegalArgumentException.class);
+
+			MeterRegistry registry = context.getBean(MeterRegistry.class);
+			Timer success = registry.get(MethodTimingInterceptor.METRIC_NAME).tags("service", "item-service",
+					"class", "CatalogService", "method", "find", "outcome", "success").timer();
+			Timer error = registry.get(MethodTimingInterceptor.METRIC_NAME).tags("class", "CatalogService",
+					"method", "find", "outcome", "error").timer();
+			assertThat(success.count()).isEqualTo(2);
+			assertThat(error.count()).isEqualTo(1);
+			assertThat(context.getBean(SlowCallSampler.class).samples()).isEmpty();
+		});
+	}
+
+	@Test
+	void slowCallsAreSampledWithArgumentShapesOncePerInterval() {
+		contextRunner.run(context -> {
+			CatalogService catalog = context.getBean(CatalogService.class);
+
+			catalog.bulkUpdate(List.of(1L, 2L, 3L), Map.of("name", "Widget"), "seller-7");
+			catalog.bulkUpdate(List.of(4L), Map.of(), null);
+
+			List<SlowCallSampler.Sample> samples = context.getBean(SlowCallSampler.class).samples();
+			assertThat(samples).hasSize(1);
+			assertThat(samples.get(0).type()).isEqualTo("CatalogService");
+			assertThat(samples.get(0).method()).isEqualTo("bulkUpdate");
+			assertThat(samples.get(0).durationMillis()).isGreaterThanOrEqualTo(20);
+			assertThat(samples.get(0).arguments()).containsExactly("ListN(size=3)", "Map1(size=1)", "String(length=8)");
+		});
+	}
+
+	@Test
+	void canBeSwitchedOff() {
+		contextRunner.withPropertyValues("ims.timing.enabled=false").run(context ->
+				assertThat(AopUtils.isAopProxy(context.getBean(CatalogService.class))).isFalse());
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	static class TestConfiguration {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		CatalogService catalogService() {
+			return new CatalogService();
+		}
+	}
+
+	@Service
+	static class CatalogService {
+
+		public String find(Long id) {
+			if (id < 0) {
+				throw new IllegalArgumentException("negative id");
+			}
+			return "item-" + id;
+		}
+
+		public int bulkUpdate(List<Long> ids, Map<String, String> changes, String sellerId) throws InterruptedException {
+			Thread.sleep(30);
+			return ids.size();
+		}
+	}
+}
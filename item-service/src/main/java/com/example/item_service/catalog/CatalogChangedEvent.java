@@ -0,0 +1,29 @@
+package com.example.item_service.catalog;
+
+import com.example.item_service.model.Item;
+
+import java.util.List;
+
+/**
+ * Published by the item writes with what they changed. Listeners act on it once the publishing
+ * transaction commits: {@link CatalogSnapshot} rebuilds, the search index applies the items. Stock
+ * changes carry no items, names are all the index cares about.
+ */
+public record CatalogChangedEvent(List<Item> created, List<Long> deleted) {
+
+    public static CatalogChangedEvent created(List<Item> items) {
+        return new CatalogChangedEvent(List.copyOf(items), List.of());
+    }
+
+    public static CatalogChangedEvent deleted(Long itemId) {
+        return new CatalogChangedEvent(List.of(), List.of(itemId));
+    }
+
+    public static CatalogChangedEvent stockChanged() {
+        return new CatalogChangedEvent(List.of(), List.of());
+    }
+
+    public boolean stockOnly() {
+        return created.isEmpty() && deleted.isEmpty();
+    }
+}
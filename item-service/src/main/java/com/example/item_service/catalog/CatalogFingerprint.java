@@ -0,0 +1,8 @@
+package com.example.item_service.catalog;
+
+/**
+ * Cheap summary of the item table, read with one aggregate query. Adds, deletes and stock changes made
+ * by other instances change it, which is how a snapshot notices that it is stale.
+ */
+public record CatalogFingerprint(Long items, Long maxItemId, Long itemIdSum, Long quantitySum) {
+}
@@ -0,0 +1,220 @@
+package com.example.item_service.catalog;
+
+import com.example.item_service.model.Item;
+import com.example.item_service.service.ItemService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the catalog behind {@code GET /item} pre-encoded as JSON, gzipped JSON and Smile. Rebuilds run
+ * on one background thread: right after a local item write commits, and whenever the periodic
+ * {@link CatalogFingerprint} check sees a change made elsewhere. Stock-only changes, one per checkout,
+ * rebuild at most once per {@code stock-rebuild-interval}. Requests keep getting the previous build until
+ * the next one is complete, and writes that arrive during a rebuild queue one more.
+ */
+@Component
+public class CatalogSnapshot implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ObjectProvider<MappingJackson2SmileHttpMessageConverter> smileConverter;
+
+    @Autowired
+    ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${ims.catalog.snapshot.enabled:true}")
+    boolean enabled;
+
+    @Value("${ims.catalog.snapshot.check-interval:5s}")
+    Duration checkInterval;
+
+    @Value("${ims.catalog.snapshot.stock-rebuild-interval:2s}")
+    Duration stockRebuildInterval;
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    private final AtomicBoolean stockRebuildScheduled = new AtomicBoolean();
+
+    private volatile long lastRebuildNanos;
+
+    private volatile EncodedCatalog current;
+
+    private volatile CatalogFingerprint fingerprint;
+
+    private volatile ScheduledExecutorService executor;
+
+    private Timer rebuildTimer;
+
+    //null until the first build completes, or when snapshots are disabled
+    public EncodedCatalog current() {
+        return current;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.stockOnly()) {
+            requestStockRebuild();
+        } else {
+            requestRebuild();
+        }
+    }
+
+    //every snapshot encoding has to be redone for a changed quantity, so stock changes wait for the interval to pass
+    //since the last rebuild and share one
+    void requestStockRebuild() {
+        ScheduledExecutorService rebuilds = executor;
+        if (rebuilds != null && stockRebuildScheduled.compareAndSet(false, true)) {
+            long delay = lastRebuildNanos + stockRebuildInterval.toNanos() - System.nanoTime();
+            rebuilds.schedule(() -> {
+                stockRebuildScheduled.set(false);
+                requestRebuild();
+            }, Math.max(0, delay), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void requestRebuild() {
+        ScheduledExecutorService rebuilds = executor;
+        if (rebuilds != null && rebuildQueued.compareAndSet(false, true)) {
+            rebuilds.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        rebuildQueued.set(false);
+        long start = System.nanoTime();
+        lastRebuildNanos = start;
+        try {
+            //read before the items: a change landing in between leaves the fingerprint behind and triggers another rebuild
+            CatalogFingerprint before = itemService.getCatalogFingerprint();
+            List<Item> items = itemService.getAllItems();
+            current = encode(items);
+            fingerprint = before;
+            if (rebuildTimer != null) {
+                rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Catalog snapshot rebuild failed, still serving the previous one", ex);
+        }
+    }
+
+    private void checkForChanges() {
+        try {
+            if (!Objects.equals(itemService.getCatalogFingerprint(), fingerprint)) {
+                requestRebuild();
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Catalog fingerprint check failed", ex);
+        }
+    }
+
+    private EncodedCatalog encode(List<Item> items) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(items);
+        String etag = DigestUtils.md5DigestAsHex(json);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped) {{
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }}) {
+            gzip.write(json);
+        }
+        MappingJackson2SmileHttpMessageConverter smileMapper = smileConverter.getIfAvailable();
+        EncodedCatalog.Variant smile = smileMapper == null ? null : new EncodedCatalog.Variant(
+                direct(smileMapper.getObjectMapper().writeValueAsBytes(items)), "\"" + etag + "-smile\"",
+                EncodedCatalog.SMILE.toString(), null);
+        return new EncodedCatalog(
+                new EncodedCatalog.Variant(direct(json), "\"" + etag + "\"", MediaType.APPLICATION_JSON_VALUE, null),
+                new EncodedCatalog.Variant(direct(gzipped.toByteArray()), "\"" + etag + "-gzip\"", MediaType.APPLICATION_JSON_VALUE, "gzip"),
+                smile, items.size(), Instant.now());
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            rebuildTimer = Timer.builder("item.catalog.snapshot.rebuild")
+                    .description("Time to read and encode the catalog snapshot")
+                    .register(registry);
+            gauge(registry, "json", EncodedCatalog::json);
+            gauge(registry, "gzip", EncodedCatalog::gzipJson);
+            gauge(registry, "smile", EncodedCatalog::smile);
+            Gauge.builder("item.catalog.snapshot.items", this, snapshot -> snapshot.current == null ? 0 : snapshot.current.items())
+                    .register(registry);
+        }
+        ScheduledExecutorService rebuilds = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = rebuilds;
+        lastRebuildNanos = System.nanoTime();
+        requestRebuild();
+        rebuilds.scheduleWithFixedDelay(this::checkForChanges, checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void gauge(MeterRegistry registry, String variant, Function<EncodedCatalog, EncodedCatalog.Variant> selector) {
+        Gauge.builder("item.catalog.snapshot.size", this, snapshot -> {
+                    EncodedCatalog catalog = snapshot.current;
+                    EncodedCatalog.Variant encoded = catalog == null ? null : selector.apply(catalog);
+                    return encoded == null ? 0 : encoded.size();
+                })
+                .description("Direct memory held by each encoding of the catalog snapshot")
+                .baseUnit("bytes")
+                .tag("variant", variant)
+                .register(registry);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService rebuilds = executor;
+        executor = null;
+        if (rebuilds != null) {
+            rebuilds.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+}
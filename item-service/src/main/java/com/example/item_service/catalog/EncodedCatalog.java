@@ -0,0 +1,97 @@
+package com.example.item_service.catalog;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One immutable build of the catalog, encoded once per representation. The bodies are read-only direct
+ * buffers, so the catalog costs no heap between rebuilds and is never serialized per request.
+ */
+public record EncodedCatalog(Variant json, Variant gzipJson, Variant smile, int items, Instant builtAt) {
+
+    static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    //null when the request accepts none of the encoded media types, the regular path then negotiates
+    public Variant select(String accept, String acceptEncoding) {
+        double smileQuality = 0;
+        double jsonQuality = 0;
+        try {
+            List<MediaType> acceptable = accept == null || accept.isBlank()
+                    ? List.of(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+            for (MediaType type : acceptable) {
+                //wildcards stay JSON, only an explicit Smile entry selects the binary body
+                if (type.equalsTypeAndSubtype(SMILE)) {
+                    smileQuality = Math.max(smileQuality, type.getQualityValue());
+                } else if (type.includes(MediaType.APPLICATION_JSON)) {
+                    jsonQuality = Math.max(jsonQuality, type.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+            return null;
+        }
+        if (smile != null && smileQuality > 0 && smileQuality >= jsonQuality) {
+            return smile;
+        }
+        if (jsonQuality <= 0) {
+            return null;
+        }
+        return acceptsGzip(acceptEncoding) ? gzipJson : json;
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    if (parts[i].trim().matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public record Variant(ByteBuffer body, String etag, String contentType, String contentEncoding) {
+
+        public int size() {
+            return body.capacity();
+        }
+
+        public void writeTo(HttpServletResponse response) throws IOException {
+            response.setContentType(contentType);
+            if (contentEncoding != null) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+            }
+            response.setContentLengthLong(body.capacity());
+            ServletOutputStream out = response.getOutputStream();
+            //Tomcat copies straight from the direct buffer into its socket buffer, anything else gets heap chunks
+            if (out instanceof CoyoteOutputStream coyote) {
+                coyote.write(body.duplicate());
+                return;
+            }
+            ByteBuffer source = body.duplicate();
+            byte[] chunk = new byte[Math.min(source.remaining(), 64 * 1024)];
+            while (source.hasRemaining()) {
+                int length = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+        }
+    }
+}
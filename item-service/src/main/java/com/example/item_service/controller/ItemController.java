@@ -1,23 +1,43 @@
 package com.example.item_service.controller;
 
 
+import com.example.item_service.catalog.CatalogSnapshot;
+import com.example.item_service.catalog.EncodedCatalog;
 import com.example.item_service.model.Item;
 import com.example.item_service.service.ItemService;
+import com.example.item_service.trending.HeavyHitterTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/item")
 public class ItemController {
 
+    private static final String NAME_TAKEN = "Item with this name already exists, try adding another item name";
+
     @Autowired
     ItemService itemService;
 
+    @Autowired
+    HeavyHitterTracker tracker;
+
+    @Autowired
+    CatalogSnapshot catalogSnapshot;
+
     @GetMapping("/test")
     public String testEndpoint(){
         return "Test successful!";
@@ -26,32 +46,99 @@ public class ItemController {
     @PostMapping
     public String addItem(@RequestBody Item item){
         if(itemService.getItemByName(item.getItemName())!=null){
-            return "Item with this name already exists, try adding another item name";
+            return NAME_TAKEN;
+        }
+        Item newItem;
+        try {
+            newItem = itemService.addItem(item);
+        } catch (DataIntegrityViolationException ex) {
+            //added by a concurrent request after the check above; asked of the primary, the finder above is query-cached
+            if(!itemService.getExistingItemNames(List.of(item.getItemName())).isEmpty()){
+                return NAME_TAKEN;
+            }
+            throw ex;
         }
-        Item newItem = itemService.addItem(item);
         if(newItem!=null){
             return "Item added successfully!";
         }
         return "Cannot add item";
     }
 
+    @PostMapping("/batch")
+    public List<String> addItems(@RequestBody List<Item> items){
+        //one status message per item, in request order
+        Set<String> takenNames = new HashSet<>(itemService.getExistingItemNames(
+                items.stream().map(Item::getItemName).toList()));
+        List<Item> toSave = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        List<String> results = new ArrayList<>(items.size());
+        for(Item item : items){
+            if(!takenNames.add(item.getItemName())){
+                results.add(NAME_TAKEN);
+                continue;
+            }
+            item.setItemId(null);
+            toSave.add(item);
+            positions.add(results.size());
+            results.add("Item added successfully!");
+        }
+        if(toSave.isEmpty()){
+            return results;
+        }
+        try {
+            itemService.addItems(toSave);
+        } catch (DataIntegrityViolationException ex) {
+            //a concurrent batch or upload took some of the names after the check and the batch was rolled back,
+            //so the items go in one at a time and the ones that hit the unique name are reported as taken
+            for(int i = 0; i < toSave.size(); i++){
+                Item item = toSave.get(i);
+                item.setItemId(null);
+                try {
+                    itemService.addItem(item);
+                } catch (DataIntegrityViolationException duplicate) {
+                    results.set(positions.get(i), NAME_TAKEN);
+                }
+            }
+        }
+        return results;
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Item> getItemById(@PathVariable Long id){
         Item item = itemService.getItemById(id);
         if(item==null){
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        tracker.record(id);
         return new ResponseEntity<>(item, HttpStatus.OK);
     }
 
+    @GetMapping("/seller/{sellerId}")
+    public List<Item> getItemsBySellerId(@PathVariable Long sellerId){
+        return itemService.getItemsBySellerId(sellerId);
+    }
+
     @DeleteMapping("/{id}")
     public String deleteItem(@PathVariable Long id){
         return itemService.deleteItem(id);
     }
 
+    //served from the pre-encoded snapshot, Cache-Control: no-cache reads the database instead
     @GetMapping
-    public List<Item> getAllItems(){
-        return itemService.getAllItems();
+    public ResponseEntity<List<Item>> getAllItems(HttpServletRequest request, HttpServletResponse response) throws IOException{
+        EncodedCatalog snapshot = catalogSnapshot.current();
+        String cacheControl = request.getHeader(HttpHeaders.CACHE_CONTROL);
+        EncodedCatalog.Variant variant = snapshot==null || (cacheControl!=null && cacheControl.contains("no-cache"))
+                ? null : snapshot.select(request.getHeader(HttpHeaders.ACCEPT), request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if(variant==null){
+            return ResponseEntity.ok(itemService.getAllItems());
+        }
+        response.setHeader(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        if(!new ServletWebRequest(request, response).checkNotModified(variant.etag())){
+            variant.writeTo(response);
+        }
+        //already answered, nothing left for Spring to write
+        return null;
     }
 
 
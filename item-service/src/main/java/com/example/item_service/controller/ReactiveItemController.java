@@ -0,0 +1,54 @@
+package com.example.item_service.controller;
+
+import com.example.item_service.model.Item;
+import com.example.item_service.service.ReactiveItemService;
+import com.example.item_service.trending.HeavyHitterTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Item reads served from R2DBC. Spring MVC handles the returned Mono and Flux as async requests, so the
+ * Tomcat thread goes back to the pool while the query runs and the number of requests in flight is no
+ * longer bounded by {@code server.tomcat.threads.max}. Writes stay on {@link ItemController}.
+ */
+@RestController
+@RequestMapping("/item/reactive")
+public class ReactiveItemController {
+
+    @Autowired
+    ReactiveItemService reactiveItemService;
+
+    @Autowired
+    HeavyHitterTracker tracker;
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Item>> getItemById(@PathVariable Long id){
+        return reactiveItemService.getItemById(id)
+                .doOnNext(item -> tracker.record(id))
+                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    //ids missing from the catalog are left out of the response
+    @GetMapping("/batch")
+    public Flux<Item> getItemsByIds(@RequestParam List<Long> ids){
+        return reactiveItemService.getItemsByIds(ids);
+    }
+
+    //one JSON item per line, written as rows arrive instead of after the whole catalog is loaded
+    @GetMapping(value = "/catalog", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Item> streamCatalog(){
+        return reactiveItemService.streamCatalog();
+    }
+}
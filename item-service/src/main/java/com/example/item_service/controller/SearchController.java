@@ -0,0 +1,60 @@
+package com.example.item_service.controller;
+
+import com.example.item_service.model.Item;
+import com.example.item_service.model.SearchResult;
+import com.example.item_service.search.InvertedIndex;
+import com.example.item_service.search.ItemSearchIndex;
+import com.example.item_service.service.ItemService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/item/search")
+public class SearchController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    ItemSearchIndex searchIndex;
+
+    @Autowired
+    ItemService itemService;
+
+    //all words must match, the last one also as a prefix unless the query ends with a space
+    @GetMapping
+    public List<SearchResult> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit){
+        List<InvertedIndex.Hit> hits = searchIndex.search(q, Math.min(limit, MAX_LIMIT));
+        if(hits.isEmpty()){
+            return List.of();
+        }
+        Map<Long, Item> items = itemService.getItemsByIds(hits.stream().map(InvertedIndex.Hit::itemId).toList())
+                .stream()
+                .collect(Collectors.toMap(Item::getItemId, Function.identity()));
+        List<SearchResult> results = new ArrayList<>(hits.size());
+        for(InvertedIndex.Hit hit : hits){
+            Item item = items.get(hit.itemId());
+            if(item!=null){
+                results.add(new SearchResult(item, hit.score()));
+            }
+        }
+        return results;
+    }
+
+    //item names for autocomplete, answered from the index alone
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String q, @RequestParam(defaultValue = "10") int limit){
+        return searchIndex.search(q, Math.min(limit, MAX_LIMIT)).stream()
+                .map(InvertedIndex.Hit::itemName)
+                .distinct()
+                .toList();
+    }
+}
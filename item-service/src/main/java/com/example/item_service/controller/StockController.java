@@ -0,0 +1,70 @@
+package com.example.item_service.controller;
+
+
+import com.example.common_service.dto.StockReservationDTO;
+import com.example.item_service.service.ItemService;
+import com.example.item_service.service.StockReservationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//called by user-service's checkout only, the gateway refuses these paths
+@RestController
+@RequestMapping("/item/stock")
+public class StockController {
+
+    @Autowired
+    ItemService itemService;
+
+    //all lines or none; 404 names the unknown items, 409 the ones without enough stock or a checkout already released
+    @PostMapping("/reserve")
+    public ResponseEntity<?> reserveStock(@RequestBody StockReservationDTO reservation){
+        if(reservation.getCheckoutId()==null || reservation.getCheckoutId().isBlank()
+                || reservation.getLines()==null || reservation.getLines().isEmpty()){
+            return new ResponseEntity<>(Map.of("message", "A checkout id and at least one line are required"), HttpStatus.BAD_REQUEST);
+        }
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for(StockReservationDTO.Line line : reservation.getLines()){
+            if(line.getItemId()==null || line.getQuantity()<=0){
+                return new ResponseEntity<>(Map.of("message", "Every line needs an item id and a positive quantity"), HttpStatus.BAD_REQUEST);
+            }
+            quantities.merge(line.getItemId(), line.getQuantity(), Integer::sum);
+        }
+        try {
+            try {
+                return new ResponseEntity<>(itemService.reserveStock(reservation.getCheckoutId(), quantities), HttpStatus.OK);
+            } catch (DataIntegrityViolationException e) {
+                //a release marked the checkout id first, this one rolled back and is now refused
+                return new ResponseEntity<>(itemService.reserveStock(reservation.getCheckoutId(), quantities), HttpStatus.OK);
+            }
+        } catch (StockReservationException e) {
+            return switch (e.getReason()) {
+                case ITEM_NOT_FOUND -> new ResponseEntity<>(Map.of("message", "Item not found", "itemIds", e.getItemIds()), HttpStatus.NOT_FOUND);
+                case INSUFFICIENT_STOCK -> new ResponseEntity<>(Map.of("message", "Insufficient stock", "itemIds", e.getItemIds()), HttpStatus.CONFLICT);
+                case CHECKOUT_RELEASED -> new ResponseEntity<>(Map.of("message", "Checkout was released"), HttpStatus.CONFLICT);
+            };
+        }
+    }
+
+    //a confirmed checkout has nothing left to release; an unknown one is marked so a late reserve is refused
+    @PostMapping("/release")
+    public Map<String, Integer> releaseStock(@RequestBody StockReservationDTO reservation){
+        try {
+            return Map.of("released", itemService.releaseStock(reservation.getCheckoutId()));
+        } catch (DataIntegrityViolationException e) {
+            //the reserve recorded the checkout id first
+            return Map.of("released", itemService.releaseStock(reservation.getCheckoutId()));
+        }
+    }
+
+    //called once the checkout's purchases are recorded
+    @PostMapping("/confirm")
+    public Map<String, Integer> confirmStock(@RequestBody StockReservationDTO reservation){
+        return Map.of("confirmed", itemService.confirmStock(reservation.getCheckoutId()));
+    }
+}
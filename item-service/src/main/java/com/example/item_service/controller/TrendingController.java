@@ -0,0 +1,103 @@
+package com.example.item_service.controller;
+
+import com.example.item_service.model.Item;
+import com.example.item_service.model.TrendingItem;
+import com.example.item_service.service.ItemService;
+import com.example.item_service.trending.HeavyHitterTracker;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/item/trending")
+public class TrendingController {
+
+    private static final int MAX_LIMIT = 200;
+
+    //how many purchase event ids are remembered to drop redeliveries
+    private static final int RECENT_EVENTS = 10_000;
+
+    @Autowired
+    HeavyHitterTracker tracker;
+
+    @Autowired
+    ItemService itemService;
+
+    @Value("${ims.trending.purchase-weight:5}")
+    double purchaseWeight;
+
+    //the outbox delivers at least once and resends a whole batch to every instance when one of them failed it
+    private final Set<Long> recentEvents = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > RECENT_EVENTS;
+        }
+    });
+
+    @GetMapping
+    public List<TrendingItem> getTrendingItems(@RequestParam(defaultValue = "10") int limit){
+        List<HeavyHitterTracker.Entry> top = tracker.top(Math.min(limit, MAX_LIMIT));
+        Map<Long, Item> items = itemService.getItemsByIds(top.stream().map(HeavyHitterTracker.Entry::itemId).toList())
+                .stream()
+                .collect(Collectors.toMap(Item::getItemId, Function.identity()));
+        //deleted items keep their counter until it decays away, they are just not listed
+        List<TrendingItem> trending = new ArrayList<>(top.size());
+        for(HeavyHitterTracker.Entry entry : top){
+            Item item = items.get(entry.itemId());
+            if(item!=null){
+                trending.add(new TrendingItem(item, entry.score()));
+            }
+        }
+        return trending;
+    }
+
+    //scores only, without touching the database; new instances read this from a peer to warm up
+    @GetMapping("/ids")
+    public List<HeavyHitterTracker.Entry> getTrendingIds(@RequestParam(defaultValue = "10") int limit){
+        return tracker.top(Math.min(limit, MAX_LIMIT));
+    }
+
+    //by-id reads the gateway answered from its cache or a coalesced call, as item id to count, see ReportServedReads
+    //in the gateway; internal only, the gateway refuses it
+    @PostMapping("/reads")
+    public ResponseEntity<Map<String, String>> recordReads(@RequestBody Map<Long, Long> reads){
+        reads.forEach((itemId, count) -> {
+            if(count != null && count > 0){
+                tracker.record(itemId, count);
+            }
+        });
+        return ResponseEntity.ok(Map.of("message", "Recorded reads of " + reads.size() + " items"));
+    }
+
+    //purchase-service's outbox pushes its events to every instance here, see ims.outbox.subscribers.item-trending in
+    //purchase-service; internal only, the gateway refuses it
+    @PostMapping("/purchases")
+    public ResponseEntity<Map<String, String>> recordPurchases(@RequestBody List<JsonNode> events){
+        int recorded = 0;
+        for(JsonNode event : events){
+            JsonNode payload = event.path("payload");
+            if(!"PurchaseCreated".equals(event.path("eventType").asText()) || !payload.hasNonNull("itemId")){
+                continue;
+            }
+            synchronized (recentEvents){
+                if(!recentEvents.add(event.path("id").asLong())){
+                    continue;
+                }
+            }
+            tracker.record(payload.get("itemId").asLong(), purchaseWeight * Math.max(1, payload.path("quantity").asInt(1)));
+            recorded++;
+        }
+        return ResponseEntity.ok(Map.of("message", "Recorded " + recorded + " purchases"));
+    }
+}
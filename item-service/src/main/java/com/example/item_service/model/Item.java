@@ -5,9 +5,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+//item names are unique, the constraint settles concurrent adds that both passed the name check
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_item_item_name", columnNames = "itemName"))
+//per-instance cache, see ehcache-item.xml for how stale the quantity can get across instances
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,17 @@
+package com.example.item_service.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class SearchResult {
+
+    private Item item;
+
+    //BM25 relevance, only comparable within one query
+    private double score;
+
+}
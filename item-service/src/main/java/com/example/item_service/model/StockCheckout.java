@@ -0,0 +1,33 @@
+package com.example.item_service.model;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+//one checkout's hold on stock, its lines are the StockReservation rows; kept once released or confirmed so a
+//reserve arriving late under the same id is refused, until StockReservationSweeper purges it
+@Entity
+@Table(indexes = @Index(name = "idx_stock_checkout_status_created", columnList = "status, createdAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class StockCheckout {
+
+    public enum Status { RESERVED, RELEASED, CONFIRMED }
+
+    @Id
+    @Column(length = 64)
+    private String checkoutId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16, nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+}
@@ -0,0 +1,29 @@
+package com.example.item_service.model;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+//stock taken from one item by one checkout, kept so a release knows what was taken; deleted when the checkout is
+//released or confirmed, the checkout itself is a StockCheckout
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"checkoutId", "itemId"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long reservationId;
+
+    @Column(length = 64, nullable = false)
+    private String checkoutId;
+
+    private Long itemId;
+
+    private int quantity;
+
+}
@@ -0,0 +1,17 @@
+package com.example.item_service.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class TrendingItem {
+
+    private Item item;
+
+    //reads plus weighted purchases, decayed by ims.trending.half-life
+    private double score;
+
+}
@@ -1,12 +1,41 @@
 package com.example.item_service.repository;
 
+import com.example.item_service.catalog.CatalogFingerprint;
 import com.example.item_service.model.Item;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "item-queries")})
     Item findByItemName(String itemName);
+
+    List<Item> findByItemNameIn(Collection<String> itemNames);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "item-queries")})
+    List<Item> findBySellerId(Long sellerId);
+
+    List<Item> findByItemIdGreaterThanOrderByItemIdAsc(Long itemId, Limit limit);
+
+    @Query("select new com.example.item_service.catalog.CatalogFingerprint(count(i), coalesce(max(i.itemId), 0L), "
+            + "coalesce(sum(i.itemId), 0L), coalesce(sum(i.quantity), 0L)) from Item i")
+    CatalogFingerprint findCatalogFingerprint();
+
+    //row locks taken in id order, so concurrent checkouts over the same items queue instead of deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.itemId in :ids order by i.itemId")
+    List<Item> findAndLockByItemIdIn(@Param("ids") Collection<Long> ids);
 }
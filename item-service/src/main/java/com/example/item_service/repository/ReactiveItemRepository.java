@@ -0,0 +1,51 @@
+package com.example.item_service.repository;
+
+import com.example.item_service.model.Item;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Read-only access to the item table over R2DBC. Rows are mapped straight onto {@link Item}, they are
+ * never managed by Hibernate, so these reads neither use nor disturb the second-level cache.
+ */
+@Repository
+public class ReactiveItemRepository {
+
+    private static final String SELECT_ITEM = "SELECT item_id, item_name, price, description, quantity, seller_id FROM item";
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    public Mono<Item> findById(Long id) {
+        return databaseClient.sql(SELECT_ITEM + " WHERE item_id = :id")
+                .bind("id", id)
+                .map(ReactiveItemRepository::toItem)
+                .one();
+    }
+
+    public Flux<Item> findAllById(Collection<Long> ids) {
+        return databaseClient.sql(SELECT_ITEM + " WHERE item_id IN (:ids) ORDER BY item_id")
+                .bind("ids", ids)
+                .map(ReactiveItemRepository::toItem)
+                .all();
+    }
+
+    //rows are pulled from the driver as the subscriber requests them, the catalog is never held in memory as a whole
+    public Flux<Item> findAll() {
+        return databaseClient.sql(SELECT_ITEM + " ORDER BY item_id")
+                .map(ReactiveItemRepository::toItem)
+                .all();
+    }
+
+    private static Item toItem(Readable row) {
+        Integer quantity = row.get("quantity", Integer.class);
+        return new Item(row.get("item_id", Long.class), row.get("item_name", String.class), row.get("price", Long.class),
+                row.get("description", String.class), quantity == null ? 0 : quantity, row.get("seller_id", Long.class));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.item_service.repository;
+
+import com.example.item_service.model.StockCheckout;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StockCheckoutRepository extends JpaRepository<StockCheckout, String> {
+
+    //reads the current row under its lock whatever the transaction saw before, so only one release or confirm wins;
+    //only for rows known to exist, on a missing key MySQL would lock the gap instead
+    @Modifying
+    @Query("update StockCheckout c set c.status = :to where c.checkoutId = :checkoutId and c.status = :from")
+    int transition(@Param("checkoutId") String checkoutId, @Param("from") StockCheckout.Status from,
+                   @Param("to") StockCheckout.Status to);
+
+    List<StockCheckout> findByStatusAndCreatedAtBeforeOrderByCreatedAt(StockCheckout.Status status, Instant before, Limit limit);
+
+    @Modifying
+    @Query("delete from StockCheckout c where c.status <> :reserved and c.createdAt < :before")
+    int deleteSettledBefore(@Param("reserved") StockCheckout.Status reserved, @Param("before") Instant before);
+}
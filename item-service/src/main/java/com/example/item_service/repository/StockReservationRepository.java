@@ -0,0 +1,13 @@
+package com.example.item_service.repository;
+
+import com.example.item_service.model.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByCheckoutId(String checkoutId);
+}
@@ -0,0 +1,415 @@
+package com.example.item_service.search;
+
+import com.example.item_service.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over item name and description, ranked with BM25 where a name occurrence counts as
+ * {@value #NAME_WEIGHT} description occurrences.
+ * <p>
+ * Every indexed item gets the next ordinal, so appending keeps each posting list sorted and the other
+ * clauses of a query are walked in step with the scanned one. Deletes only mark the ordinal, and the postings are
+ * compacted once a quarter of them are dead. The term dictionary is sorted, so the terms starting
+ * with a prefix are one range of it: the last word of a query matches as a prefix, which is what
+ * autocomplete needs.
+ * <p>
+ * All words of a query must match. Only the clause with the fewest postings is scanned, newest items
+ * first and at most {@code maxScan} postings, so a query for a word that nearly every item contains
+ * ranks the newest {@code maxScan} matches instead of all of them.
+ */
+public class InvertedIndex {
+
+    static final int NAME_WEIGHT = 3;
+
+    private static final float K1 = 1.2f;
+
+    private static final float B = 0.75f;
+
+    //prefix ranges longer than this are only partly considered when picking the expansions
+    private static final int MAX_PREFIX_TERMS_SCANNED = 1024;
+
+    private final int maxExpansions;
+
+    private final int maxScan;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+
+    private final BitSet deleted = new BitSet();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] itemIds = new long[1024];
+
+    private String[] names = new String[1024];
+
+    private int[] lengths = new int[1024];
+
+    private int nextOrdinal;
+
+    private long totalLength;
+
+    private long itemIdSum;
+
+    public InvertedIndex(int maxExpansions, int maxScan) {
+        this.maxExpansions = maxExpansions;
+        this.maxScan = maxScan;
+    }
+
+    public void add(Item item) {
+        if (item.getItemId() == null) {
+            return;
+        }
+        //tokenized before taking the lock, writers hold it only to update the arrays
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        List<String> nameTokens = Tokenizer.tokenize(item.getItemName());
+        List<String> descriptionTokens = Tokenizer.tokenize(item.getDescription());
+        nameTokens.forEach(token -> frequencies.merge(token, NAME_WEIGHT, Integer::sum));
+        descriptionTokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+        int length = NAME_WEIGHT * nameTokens.size() + descriptionTokens.size();
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(item.getItemId());
+            int ordinal = nextOrdinal++;
+            if (ordinal == itemIds.length) {
+                int capacity = itemIds.length * 2;
+                itemIds = Arrays.copyOf(itemIds, capacity);
+                names = Arrays.copyOf(names, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            itemIds[ordinal] = item.getItemId();
+            names[ordinal] = item.getItemName();
+            lengths[ordinal] = length;
+            totalLength += length;
+            itemIdSum += item.getItemId();
+            ordinals.put(item.getItemId(), ordinal);
+            frequencies.forEach((term, frequency) -> terms.computeIfAbsent(term, key -> new Postings()).append(ordinal, frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(itemId);
+            int dead = deleted.cardinality();
+            if (dead > 1024 && dead > nextOrdinal / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(long itemId) {
+        Integer ordinal = ordinals.remove(itemId);
+        if (ordinal != null) {
+            deleted.set(ordinal);
+            totalLength -= lengths[ordinal];
+            itemIdSum -= itemId;
+            names[ordinal] = null;
+        }
+    }
+
+    //renumbers the live items in their current order, so every posting list stays sorted
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+                continue;
+            }
+            remap[ordinal] = live;
+            itemIds[live] = itemIds[ordinal];
+            names[live] = names[ordinal];
+            lengths[live] = lengths[ordinal];
+            ordinals.put(itemIds[live], live);
+            live++;
+        }
+        Arrays.fill(names, live, nextOrdinal, null);
+        Iterator<Postings> postings = terms.values().iterator();
+        while (postings.hasNext()) {
+            if (postings.next().remap(remap) == 0) {
+                postings.remove();
+            }
+        }
+        deleted.clear();
+        nextOrdinal = live;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long itemIdSum() {
+        lock.readLock().lock();
+        try {
+            return itemIdSum;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //best match first; a query ending in a letter or digit treats its last word as a prefix
+    public List<Hit> search(String query, int limit) {
+        List<String> tokens = Tokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean prefixLast = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        lock.readLock().lock();
+        try {
+            int live = ordinals.size();
+            if (live == 0) {
+                return List.of();
+            }
+            float averageLength = Math.max(1f, (float) totalLength / live);
+            List<List<Postings>> clauses = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                List<Postings> clause = i == tokens.size() - 1 && prefixLast ? expand(tokens.get(i)) : exact(tokens.get(i));
+                if (clause.isEmpty()) {
+                    return List.of();
+                }
+                clauses.add(clause);
+            }
+            List<Postings> driver = clauses.stream().min(Comparator.comparingLong(InvertedIndex::postingCount)).orElseThrow();
+
+            //the other clauses are walked with cursors, which needs the candidates in descending ordinal order
+            List<List<Cursor>> others = new ArrayList<>(clauses.size() - 1);
+            for (List<Postings> clause : clauses) {
+                if (clause != driver) {
+                    others.add(clause.stream().map(postings -> new Cursor(postings, idf(postings.size, live))).toList());
+                }
+            }
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Hit::score));
+            if (driver.size() == 1) {
+                //leapfrog: every list jumps straight to the next ordinal all of them may share
+                Postings postings = driver.get(0);
+                Cursor lead = new Cursor(postings, idf(postings.size, live));
+                int stop = Math.max(0, postings.size - maxScan);
+                int ordinal = agree(Integer.MAX_VALUE, lead, others);
+                while (ordinal >= 0 && lead.position >= stop) {
+                    if (!deleted.get(ordinal)) {
+                        collect(ordinal, score(lead.idf, postings.frequencies[lead.position], lengths[ordinal], averageLength),
+                                others, averageLength, best, limit);
+                    }
+                    ordinal = ordinal == 0 ? -1 : agree(ordinal - 1, lead, others);
+                }
+            } else {
+                //an item can hold several completions of the prefix, it counts with the best one
+                Map<Integer, Float> candidates = new HashMap<>();
+                int scanned = 0;
+                for (Postings postings : driver) {
+                    float idf = idf(postings.size, live);
+                    for (int i = postings.size - 1; i >= 0 && scanned < maxScan; i--, scanned++) {
+                        int ordinal = postings.ordinals[i];
+                        if (!deleted.get(ordinal)) {
+                            candidates.merge(ordinal, score(idf, postings.frequencies[i], lengths[ordinal], averageLength), Math::max);
+                        }
+                    }
+                }
+                int[] ordinals = candidates.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+                for (int i = ordinals.length - 1; i >= 0; i--) {
+                    collect(ordinals[i], candidates.get(ordinals[i]), others, averageLength, best, limit);
+                }
+            }
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //the highest ordinal at or below the target that the lead and every clause contain, -1 when there is none
+    private static int agree(int target, Cursor lead, List<List<Cursor>> others) {
+        while (true) {
+            int next = lead.floor(target);
+            if (next < 0) {
+                return -1;
+            }
+            boolean agreed = true;
+            for (List<Cursor> clause : others) {
+                int floor = -1;
+                for (Cursor cursor : clause) {
+                    floor = Math.max(floor, cursor.floor(next));
+                }
+                if (floor < 0) {
+                    return -1;
+                }
+                if (floor < next) {
+                    next = floor;
+                    agreed = false;
+                }
+            }
+            if (agreed) {
+                return next;
+            }
+            target = next;
+        }
+    }
+
+    //adds the candidate to the best hits if every other clause matches it too
+    private void collect(int ordinal, float driverScore, List<List<Cursor>> others, float averageLength,
+                         PriorityQueue<Hit> best, int limit) {
+        float total = driverScore;
+        for (List<Cursor> clause : others) {
+            float clauseScore = 0;
+            for (Cursor cursor : clause) {
+                int frequency = cursor.frequencyOf(ordinal);
+                if (frequency > 0) {
+                    clauseScore = Math.max(clauseScore, score(cursor.idf, frequency, lengths[ordinal], averageLength));
+                }
+            }
+            if (clauseScore == 0) {
+                return;
+            }
+            total += clauseScore;
+        }
+        if (best.size() < limit || total > best.peek().score()) {
+            best.add(new Hit(itemIds[ordinal], names[ordinal], total));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+    }
+
+    private List<Postings> exact(String term) {
+        Postings postings = terms.get(term);
+        return postings == null ? List.of() : List.of(postings);
+    }
+
+    //the exact term plus the prefix's most common completions
+    private List<Postings> expand(String prefix) {
+        PriorityQueue<Postings> common = new PriorityQueue<>(maxExpansions + 1, Comparator.comparingInt(postings -> postings.size));
+        int scanned = 0;
+        for (Postings postings : terms.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            if (scanned++ == MAX_PREFIX_TERMS_SCANNED) {
+                break;
+            }
+            common.add(postings);
+            if (common.size() > maxExpansions) {
+                common.poll();
+            }
+        }
+        Postings exact = terms.get(prefix);
+        if (exact != null && !common.contains(exact)) {
+            common.add(exact);
+        }
+        return new ArrayList<>(common);
+    }
+
+    private static long postingCount(List<Postings> clause) {
+        long count = 0;
+        for (Postings postings : clause) {
+            count += postings.size;
+        }
+        return count;
+    }
+
+    private static float idf(int documentFrequency, int documents) {
+        return (float) Math.log(1 + (documents - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static float score(float idf, int frequency, int length, float averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    public record Hit(long itemId, String itemName, float score) {
+    }
+
+    //walks one posting list downwards, galloping over the entries between two asked-for ordinals
+    private static final class Cursor {
+
+        private final Postings postings;
+
+        private final float idf;
+
+        private int position;
+
+        Cursor(Postings postings, float idf) {
+            this.postings = postings;
+            this.idf = idf;
+            this.position = postings.size - 1;
+        }
+
+        //moves to the largest entry at or below the ordinal and returns it, -1 past the end; targets must not increase
+        int floor(int ordinal) {
+            int[] ordinals = postings.ordinals;
+            //the next entry down is usually the answer, gallop only past it
+            if (position >= 0 && ordinals[position] > ordinal && --position >= 0 && ordinals[position] > ordinal) {
+                int high = position;
+                int step = 1;
+                int low = position - step;
+                while (low >= 0 && ordinals[low] > ordinal) {
+                    high = low;
+                    step <<= 1;
+                    low = position - step;
+                }
+                int index = Arrays.binarySearch(ordinals, Math.max(low, 0), high, ordinal);
+                position = index >= 0 ? index : -index - 2;
+            }
+            return position >= 0 ? ordinals[position] : -1;
+        }
+
+        //0 when the ordinal is not in the list
+        int frequencyOf(int ordinal) {
+            return floor(ordinal) == ordinal ? postings.frequencies[position] : 0;
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] ordinals = new int[2];
+
+        private short[] frequencies = new short[2];
+
+        private int size;
+
+        void append(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = (short) Math.min(frequency, Short.MAX_VALUE);
+            size++;
+        }
+
+        //drops the entries mapped to -1 and returns what is left
+        int remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal >= 0) {
+                    ordinals[kept] = ordinal;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.item_service.search;
+
+import com.example.item_service.catalog.CatalogChangedEvent;
+import com.example.item_service.catalog.CatalogFingerprint;
+import com.example.item_service.model.Item;
+import com.example.item_service.service.ItemService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the {@link InvertedIndex} behind {@code /item/search}. It is built in the background at startup
+ * by walking the catalog in id order, then kept current from the {@link CatalogChangedEvent}s of local
+ * writes. Writes made through other instances are noticed by comparing the index with the database's
+ * {@link CatalogFingerprint} and lead to a full rebuild, which is swapped in once complete.
+ */
+@Component
+public class ItemSearchIndex implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    private static final int PAGE_SIZE = 5_000;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final int maxExpansions;
+
+    private final int maxScan;
+
+    @Value("${ims.search.check-interval:30s}")
+    Duration checkInterval;
+
+    //empty until the first build completes
+    private volatile InvertedIndex index;
+
+    //the index being built, local writes go to it too so the swap loses none of them
+    private volatile InvertedIndex building;
+
+    private volatile ScheduledExecutorService executor;
+
+    private Timer queryTimer;
+
+    public ItemSearchIndex(@Value("${ims.search.max-expansions:64}") int maxExpansions,
+                           @Value("${ims.search.max-scan:10000}") int maxScan) {
+        this.maxExpansions = maxExpansions;
+        this.maxScan = maxScan;
+        this.index = new InvertedIndex(maxExpansions, maxScan);
+    }
+
+    public List<InvertedIndex.Hit> search(String query, int limit) {
+        long start = System.nanoTime();
+        List<InvertedIndex.Hit> hits = index.search(query, limit);
+        if (queryTimer != null) {
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return hits;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        apply(index, event);
+        InvertedIndex next = building;
+        if (next != null) {
+            apply(next, event);
+        }
+    }
+
+    private static void apply(InvertedIndex target, CatalogChangedEvent event) {
+        event.created().forEach(target::add);
+        event.deleted().forEach(target::remove);
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        InvertedIndex next = new InvertedIndex(maxExpansions, maxScan);
+        building = next;
+        try {
+            long lastId = 0;
+            List<Item> page;
+            do {
+                page = itemService.getItemsAfter(lastId, PAGE_SIZE);
+                for (Item item : page) {
+                    next.add(item);
+                    lastId = item.getItemId();
+                }
+            } while (page.size() == PAGE_SIZE);
+            index = next;
+            log.info("Search index built over {} items in {} ms", next.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            log.warn("Search index rebuild failed, still serving the previous one", ex);
+        } finally {
+            building = null;
+        }
+    }
+
+    private void checkForChanges() {
+        try {
+            CatalogFingerprint fingerprint = itemService.getCatalogFingerprint();
+            InvertedIndex current = index;
+            if (fingerprint.items() != current.size() || fingerprint.itemIdSum() != current.itemIdSum()) {
+                rebuild();
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Search index check failed", ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            queryTimer = Timer.builder("item.search.query")
+                    .description("Time to answer a search from the in-memory index, loading the items is not included")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+            Gauge.builder("item.search.items", this, search -> search.index.size())
+                    .description("Items in the search index")
+                    .register(registry);
+        }
+        ScheduledExecutorService rebuilds = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = rebuilds;
+        rebuilds.execute(this::rebuild);
+        rebuilds.scheduleWithFixedDelay(this::checkForChanges, checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService rebuilds = executor;
+        executor = null;
+        if (rebuilds != null) {
+            rebuilds.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.item_service.service;
 
+import com.example.item_service.catalog.CatalogFingerprint;
 import com.example.item_service.model.Item;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public interface ItemService {
@@ -17,4 +22,33 @@ public interface ItemService {
     List<Item> getAllItems();
 
     Item getItemByName(String itemName);
+
+    List<Item> addItems(List<Item> items);
+
+    Set<String> getExistingItemNames(Collection<String> itemNames);
+
+    List<Item> getItemsBySellerId(Long sellerId);
+
+    List<Item> getItemsByIds(Collection<Long> ids);
+
+    CatalogFingerprint getCatalogFingerprint();
+
+    //keyset page in id order, for walking the whole catalog without loading it at once
+    List<Item> getItemsAfter(Long itemId, int limit);
+
+    //takes every line or none, see StockReservationException; the items are returned with their new quantities
+    List<Item> reserveStock(String checkoutId, Map<Long, Integer> quantities);
+
+    //puts back what the checkout reserved, returns the number of lines released; nothing once the checkout was confirmed.
+    //an unknown checkout id is marked released, so a reserve still on its way under it is refused
+    int releaseStock(String checkoutId);
+
+    //keeps the stock taken for good once the checkout's purchases are recorded, returns the number of lines confirmed
+    int confirmStock(String checkoutId);
+
+    //checkouts still holding stock that were reserved before the given time, oldest first
+    List<String> getCheckoutsReservedBefore(Instant before, int limit);
+
+    //drops released and confirmed checkouts created before the given time, returns how many
+    int purgeSettledCheckouts(Instant before);
 }
@@ -0,0 +1,16 @@
+package com.example.item_service.service;
+
+import com.example.item_service.model.Item;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReactiveItemService {
+
+    Mono<Item> getItemById(Long id);
+
+    Flux<Item> getItemsByIds(Collection<Long> ids);
+
+    Flux<Item> streamCatalog();
+}
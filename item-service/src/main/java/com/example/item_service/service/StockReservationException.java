@@ -0,0 +1,30 @@
+package com.example.item_service.service;
+
+import java.util.List;
+
+/**
+ * Thrown when a reservation cannot take all of its lines, or its checkout was already released. Nothing is
+ * reserved then, the transaction rolls back whatever the earlier lines took.
+ */
+public class StockReservationException extends RuntimeException {
+
+    public enum Reason { ITEM_NOT_FOUND, INSUFFICIENT_STOCK, CHECKOUT_RELEASED }
+
+    private final Reason reason;
+
+    private final List<Long> itemIds;
+
+    public StockReservationException(Reason reason, List<Long> itemIds) {
+        super(reason + " for items " + itemIds);
+        this.reason = reason;
+        this.itemIds = List.copyOf(itemIds);
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public List<Long> getItemIds() {
+        return itemIds;
+    }
+}
@@ -1,48 +1,229 @@
 package com.example.item_service.service.impl;
 
+import com.example.common_service.outbox.OutboxPublisher;
+import com.example.item_service.catalog.CatalogChangedEvent;
+import com.example.item_service.catalog.CatalogFingerprint;
 import com.example.item_service.model.Item;
+import com.example.item_service.model.StockCheckout;
+import com.example.item_service.model.StockReservation;
 import com.example.item_service.repository.ItemRepository;
+import com.example.item_service.repository.StockCheckoutRepository;
+import com.example.item_service.repository.StockReservationRepository;
 import com.example.item_service.service.ItemService;
+import com.example.item_service.service.StockReservationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemServiceImpl implements ItemService {
 
+    private static final String AGGREGATE = "item";
+
     @Autowired
     ItemRepository itemRepository;
 
+    @Autowired
+    StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    StockCheckoutRepository stockCheckoutRepository;
+
+    @Autowired
+    OutboxPublisher outboxPublisher;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
     @Override
+    @Transactional
     public Item addItem(Item item) {
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        outboxPublisher.publish(AGGREGATE, saved.getItemId(), "ItemCreated", saved);
+        eventPublisher.publishEvent(CatalogChangedEvent.created(List.of(saved)));
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Item getItemById(Long id) {
         Optional<Item> item = itemRepository.findById(id);
         return item.orElse(null);
     }
 
     @Override
+    @Transactional
     public String deleteItem(Long id) {
         if(itemRepository.findById(id).isPresent()){
             itemRepository.deleteById(id);
+            outboxPublisher.publish(AGGREGATE, id, "ItemDeleted", Map.of("itemId", id));
+            eventPublisher.publishEvent(CatalogChangedEvent.deleted(id));
             return "Item deleted successfully!";
         }
         return "Item not found";
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Item> getAllItems() {
         return itemRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Item getItemByName(String itemName) {
         Optional<Item> item = Optional.ofNullable(itemRepository.findByItemName(itemName));
         return item.orElse(null);
     }
+
+    @Override
+    @Transactional
+    public List<Item> addItems(List<Item> items) {
+        List<Item> saved = itemRepository.saveAll(items);
+        outboxPublisher.publishAll(AGGREGATE, "ItemCreated", saved, Item::getItemId);
+        eventPublisher.publishEvent(CatalogChangedEvent.created(saved));
+        return saved;
+    }
+
+    @Override
+    //decides which uploaded items are new, so it reads the primary rather than a possibly lagging replica
+    @Transactional
+    public Set<String> getExistingItemNames(Collection<String> itemNames) {
+        return itemRepository.findByItemNameIn(itemNames).stream()
+                .map(Item::getItemName)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> getItemsBySellerId(Long sellerId) {
+        return itemRepository.findBySellerId(sellerId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> getItemsByIds(Collection<Long> ids) {
+        return itemRepository.findAllById(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CatalogFingerprint getCatalogFingerprint() {
+        return itemRepository.findCatalogFingerprint();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> getItemsAfter(Long itemId, int limit) {
+        return itemRepository.findByItemIdGreaterThanOrderByItemIdAsc(itemId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional
+    public List<Item> reserveStock(String checkoutId, Map<Long, Integer> quantities) {
+        List<Item> items = itemRepository.findAndLockByItemIdIn(quantities.keySet());
+        //looked up under the item locks, so a concurrent retry of the same checkout sees what the first one took
+        Optional<StockCheckout> checkout = stockCheckoutRepository.findById(checkoutId);
+        if(checkout.isPresent()){
+            if(checkout.get().getStatus()==StockCheckout.Status.RELEASED){
+                //released before this reserve got here, typically one that timed out at the caller and was compensated
+                throw new StockReservationException(StockReservationException.Reason.CHECKOUT_RELEASED, List.of());
+            }
+            return items;
+        }
+        if(items.size() < quantities.size()){
+            Set<Long> found = items.stream().map(Item::getItemId).collect(Collectors.toSet());
+            throw new StockReservationException(StockReservationException.Reason.ITEM_NOT_FOUND,
+                    quantities.keySet().stream().filter(id -> !found.contains(id)).sorted().toList());
+        }
+        List<Long> shortItems = items.stream()
+                .filter(item -> item.getQuantity() < quantities.get(item.getItemId()))
+                .map(Item::getItemId)
+                .toList();
+        if(!shortItems.isEmpty()){
+            throw new StockReservationException(StockReservationException.Reason.INSUFFICIENT_STOCK, shortItems);
+        }
+        List<StockReservation> reservations = new ArrayList<>(items.size());
+        for(Item item : items){
+            int quantity = quantities.get(item.getItemId());
+            item.setQuantity(item.getQuantity() - quantity);
+            reservations.add(new StockReservation(null, checkoutId, item.getItemId(), quantity));
+        }
+        //a release that marked the id first fails this insert on the key, see StockController
+        stockCheckoutRepository.save(new StockCheckout(checkoutId, StockCheckout.Status.RESERVED, Instant.now()));
+        stockReservationRepository.saveAll(reservations);
+        outboxPublisher.publishAll(AGGREGATE, "StockReserved", reservations, StockReservation::getItemId);
+        eventPublisher.publishEvent(CatalogChangedEvent.stockChanged());
+        return items;
+    }
+
+    @Override
+    @Transactional
+    public int releaseStock(String checkoutId) {
+        if(!stockCheckoutRepository.existsById(checkoutId)){
+            //the reserve may still be running, this marker makes it refuse instead of holding the stock for good;
+            //a reserve that commits first fails this insert on the key, see StockController
+            stockCheckoutRepository.save(new StockCheckout(checkoutId, StockCheckout.Status.RELEASED, Instant.now()));
+            return 0;
+        }
+        //already released, or confirmed and so no longer releasable
+        if(stockCheckoutRepository.transition(checkoutId, StockCheckout.Status.RESERVED, StockCheckout.Status.RELEASED)==0){
+            return 0;
+        }
+        List<StockReservation> reservations = stockReservationRepository.findByCheckoutId(checkoutId);
+        Map<Long, Item> items = itemRepository.findAndLockByItemIdIn(
+                        reservations.stream().map(StockReservation::getItemId).toList()).stream()
+                .collect(Collectors.toMap(Item::getItemId, item -> item));
+        for(StockReservation reservation : reservations){
+            Item item = items.get(reservation.getItemId());
+            //an item deleted since the reservation has no stock left to return to
+            if(item != null){
+                item.setQuantity(item.getQuantity() + reservation.getQuantity());
+            }
+        }
+        stockReservationRepository.deleteAll(reservations);
+        outboxPublisher.publishAll(AGGREGATE, "StockReleased", reservations, StockReservation::getItemId);
+        eventPublisher.publishEvent(CatalogChangedEvent.stockChanged());
+        return reservations.size();
+    }
+
+    @Override
+    @Transactional
+    public int confirmStock(String checkoutId) {
+        //the status update serializes against a release, whichever comes second finds nothing to do
+        if(!stockCheckoutRepository.existsById(checkoutId)
+                || stockCheckoutRepository.transition(checkoutId, StockCheckout.Status.RESERVED, StockCheckout.Status.CONFIRMED)==0){
+            return 0;
+        }
+        List<StockReservation> reservations = stockReservationRepository.findByCheckoutId(checkoutId);
+        //the quantities already left the items at reserve time, dropping the lines is all that is left to do
+        stockReservationRepository.deleteAll(reservations);
+        return reservations.size();
+    }
+
+    @Override
+    @Transactional
+    public List<String> getCheckoutsReservedBefore(Instant before, int limit) {
+        return stockCheckoutRepository.findByStatusAndCreatedAtBeforeOrderByCreatedAt(StockCheckout.Status.RESERVED, before, Limit.of(limit))
+                .stream()
+                .map(StockCheckout::getCheckoutId)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public int purgeSettledCheckouts(Instant before) {
+        return stockCheckoutRepository.deleteSettledBefore(StockCheckout.Status.RESERVED, before);
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.item_service.service.impl;
+
+import com.example.item_service.model.Item;
+import com.example.item_service.repository.ReactiveItemRepository;
+import com.example.item_service.service.ReactiveItemService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+@Service
+public class ReactiveItemServiceImpl implements ReactiveItemService {
+
+    @Autowired
+    ReactiveItemRepository reactiveItemRepository;
+
+    @Override
+    public Mono<Item> getItemById(Long id) {
+        return reactiveItemRepository.findById(id);
+    }
+
+    @Override
+    public Flux<Item> getItemsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return reactiveItemRepository.findAllById(new LinkedHashSet<>(ids));
+    }
+
+    @Override
+    public Flux<Item> streamCatalog() {
+        return reactiveItemRepository.findAll();
+    }
+}
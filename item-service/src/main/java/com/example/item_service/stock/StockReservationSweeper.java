@@ -0,0 +1,100 @@
+package com.example.item_service.stock;
+
+import com.example.item_service.service.ItemService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Returns the stock of checkouts that were reserved but neither confirmed nor released within the
+ * reservation timeout, e.g. because user-service stopped in the middle of one. Each is released as the
+ * checkout's own compensation would, so the timeout has to stay well above the longest checkout. Settled
+ * checkouts are dropped once they are old enough that no reserve can still be on its way for them.
+ */
+@Component
+public class StockReservationSweeper implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReservationSweeper.class);
+
+    @Autowired
+    ItemService itemService;
+
+    @Value("${ims.stock.sweep.enabled:true}")
+    boolean enabled;
+
+    @Value("${ims.stock.sweep.interval:1m}")
+    Duration interval;
+
+    @Value("${ims.stock.sweep.batch-size:100}")
+    int batchSize;
+
+    @Value("${ims.stock.reservation-timeout:15m}")
+    Duration reservationTimeout;
+
+    @Value("${ims.stock.settled-retention:1d}")
+    Duration settledRetention;
+
+    private volatile ScheduledExecutorService executor;
+
+    void sweep() {
+        try {
+            Instant now = Instant.now();
+            int released = 0;
+            List<String> expired;
+            do {
+                expired = itemService.getCheckoutsReservedBefore(now.minus(reservationTimeout), batchSize);
+                //one transaction per checkout, like the checkout's compensation; every instance may sweep, a checkout
+                //released by another one in between is simply skipped
+                for (String checkoutId : expired) {
+                    if (itemService.releaseStock(checkoutId) > 0) {
+                        released++;
+                    }
+                }
+            } while (expired.size() == batchSize && executor != null);
+            if (released > 0) {
+                log.warn("Released {} checkouts reserved more than {} ago", released, reservationTimeout);
+            }
+            itemService.purgeSettledCheckouts(now.minus(settledRetention));
+        } catch (RuntimeException ex) {
+            log.warn("Stock reservation sweep failed", ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ScheduledExecutorService sweeps = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-reservation-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = sweeps;
+        sweeps.scheduleWithFixedDelay(this::sweep, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService sweeps = executor;
+        executor = null;
+        if (sweeps != null) {
+            sweeps.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+}
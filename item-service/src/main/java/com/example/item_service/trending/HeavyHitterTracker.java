@@ -0,0 +1,239 @@
+package com.example.item_service.trending;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Space-saving heavy hitters over item ids: at most {@code capacity} counters, and an untracked id takes
+ * over the smallest counter, inheriting its count as the error bound. Any id seen more often than
+ * total / capacity is guaranteed to hold a counter.
+ * <p>
+ * Counts decay with the configured half-life using forward decay: an event recorded at time t weighs
+ * 2^((t - landmark) / halfLife), and a score is the stored count divided by the weight of "now". Nothing
+ * has to walk the counters to age them, they are only rescaled when the weights grow too large.
+ * <p>
+ * {@link #record} runs on the read path, so it only queues the event. Whoever finds a full batch queued
+ * applies it if the lock is free, and {@link #top} applies what is left. The counters sit in a min-heap
+ * indexed by item id, so an increment or a takeover costs O(log capacity).
+ */
+public class HeavyHitterTracker {
+
+    //rescale well before doubles lose the precision needed to tell two increments apart
+    private static final double RESCALE_ABOVE = 1e12;
+
+    //queued events applied together by one recording thread
+    private static final int DRAIN_BATCH = 256;
+
+    //events beyond this are dropped while every thread fails to get the lock, the counts only need to be approximate
+    private static final int MAX_PENDING = 64 * 1024;
+
+    private final int capacity;
+
+    private final double halfLifeNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Map<Long, Counter> counters;
+
+    //min-heap on count, heap[0] is the counter an untracked id takes over
+    private final Counter[] heap;
+
+    private final Queue<Event> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long landmark;
+
+    public HeavyHitterTracker(int capacity, Duration halfLife) {
+        this(capacity, halfLife, System::nanoTime);
+    }
+
+    HeavyHitterTracker(int capacity, Duration halfLife, LongSupplier nanoClock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, was " + capacity);
+        }
+        this.capacity = capacity;
+        this.halfLifeNanos = halfLife.toNanos();
+        this.nanoClock = nanoClock;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+        this.landmark = nanoClock.getAsLong();
+    }
+
+    public void record(long itemId) {
+        record(itemId, 1);
+    }
+
+    public void record(long itemId, double weight) {
+        if (weight <= 0) {
+            return;
+        }
+        int queued = pendingCount.incrementAndGet();
+        if (queued > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            return;
+        }
+        pending.offer(new Event(itemId, weight, nanoClock.getAsLong()));
+        //never waits: a thread holding the lock is draining already
+        if (queued >= DRAIN_BATCH && lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    //highest decayed score first
+    public List<Entry> top(int limit) {
+        List<Entry> entries;
+        lock.lock();
+        try {
+            drain();
+            double scale = scaleAt(nanoClock.getAsLong());
+            entries = new ArrayList<>(counters.size());
+            for (Counter counter : counters.values()) {
+                entries.add(new Entry(counter.itemId, counter.count / scale, counter.error / scale));
+            }
+        } finally {
+            lock.unlock();
+        }
+        entries.sort(Comparator.comparingDouble(Entry::score).reversed());
+        return entries.size() > limit ? List.copyOf(entries.subList(0, Math.max(0, limit))) : entries;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            drain();
+            return counters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //caller holds the lock
+    private void drain() {
+        long now = nanoClock.getAsLong();
+        double scale = scaleAt(now);
+        if (scale > RESCALE_ABOVE) {
+            rescale(scale, now);
+        }
+        Event event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            apply(event.itemId(), event.weight() * scaleAt(event.nanoTime()));
+        }
+    }
+
+    private void apply(long itemId, double increment) {
+        Counter counter = counters.get(itemId);
+        if (counter != null) {
+            counter.count += increment;
+            siftDown(counter.index);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(itemId, increment, 0);
+            counters.put(itemId, counter);
+            heap[counters.size() - 1] = counter;
+            counter.index = counters.size() - 1;
+            siftUp(counter.index);
+        } else {
+            //the smallest counter changes hands in place, it is the root and only grows
+            Counter smallest = heap[0];
+            counters.remove(smallest.itemId);
+            counter = new Counter(itemId, smallest.count + increment, smallest.count);
+            counter.index = 0;
+            heap[0] = counter;
+            counters.put(itemId, counter);
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        int size = counters.size();
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private double scaleAt(long now) {
+        return Math.pow(2, (now - landmark) / halfLifeNanos);
+    }
+
+    //dividing every count by the same factor keeps the heap order
+    private void rescale(double scale, long now) {
+        for (Counter counter : counters.values()) {
+            counter.count /= scale;
+            counter.error /= scale;
+        }
+        landmark = now;
+    }
+
+    /**
+     * A tracked item with its decayed score. The true decayed count lies between score - error and score.
+     */
+    public record Entry(long itemId, double score, double error) {
+    }
+
+    private record Event(long itemId, double weight, long nanoTime) {
+    }
+
+    private static final class Counter {
+
+        private final long itemId;
+
+        private double count;
+
+        private double error;
+
+        private int index;
+
+        Counter(long itemId, double count, double error) {
+            this.itemId = itemId;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.item_service.trending;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class TrendingConfiguration {
+
+    @Bean
+    public HeavyHitterTracker heavyHitterTracker(@Value("${ims.trending.capacity:512}") int capacity,
+                                                 @Value("${ims.trending.half-life:10m}") Duration halfLife) {
+        return new HeavyHitterTracker(capacity, halfLife);
+    }
+}
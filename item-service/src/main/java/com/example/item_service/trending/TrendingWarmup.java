@@ -0,0 +1,159 @@
+package com.example.item_service.trending;
+
+import com.example.item_service.service.ItemService;
+import com.example.item_service.service.ReactiveItemService;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Before a new instance takes traffic, asks a running item-service instance for its hottest items, seeds
+ * the local tracker with their scores and reads each of them through the JPA and R2DBC paths. That fills
+ * the second-level cache, opens connections in both pools and gets the read path compiled. The instance
+ * registers with Eureka as STARTING ({@code eureka.instance.initial-status}) and is switched to UP here,
+ * once warm. The first instance of a fleet has no peer to ask and starts cold.
+ */
+@Component
+public class TrendingWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingWarmup.class);
+
+    @Autowired
+    HeavyHitterTracker tracker;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ReactiveItemService reactiveItemService;
+
+    @Autowired
+    ObjectProvider<DiscoveryClient> discoveryClient;
+
+    @Autowired
+    ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+    @Value("${spring.application.name}")
+    String serviceName;
+
+    @Value("${ims.trending.warmup.limit:200}")
+    int limit;
+
+    @Value("${ims.trending.warmup.parallelism:4}")
+    int parallelism;
+
+    @Value("${ims.trending.warmup.timeout:20s}")
+    Duration timeout;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (limit > 0) {
+                warmUp();
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Warm-up failed, starting cold", ex);
+        } finally {
+            markUp();
+        }
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        List<HeavyHitterTracker.Entry> hottest = fetchFromPeer();
+        if (hottest.isEmpty()) {
+            log.info("No running {} instance to warm up from, starting cold", serviceName);
+            return;
+        }
+        for (HeavyHitterTracker.Entry entry : hottest) {
+            tracker.record(entry.itemId(), entry.score());
+        }
+        List<Callable<Void>> reads = new ArrayList<>(hottest.size());
+        for (HeavyHitterTracker.Entry entry : hottest) {
+            reads.add(() -> {
+                itemService.getItemById(entry.itemId());
+                reactiveItemService.getItemById(entry.itemId()).block(timeout);
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            int warmed = 0;
+            for (Future<Void> read : executor.invokeAll(reads, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                if (!read.isCancelled()) {
+                    warmed++;
+                }
+            }
+            log.info("Warmed {} of the {} hottest items in {} ms", warmed, hottest.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    //the local Eureka registry only lists UP instances, so this instance never answers its own warm-up
+    private List<HeavyHitterTracker.Entry> fetchFromPeer() {
+        DiscoveryClient discovery = discoveryClient.getIfAvailable();
+        if (discovery == null) {
+            return List.of();
+        }
+        RestClient http = RestClient.builder()
+                .requestFactory(requestFactory())
+                .build();
+        for (ServiceInstance peer : discovery.getInstances(serviceName)) {
+            try {
+                List<HeavyHitterTracker.Entry> hottest = http.get()
+                        .uri(peer.getUri() + "/item/trending/ids?limit={limit}", limit)
+                        .retrieve()
+                        .body(new ParameterizedTypeReference<List<HeavyHitterTracker.Entry>>() {});
+                if (hottest != null && !hottest.isEmpty()) {
+                    log.info("Warming up with the {} hottest items of {}", hottest.size(), peer.getUri());
+                    return hottest;
+                }
+            } catch (RestClientException ex) {
+                log.debug("Could not read trending items from {}", peer.getUri(), ex);
+            }
+        }
+        return List.of();
+    }
+
+    private JdkClientHttpRequestFactory requestFactory() {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build());
+        factory.setReadTimeout(Duration.ofSeconds(5));
+        return factory;
+    }
+
+    //leaves any other status alone, e.g. an instance taken OUT_OF_SERVICE while it was starting
+    private void markUp() {
+        ApplicationInfoManager infoManager = applicationInfoManager.getIfAvailable();
+        if (infoManager != null && infoManager.getInfo().getStatus() == InstanceInfo.InstanceStatus.STARTING) {
+            infoManager.setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.item_service.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncodedCatalogTests {
+
+	private final EncodedCatalog catalog = new EncodedCatalog(variant("json", null), variant("json", "gzip"),
+			new EncodedCatalog.Variant(ByteBuffer.allocate(1), "\"s\"", "application/x-jackson-smile", null), 1, Instant.now());
+
+	@Test
+	void browsersAndPlainClientsGetJson() {
+		assertThat(catalog.select(null, null)).isSameAs(catalog.json());
+		assertThat(catalog.select("text/html,application/xhtml+xml,*/*;q=0.8", "gzip, deflate, br")).isSameAs(catalog.gzipJson());
+		assertThat(catalog.select("application/json", "gzip;q=0, identity")).isSameAs(catalog.json());
+	}
+
+	@Test
+	void feignClientsGetSmileWhenTheyPreferIt() {
+		assertThat(catalog.select("application/x-jackson-smile, application/json;q=0.9", null)).isSameAs(catalog.smile());
+		assertThat(catalog.select("application/x-jackson-smile;q=0.5, application/json", "gzip")).isSameAs(catalog.gzipJson());
+	}
+
+	@Test
+	void leavesOtherMediaTypesToTheRegularPath() {
+		assertThat(catalog.select("application/xml", null)).isNull();
+		assertThat(catalog.select("not a media type", null)).isNull();
+	}
+
+	private static EncodedCatalog.Variant variant(String type, String encoding) {
+		return new EncodedCatalog.Variant(ByteBuffer.allocate(1), "\"" + type + encoding + "\"", "application/json", encoding);
+	}
+}
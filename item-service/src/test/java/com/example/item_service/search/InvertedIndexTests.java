@@ -0,0 +1,59 @@
+package com.example.item_service.search;
+
+import com.example.item_service.model.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTests {
+
+	private final InvertedIndex index = new InvertedIndex(64, 20_000);
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatches() {
+		index.add(item(1, "Garden hose", "Green hose for the lawn"));
+		index.add(item(2, "Lawn mower", "Cuts grass, pairs well with a garden hose"));
+		index.add(item(3, "Café crème cup", "Porcelain"));
+
+		assertThat(ids(index.search("hose ", 10))).containsExactly(1L, 2L);
+		assertThat(ids(index.search("cafe creme ", 10))).containsExactly(3L);
+	}
+
+	@Test
+	void everyWordMustMatchAndTheLastOneAsAPrefix() {
+		index.add(item(1, "Red running shoe", null));
+		index.add(item(2, "Red shirt", null));
+		index.add(item(3, "Blue shoe", null));
+
+		assertThat(ids(index.search("red sh", 10))).containsExactlyInAnyOrder(1L, 2L);
+		assertThat(ids(index.search("red sho", 10))).containsExactly(1L);
+		assertThat(ids(index.search("red sh ", 10))).isEmpty();
+		assertThat(index.search("green", 10)).isEmpty();
+	}
+
+	@Test
+	void deletesAndUpdatesAreVisibleAcrossCompaction() {
+		for (long id = 1; id <= 3000; id++) {
+			index.add(item(id, "Widget " + id, "A widget"));
+		}
+		for (long id = 1; id <= 2000; id++) {
+			index.remove(id);
+		}
+		index.add(item(2500, "Gadget 2500", "Renamed"));
+
+		assertThat(index.size()).isEqualTo(1000);
+		assertThat(index.search("widget", 5000)).hasSize(999).noneMatch(hit -> hit.itemId() <= 2000 || hit.itemId() == 2500);
+		assertThat(ids(index.search("gadget", 10))).containsExactly(2500L);
+		assertThat(index.itemIdSum()).isEqualTo((2001L + 3000L) * 1000 / 2);
+	}
+
+	private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+		return hits.stream().map(InvertedIndex.Hit::itemId).toList();
+	}
+
+	private static Item item(long id, String name, String description) {
+		return new Item(id, name, 100L, description, 1, 1L);
+	}
+}
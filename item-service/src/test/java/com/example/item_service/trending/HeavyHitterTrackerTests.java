@@ -0,0 +1,93 @@
+package com.example.item_service.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HeavyHitterTrackerTests {
+
+	@Test
+	void keepsHeavyHittersThroughALongTailWithBoundedCounters() {
+		HeavyHitterTracker tracker = new HeavyHitterTracker(32, Duration.ofHours(1));
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			//every fifth read goes to one of three hot items, the rest are spread over 10_000 ids
+			long itemId = i % 5 == 0 ? 1 + (i / 5) % 3 : 100 + random.nextInt(10_000);
+			tracker.record(itemId);
+		}
+
+		List<HeavyHitterTracker.Entry> top = tracker.top(3);
+		assertThat(top).extracting(HeavyHitterTracker.Entry::itemId).containsExactlyInAnyOrder(1L, 2L, 3L);
+		assertThat(top).allSatisfy(entry -> assertThat(entry.score() - entry.error()).isGreaterThan(2_000));
+		assertThat(tracker.size()).isEqualTo(32);
+	}
+
+	@Test
+	void scoresHalveEveryHalfLife() {
+		AtomicLong clock = new AtomicLong();
+		HeavyHitterTracker tracker = new HeavyHitterTracker(8, Duration.ofMinutes(10), clock::get);
+		tracker.record(1, 100);
+
+		clock.addAndGet(Duration.ofMinutes(10).toNanos());
+		tracker.record(2, 60);
+
+		List<HeavyHitterTracker.Entry> top = tracker.top(2);
+		assertThat(top.get(0).itemId()).isEqualTo(2);
+		assertThat(top.get(0).score()).isCloseTo(60, within(1e-6));
+		assertThat(top.get(1).score()).isCloseTo(50, within(1e-6));
+	}
+
+	@Test
+	void rescalingKeepsScoresAfterManyHalfLives() {
+		AtomicLong clock = new AtomicLong();
+		HeavyHitterTracker tracker = new HeavyHitterTracker(8, Duration.ofSeconds(1), clock::get);
+		for (int second = 0; second < 200; second++) {
+			clock.set(Duration.ofSeconds(second).toNanos());
+			tracker.record(7);
+		}
+
+		//one event per half-life converges to a decayed count of 2
+		assertThat(tracker.top(1).get(0).score()).isCloseTo(2, within(1e-6));
+	}
+
+	@Test
+	void untrackedIdsTakeOverTheSmallestCounter() {
+		HeavyHitterTracker tracker = new HeavyHitterTracker(3, Duration.ofMinutes(10), () -> 0);
+		tracker.record(1, 5);
+		tracker.record(2, 3);
+		tracker.record(3, 1);
+
+		tracker.record(4);
+		tracker.record(5);
+
+		assertThat(tracker.top(3)).containsExactlyInAnyOrder(
+				new HeavyHitterTracker.Entry(1, 5, 0),
+				new HeavyHitterTracker.Entry(5, 3, 2),
+				new HeavyHitterTracker.Entry(2, 3, 0));
+	}
+
+	@Test
+	void countsEveryRecordFromConcurrentThreads() throws InterruptedException {
+		HeavyHitterTracker tracker = new HeavyHitterTracker(8, Duration.ofDays(1000));
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 5_000; i++) {
+					tracker.record(i % 4);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(tracker.top(4)).allSatisfy(entry -> assertThat(entry.score()).isCloseTo(5_000, within(1e-3)));
+	}
+}
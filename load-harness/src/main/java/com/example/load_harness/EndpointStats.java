@@ -0,0 +1,51 @@
+package com.example.load_harness;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and outcomes of one endpoint. Latency runs from the moment a request was scheduled to
+ * be sent, not from when it actually went out, so a backed up system is not flattered by
+ * coordinated omission.
+ */
+public class EndpointStats {
+
+    private long[] latencies = new long[1024];
+
+    private int count;
+
+    private int errors;
+
+    private final Map<String, Integer> outcomes = new TreeMap<>();
+
+    public synchronized void record(long latencyNanos, String outcome, boolean error) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (error) {
+            errors++;
+        }
+        outcomes.merge(outcome, 1, Integer::sum);
+    }
+
+    public synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Summary(count, count / seconds, count == 0 ? 0 : 100.0 * errors / count,
+                millis(sorted, 0.50), millis(sorted, 0.90), millis(sorted, 0.99), millis(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1] / 1e6, new TreeMap<>(outcomes));
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    public record Summary(int requests, double throughput, double errorPercent, double p50, double p90,
+                          double p99, double p999, double max, Map<String, Integer> outcomes) {
+    }
+}
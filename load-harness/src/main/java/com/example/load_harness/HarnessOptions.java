@@ -0,0 +1,161 @@
+package com.example.load_harness;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, all given as {@code --name=value}. Workload rates are requests per second,
+ * e.g. {@code --rate.browse=50 --rate.admin=0}.
+ */
+public class HarnessOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public HarnessOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg + ", options look like --name=value");
+            }
+            int equals = arg.indexOf('=');
+            values.put(equals < 0 ? arg.substring(2) : arg.substring(2, equals), equals < 0 ? "true" : arg.substring(equals + 1));
+        }
+    }
+
+    //directory holding the service modules, each already built with mvn package
+    public Path projectDir() {
+        return Path.of(values.getOrDefault("project-dir", ".")).toAbsolutePath().normalize();
+    }
+
+    //drive an already running mesh instead of starting one
+    public boolean startMesh() {
+        return !Boolean.parseBoolean(values.getOrDefault("no-start", "false"));
+    }
+
+    //give every database service a second pool on its H2 database as a replica stand-in, exercising read-only routing
+    public boolean readReplica() {
+        return Boolean.parseBoolean(values.getOrDefault("read-replica", "false"));
+    }
+
+    //run the services on virtual threads for an A/B against a default run; needs the harness itself on Java 21+
+    public boolean virtualThreads() {
+        return Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false"));
+    }
+
+    //instead of the workloads, compare item-service's blocking and reactive reads at each --concurrency level
+    public boolean compareReads() {
+        return Boolean.parseBoolean(values.getOrDefault("compare-reads", "false"));
+    }
+
+    //instead of the workloads, compare GET /item from item-service's catalog snapshot with the per-request serialization
+    public boolean compareCatalog() {
+        return Boolean.parseBoolean(values.getOrDefault("compare-catalog", "false"));
+    }
+
+    //instead of the workloads, drive purchase-service past capacity at each --overload-rates step, see OverloadTest
+    public boolean overloadPurchases() {
+        return Boolean.parseBoolean(values.getOrDefault("overload-purchases", "false"));
+    }
+
+    //checkout writes per second offered in each overload step
+    public List<Integer> overloadRates() {
+        return Arrays.stream(values.getOrDefault("overload-rates", "100,400,1600").split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .toList();
+    }
+
+    //answers slower than this do not count towards goodput
+    public Duration deadline() {
+        return duration("deadline", "500ms");
+    }
+
+    //purchase-service's adaptive concurrency limit, off for a baseline run
+    public boolean concurrencyLimit() {
+        return Boolean.parseBoolean(values.getOrDefault("concurrency-limit", "true"));
+    }
+
+    public List<Integer> concurrency() {
+        return Arrays.stream(values.getOrDefault("concurrency", "16,64,256").split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .toList();
+    }
+
+    public String host() {
+        return values.getOrDefault("host", "localhost");
+    }
+
+    public String serviceJvmOptions() {
+        return values.getOrDefault("service-jvm-opts", "-Xmx192m -XX:+UseSerialGC");
+    }
+
+    public Duration startupTimeout() {
+        return duration("startup-timeout", "5m");
+    }
+
+    public Duration warmup() {
+        return duration("warmup", "15s");
+    }
+
+    public Duration duration() {
+        return duration("duration", "60s");
+    }
+
+    public int users() {
+        return integer("users", 200);
+    }
+
+    public int sellers() {
+        return integer("sellers", 10);
+    }
+
+    public int items() {
+        return integer("items", 300);
+    }
+
+    public int purchasesPerUser() {
+        return integer("purchases-per-user", 3);
+    }
+
+    //requests that may be outstanding at once, arrivals beyond this are counted as dropped
+    public int maxInFlight() {
+        return integer("max-in-flight", 256);
+    }
+
+    public Map<Workload, Double> rates() {
+        Map<Workload, Double> rates = new EnumMap<>(Workload.class);
+        for (Workload workload : Workload.values()) {
+            String rate = values.get("rate." + workload.name().toLowerCase());
+            rates.put(workload, rate == null ? workload.defaultRate() : Double.parseDouble(rate));
+        }
+        return rates;
+    }
+
+    public Path reportFile() {
+        return Path.of(values.getOrDefault("report", "load-report.json"));
+    }
+
+    private int integer(String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private Duration duration(String name, String defaultValue) {
+        String value = values.getOrDefault(name, defaultValue).trim().toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Cannot read duration " + value + " for --" + name);
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.load_harness;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open workload: each workload sends at its target rate whatever the response times are, the way
+ * independent users would. Arrivals that find {@code max-in-flight} requests outstanding are
+ * recorded as dropped instead of being delayed.
+ */
+public class LoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final String baseUrl;
+
+    private final SeedData seed;
+
+    private final int maxInFlight;
+
+    private final Semaphore inFlight;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "load-driver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HttpClient http;
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public LoadDriver(String baseUrl, SeedData seed, int maxInFlight) {
+        this.baseUrl = baseUrl;
+        this.seed = seed;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(executor)
+                .build();
+    }
+
+    //runs the warmup and then the measured window, only the latter is recorded
+    public Map<String, EndpointStats> run(Map<Workload, Double> rates, Duration warmup, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        List<Thread> schedulers = new ArrayList<>();
+        long seedValue = 42;
+        for (Map.Entry<Workload, Double> rate : rates.entrySet()) {
+            if (rate.getValue() <= 0) {
+                continue;
+            }
+            Random random = new Random(seedValue++);
+            Thread scheduler = new Thread(() -> schedule(rate.getKey(), rate.getValue(), random, start, measureFrom, end),
+                    "schedule-" + rate.getKey().name().toLowerCase());
+            scheduler.start();
+            schedulers.add(scheduler);
+        }
+        for (Thread scheduler : schedulers) {
+            scheduler.join();
+        }
+        //let the last requests finish, they time out after REQUEST_TIMEOUT anyway
+        if (inFlight.tryAcquire(maxInFlight, REQUEST_TIMEOUT.toSeconds() + 1, TimeUnit.SECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        executor.shutdownNow();
+        return stats;
+    }
+
+    private void schedule(Workload workload, double rate, Random random, long start, long measureFrom, long end) {
+        double intervalNanos = 1e9 / rate;
+        for (long n = 0; ; n++) {
+            long intended = start + (long) (n * intervalNanos);
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Workload.Call call = workload.next(seed, random);
+            boolean measured = intended >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    statsFor(call).record(System.nanoTime() - intended, "dropped", true);
+                }
+                continue;
+            }
+            send(call, intended, measured);
+        }
+    }
+
+    private void send(Workload.Call call, long intended, boolean measured) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + call.path()))
+                .timeout(REQUEST_TIMEOUT);
+        if (call.body() == null) {
+            request.GET();
+        } else {
+            request.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(call.body()));
+        }
+        http.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            inFlight.release();
+            if (!measured) {
+                return;
+            }
+            long latency = System.nanoTime() - intended;
+            if (error != null) {
+                Throwable cause = error.getCause() == null ? error : error.getCause();
+                statsFor(call).record(latency, cause.getClass().getSimpleName(), true);
+            } else {
+                statsFor(call).record(latency, String.valueOf(response.statusCode()), response.statusCode() >= 400);
+            }
+        });
+    }
+
+    private EndpointStats statsFor(Workload.Call call) {
+        return stats.computeIfAbsent(call.endpoint(), endpoint -> new EndpointStats());
+    }
+}
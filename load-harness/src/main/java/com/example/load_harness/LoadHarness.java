@@ -0,0 +1,120 @@
+package com.example.load_harness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Boots the whole mesh locally, seeds it and drives the browse, purchase, history and admin
+ * workloads through the gateway at the configured rates, then prints and writes per endpoint
+ * throughput, error rate and latency percentiles.
+ *
+ * <pre>
+ * (cd each service module &amp;&amp; mvn package -DskipTests)
+ * java -jar load-harness/target/load-harness.jar --duration=2m --rate.browse=100 --rate.purchase=10
+ * java -jar load-harness/target/load-harness.jar --compare-reads --concurrency=16,64,256 --duration=30s
+ * java -jar load-harness/target/load-harness.jar --compare-catalog --items=5000 --concurrency=8,64 --duration=30s
+ * java -jar load-harness/target/load-harness.jar --overload-purchases --overload-rates=100,400,1600 --max-in-flight=1000
+ * java -jar load-harness/target/load-harness.jar --overload-purchases --concurrency-limit=false ...   (unprotected baseline)
+ * java -jar load-harness/target/load-harness.jar --virtual-threads --rate.browse=400 --max-in-flight=2000   (Java 21+)
+ * </pre>
+ */
+public class LoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        HarnessOptions options = new HarnessOptions(args);
+        Mesh mesh = new Mesh(options);
+        Runtime.getRuntime().addShutdownHook(new Thread(mesh::close));
+        try (mesh) {
+            if (options.startMesh()) {
+                mesh.start();
+            }
+            if (options.overloadPurchases()) {
+                //purchase-service takes any user and item ids, there is nothing to seed
+                List<OverloadTest.Result> results = new OverloadTest(mesh.url(Mesh.PURCHASE), options.items(),
+                        options.deadline(), options.maxInFlight())
+                        .run(options.overloadRates(), options.warmup(), options.duration());
+                reportOverload(results, options);
+                return;
+            }
+            SeedData seed = new Seeder(mesh).seed(options);
+            if (options.compareReads() || options.compareCatalog()) {
+                List<ReadComparison.Target> targets = options.compareReads()
+                        ? ReadComparison.itemReads(seed) : ReadComparison.catalogReads();
+                List<ReadComparison.Result> results = new ReadComparison(mesh.url(Mesh.ITEM), targets)
+                        .run(options.concurrency(), options.warmup(), options.duration());
+                report(results, options);
+                return;
+            }
+            Map<Workload, Double> rates = options.rates();
+            System.out.printf("Driving %s for %ds after %ds warmup%n", rates, options.duration().toSeconds(), options.warmup().toSeconds());
+            Map<String, EndpointStats> stats = new LoadDriver(mesh.url(Mesh.GATEWAY), seed, options.maxInFlight())
+                    .run(rates, options.warmup(), options.duration());
+            report(new TreeMap<>(stats), options);
+        }
+    }
+
+    private static void report(List<ReadComparison.Result> results, HarnessOptions options) throws Exception {
+        System.out.printf("%n%-28s %6s %8s %7s %9s %9s %8s %8s %9s %12s%n",
+                "endpoint", "conc", "req/s", "errors", "p50 ms", "p99 ms", "threads", "peak", "heap MB", "KB/conn");
+        for (ReadComparison.Result result : results) {
+            EndpointStats.Summary summary = result.summary();
+            System.out.printf("%-28s %6d %8.1f %6.2f%% %9.1f %9.1f %8.0f %8.0f %9.1f %12.1f%n",
+                    result.endpoint(), result.concurrency(), summary.throughput(), summary.errorPercent(), summary.p50(),
+                    summary.p99(), result.baselineThreads(), result.peakThreads(), result.averageHeapMb(), result.heapPerConnectionKb());
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", options.duration().toMillis() / 1000.0);
+        report.put("virtualThreads", options.virtualThreads());
+        report.put("readComparison", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.reportFile().toFile(), report);
+        System.out.println("\nReport written to " + options.reportFile().toAbsolutePath());
+    }
+
+    private static void reportOverload(List<OverloadTest.Result> results, HarnessOptions options) throws Exception {
+        System.out.printf("%n%-26s %8s %8s %9s %8s %8s %9s %9s %7s %7s%n",
+                "endpoint", "offered", "served", "goodput", "shed/s", "fail/s", "p50 ms", "p99 ms", "limit", "min");
+        for (OverloadTest.Result result : results) {
+            System.out.printf("%-26s %8.1f %8.1f %9.1f %8.1f %8.1f %9.1f %9.1f %7s %7s%n",
+                    result.endpoint(), result.offered(), result.served(), result.goodput(), result.shed(), result.failed(),
+                    result.p50(), result.p99(), limit(result.averageLimit()), limit(result.minLimit()));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", options.duration().toMillis() / 1000.0);
+        report.put("deadlineMillis", options.deadline().toMillis());
+        report.put("concurrencyLimit", options.concurrencyLimit());
+        report.put("overload", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.reportFile().toFile(), report);
+        System.out.println("\nReport written to " + options.reportFile().toAbsolutePath());
+    }
+
+    private static String limit(double value) {
+        return value < 0 ? "-" : String.format("%.0f", value);
+    }
+
+    private static void report(Map<String, EndpointStats> stats, HarnessOptions options) throws Exception {
+        double seconds = options.duration().toMillis() / 1000.0;
+        Map<String, EndpointStats.Summary> summaries = new LinkedHashMap<>();
+        stats.forEach((endpoint, endpointStats) -> summaries.put(endpoint, endpointStats.summarize(seconds)));
+
+        System.out.printf("%n%-26s %8s %8s %7s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "outcomes");
+        summaries.forEach((endpoint, summary) -> System.out.printf("%-26s %8d %8.1f %6.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f  %s%n",
+                endpoint, summary.requests(), summary.throughput(), summary.errorPercent(), summary.p50(), summary.p90(),
+                summary.p99(), summary.p999(), summary.max(), summary.outcomes()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", seconds);
+        report.put("rates", options.rates());
+        report.put("virtualThreads", options.virtualThreads());
+        report.put("endpoints", summaries);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.reportFile().toFile(), report);
+        System.out.println("\nReport written to " + options.reportFile().toAbsolutePath());
+    }
+}
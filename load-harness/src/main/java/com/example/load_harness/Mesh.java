@@ -0,0 +1,264 @@
+package com.example.load_harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Starts the registry, the services and the gateway as separate JVMs from their boot jars, each on
+ * its own in-memory H2 database instead of MySQL. The H2 JDBC and R2DBC drivers are added through
+ * {@code loader.path}, so the jars run unchanged.
+ */
+public class Mesh implements AutoCloseable {
+
+    record Service(String name, int port, boolean database) {
+    }
+
+    static final Service REGISTRY = new Service("service-registry", 8761, false);
+
+    static final Service ADMIN = new Service("admin-service", 8080, true);
+
+    static final Service USER = new Service("user-service", 8081, true);
+
+    static final Service SELLER = new Service("seller-service", 8082, true);
+
+    static final Service ITEM = new Service("item-service", 8083, true);
+
+    static final Service PURCHASE = new Service("purchase-service", 8084, true);
+
+    static final Service GATEWAY = new Service("api-gateway", 8085, false);
+
+    private static final List<Service> SERVICES = List.of(ITEM, PURCHASE, USER, SELLER, ADMIN);
+
+    private static final String LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+
+    private final HarnessOptions options;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Process> processes = new ArrayList<>();
+
+    private final Path logDir;
+
+    public Mesh(HarnessOptions options) {
+        this.options = options;
+        this.logDir = Path.of("logs").toAbsolutePath();
+    }
+
+    public String url(Service service) {
+        return "http://" + options.host() + ":" + service.port();
+    }
+
+    public void start() throws IOException, InterruptedException {
+        Files.createDirectories(logDir);
+        if (options.virtualThreads() && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("--virtual-threads needs Java 21+, the services run on the harness JVM (Java "
+                    + Runtime.version().feature() + ")");
+        }
+        Path drivers = driverDir();
+        long deadline = System.nanoTime() + options.startupTimeout().toNanos();
+
+        launch(REGISTRY, drivers);
+        await("registry", deadline, () -> status(url(REGISTRY) + "/eureka/apps") == 200);
+        for (Service service : SERVICES) {
+            launch(service, drivers);
+        }
+        launch(GATEWAY, drivers);
+
+        Set<String> expected = new HashSet<>();
+        SERVICES.forEach(service -> expected.add(service.name().toUpperCase(Locale.ROOT)));
+        expected.add(GATEWAY.name().toUpperCase(Locale.ROOT));
+        await("services to register with eureka", deadline, () -> registered().containsAll(expected));
+        //the gateway only routes once its load balancer has seen the instances
+        await("gateway routes", deadline, () -> Stream.of("/item/test", "/user/test", "/seller/test", "/admin", "/purchase/all")
+                .allMatch(path -> {
+                    int status = status(url(GATEWAY) + path);
+                    return status > 0 && status < 500;
+                }));
+        System.out.println("Mesh is up, service logs in " + logDir);
+    }
+
+    private void launch(Service service, Path drivers) throws IOException {
+        Path jar = bootJar(service);
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(options.serviceJvmOptions().trim().split("\\s+")));
+        command.add("-Dloader.path=" + drivers);
+        command.add("-cp");
+        command.add(jar.toString());
+        command.add(LAUNCHER);
+        command.add("--server.port=" + service.port());
+        command.add("--eureka.client.serviceUrl.defaultZone=" + url(REGISTRY) + "/eureka/");
+        //pick up new instances within seconds rather than the default 30s
+        command.add("--eureka.client.registry-fetch-interval-seconds=5");
+        command.add("--eureka.instance.lease-renewal-interval-in-seconds=5");
+        command.add("--spring.cloud.loadbalancer.cache.ttl=5s");
+        if (options.virtualThreads()) {
+            command.add("--spring.threads.virtual.enabled=true");
+        }
+        //every virtual user arrives from the harness's own address, so only the route buckets can apply
+        if (service.equals(GATEWAY)) {
+            command.add("--gateway.rate-limit.defaults.client-rate=0");
+            command.add("--gateway.rate-limit.routes.user-service.client-rate=0");
+            command.add("--gateway.rate-limit.routes.item-service.client-rate=0");
+        }
+        if (service.equals(PURCHASE)) {
+            command.add("--ims.concurrency-limit.enabled=" + options.concurrencyLimit());
+        }
+        if (service.database()) {
+            String database = "jdbc:h2:mem:" + service.name() + ";DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER,VALUE";
+            command.add("--spring.datasource.url=" + database);
+            command.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            command.add("--spring.datasource.username=sa");
+            command.add("--spring.datasource.password=");
+            command.add("--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect");
+            command.add("--spring.jpa.hibernate.ddl-auto=create-drop");
+            if (options.readReplica()) {
+                command.add("--ims.datasource.replica.url=" + database);
+                command.add("--ims.datasource.replica.driver-class-name=org.h2.Driver");
+            }
+            //r2dbc-h2 opens the same in-memory database by name, so reactive reads see what JPA wrote
+            if (service.equals(ITEM)) {
+                command.add("--spring.r2dbc.url=r2dbc:h2:mem:///" + service.name() + "?options=DB_CLOSE_DELAY=-1;MODE=MySQL");
+                command.add("--spring.r2dbc.username=sa");
+                command.add("--spring.r2dbc.password=");
+            }
+        }
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logDir.resolve(service.name() + ".log").toFile())
+                .start();
+        processes.add(process);
+        System.out.printf("Started %s on port %d (pid %d)%n", service.name(), service.port(), process.pid());
+    }
+
+    private Path bootJar(Service service) throws IOException {
+        Path target = options.projectDir().resolve(service.name()).resolve("target");
+        if (Files.isDirectory(target)) {
+            try (Stream<Path> jars = Files.list(target)) {
+                for (Path jar : jars.filter(path -> path.toString().endsWith(".jar")).toList()) {
+                    try (JarFile file = new JarFile(jar.toFile())) {
+                        if (file.getManifest() != null && file.getManifest().getMainAttributes().getValue("Spring-Boot-Version") != null) {
+                            return jar;
+                        }
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("No boot jar in " + target + ", run mvn package -DskipTests in " + service.name() + " first");
+    }
+
+    //copied to target/lib by the build, next to both the harness jar and target/classes; loader.path takes every jar in it
+    private static Path driverDir() {
+        Path lib;
+        try {
+            lib = Path.of(Mesh.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getParent().resolve("lib");
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String driver : List.of("h2.jar", "r2dbc-h2.jar")) {
+            if (!Files.exists(lib.resolve(driver))) {
+                throw new IllegalStateException("Missing " + lib.resolve(driver) + ", build the harness with mvn package");
+            }
+        }
+        return lib;
+    }
+
+    private Set<String> registered() {
+        Set<String> names = new HashSet<>();
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(url(REGISTRY) + "/eureka/apps"))
+                    .header("Accept", "application/json").timeout(Duration.ofSeconds(5)).build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode applications = objectMapper.readTree(response.body()).path("applications").path("application");
+            for (JsonNode application : applications) {
+                for (JsonNode instance : application.path("instance")) {
+                    if ("UP".equals(instance.path("status").asText())) {
+                        names.add(application.path("name").asText());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            //registry not answering yet
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return names;
+    }
+
+    private int status(String url) {
+        try {
+            return http.send(HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private interface Check {
+        boolean ready();
+    }
+
+    private void await(String what, long deadline, Check check) throws InterruptedException {
+        System.out.println("Waiting for " + what + "...");
+        while (!check.ready()) {
+            for (Process process : processes) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("A service exited during startup (exit code " + process.exitValue()
+                            + "), see the logs in " + logDir);
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Timed out waiting for " + what + ", see the logs in " + logDir);
+            }
+            Thread.sleep(1000);
+        }
+    }
+
+    //registry last so the others can still deregister
+    @Override
+    public void close() {
+        if (processes.isEmpty()) {
+            return;
+        }
+        List<Process> services = processes.subList(1, processes.size());
+        services.forEach(Process::destroy);
+        services.forEach(Mesh::awaitExit);
+        awaitExit(processes.get(0));
+        processes.clear();
+    }
+
+    private static void awaitExit(Process process) {
+        process.destroy();
+        try {
+            if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
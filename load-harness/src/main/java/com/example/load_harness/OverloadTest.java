@@ -0,0 +1,226 @@
+package com.example.load_harness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Pushes purchase-service past its capacity with open-loop arrivals at each offered rate: checkout
+ * writes at the rate itself, purchase history reads at a quarter and sales summaries at an eighth of
+ * it. Goodput counts the answers below 500 that arrived within the deadline, the rest is split into late
+ * answers, shed requests (503) and failures. The service's concurrency limit is sampled meanwhile,
+ * run once more with {@code --concurrency-limit=false} for the unprotected baseline.
+ */
+public class OverloadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    //wide enough that no user's history grows large during a run
+    private static final int USERS = 10_000;
+
+    private final String baseUrl;
+
+    private final int items;
+
+    private final Duration deadline;
+
+    private final int maxInFlight;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient metricsHttp = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    public OverloadTest(String baseUrl, int items, Duration deadline, int maxInFlight) {
+        this.baseUrl = baseUrl;
+        this.items = items;
+        this.deadline = deadline;
+        this.maxInFlight = maxInFlight;
+    }
+
+    private List<Route> routes() {
+        return List.of(
+                new Route("POST /purchase/batch", 1.0, random -> {
+                    int lines = 1 + random.nextInt(3);
+                    StringBuilder body = new StringBuilder("[");
+                    long user = 1 + random.nextInt(USERS);
+                    for (int i = 0; i < lines; i++) {
+                        body.append(i == 0 ? "" : ",").append("{\"userId\":").append(user)
+                                .append(",\"itemId\":").append(1 + random.nextInt(items)).append(",\"quantity\":1}");
+                    }
+                    return HttpRequest.newBuilder(URI.create(baseUrl + "/purchase/batch"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.append("]").toString()));
+                }),
+                new Route("GET /purchase/user/{id}", 0.25, random -> HttpRequest.newBuilder(
+                        URI.create(baseUrl + "/purchase/user/" + (1 + random.nextInt(USERS)))).GET()),
+                new Route("POST /purchase/summary", 0.125, random -> {
+                    StringBuilder body = new StringBuilder("[");
+                    for (int i = 0; i < 20; i++) {
+                        body.append(i == 0 ? "" : ",").append(1 + random.nextInt(items));
+                    }
+                    return HttpRequest.newBuilder(URI.create(baseUrl + "/purchase/summary"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.append("]").toString()));
+                }));
+    }
+
+    public List<Result> run(List<Integer> offeredRates, Duration warmup, Duration duration) throws InterruptedException {
+        List<Result> results = new ArrayList<>();
+        for (int rate : offeredRates) {
+            System.out.printf("Offering %d checkout writes/s to purchase-service...%n", rate);
+            //let the previous step drain
+            Thread.sleep(3000);
+            results.addAll(step(rate, warmup, duration));
+        }
+        return results;
+    }
+
+    private List<Result> step(int rate, Duration warmup, Duration duration) throws InterruptedException {
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "overload-test");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(executor)
+                .build();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        Map<Route, EndpointStats> all = new LinkedHashMap<>();
+        Map<Route, EndpointStats> served = new LinkedHashMap<>();
+        List<Thread> schedulers = new ArrayList<>();
+        long seed = 7;
+        for (Route route : routes()) {
+            all.put(route, new EndpointStats());
+            served.put(route, new EndpointStats());
+            Random random = new Random(seed++);
+            Thread scheduler = new Thread(() -> schedule(http, inFlight, route, rate * route.share(), random, start, measureFrom, end,
+                    all.get(route), served.get(route)), "overload-" + route.label());
+            scheduler.start();
+            schedulers.add(scheduler);
+        }
+
+        double limitTotal = 0;
+        int limitSamples = 0;
+        double limitMin = Double.MAX_VALUE;
+        while (System.nanoTime() < end) {
+            Thread.sleep(500);
+            if (System.nanoTime() < measureFrom) {
+                continue;
+            }
+            double limit = metric("http.server.concurrency.limit");
+            if (limit >= 0) {
+                limitTotal += limit;
+                limitSamples++;
+                limitMin = Math.min(limitMin, limit);
+            }
+        }
+        for (Thread scheduler : schedulers) {
+            scheduler.join();
+        }
+        if (inFlight.tryAcquire(maxInFlight, REQUEST_TIMEOUT.toSeconds() + 1, TimeUnit.SECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        executor.shutdownNow();
+
+        double seconds = duration.toMillis() / 1000.0;
+        List<Result> results = new ArrayList<>();
+        for (Route route : all.keySet()) {
+            EndpointStats.Summary summary = all.get(route).summarize(seconds);
+            EndpointStats.Summary ok = served.get(route).summarize(seconds);
+            Map<String, Integer> outcomes = summary.outcomes();
+            results.add(new Result(route.label(), rate * route.share(), ok.throughput(),
+                    outcomes.getOrDefault("ok", 0) / seconds, outcomes.getOrDefault("shed", 0) / seconds,
+                    (summary.requests() - ok.requests() - outcomes.getOrDefault("shed", 0)) / seconds,
+                    ok.p50(), ok.p99(), limitSamples == 0 ? -1 : limitTotal / limitSamples,
+                    limitSamples == 0 ? -1 : limitMin, outcomes));
+        }
+        return results;
+    }
+
+    private void schedule(HttpClient http, Semaphore inFlight, Route route, double rate, Random random,
+                          long start, long measureFrom, long end, EndpointStats all, EndpointStats served) {
+        double intervalNanos = 1e9 / rate;
+        for (long n = 0; ; n++) {
+            long intended = start + (long) (n * intervalNanos);
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    all.record(System.nanoTime() - intended, "dropped", true);
+                }
+                continue;
+            }
+            HttpRequest request = route.request().apply(random).timeout(REQUEST_TIMEOUT).build();
+            http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                inFlight.release();
+                if (!measured) {
+                    return;
+                }
+                long latency = System.nanoTime() - intended;
+                if (error != null) {
+                    Throwable cause = error.getCause() == null ? error : error.getCause();
+                    all.record(latency, cause.getClass().getSimpleName(), true);
+                } else if (response.statusCode() < 500) {
+                    //a 404 for a user without purchases is as much an answer as a 200
+                    boolean inTime = latency <= deadline.toNanos();
+                    all.record(latency, inTime ? "ok" : "late", !inTime);
+                    served.record(latency, "ok", false);
+                } else {
+                    all.record(latency, response.statusCode() == 503 ? "shed" : String.valueOf(response.statusCode()), true);
+                }
+            });
+        }
+    }
+
+    //-1 when the metric cannot be read, e.g. with the limiter switched off
+    private double metric(String name) {
+        try {
+            HttpResponse<String> response = metricsHttp.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                    .timeout(Duration.ofSeconds(2)).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return -1;
+            }
+            return objectMapper.readTree(response.body()).path("measurements").path(0).path("value").asDouble(-1);
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private record Route(String label, double share, Function<Random, HttpRequest.Builder> request) {
+    }
+
+    public record Result(String endpoint, double offered, double served, double goodput, double shed, double failed,
+                         double p50, double p99, double averageLimit, double minLimit, Map<String, Integer> outcomes) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.load_harness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares item-service read paths straight against the service, bypassing the gateway and its rate
+ * limits. For each concurrency level a closed loop keeps that many requests outstanding, each on its
+ * own connection, on every {@link Target} in turn, while item-service's live threads and used heap are
+ * sampled from its metrics endpoint. Heap per connection is the growth over the idle baseline divided
+ * by the concurrency, GC makes it a rough figure.
+ */
+public class ReadComparison {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(500);
+
+    private final String baseUrl;
+
+    private final List<Target> targets;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient metricsHttp = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    public ReadComparison(String baseUrl, List<Target> targets) {
+        this.baseUrl = baseUrl;
+        this.targets = targets;
+    }
+
+    //blocking against reactive single item reads
+    static List<Target> itemReads(SeedData seed) {
+        return List.of(
+                new Target("GET /item/{id}", random -> "/item/" + seed.randomItem(random), Map.of()),
+                new Target("GET /item/reactive/{id}", random -> "/item/reactive/" + seed.randomItem(random), Map.of()));
+    }
+
+    //the whole catalog from the pre-encoded snapshot, plain and gzipped, against serializing it per request
+    static List<Target> catalogReads() {
+        return List.of(
+                new Target("GET /item snapshot", random -> "/item", Map.of()),
+                new Target("GET /item snapshot gzip", random -> "/item", Map.of("Accept-Encoding", "gzip")),
+                new Target("GET /item no-cache", random -> "/item", Map.of("Cache-Control", "no-cache")));
+    }
+
+    public List<Result> run(List<Integer> concurrencyLevels, Duration warmup, Duration duration) throws InterruptedException {
+        List<Result> results = new ArrayList<>();
+        for (int concurrency : concurrencyLevels) {
+            for (Target target : targets) {
+                results.add(step(target, concurrency, warmup, duration));
+            }
+        }
+        return results;
+    }
+
+    private Result step(Target target, int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        String label = target.label();
+        System.out.printf("%s with %d concurrent requests...%n", label, concurrency);
+        //let the previous step's connections close and its garbage settle before taking the baseline
+        Thread.sleep(2000);
+        double baselineThreads = metric("jvm.threads.live");
+        double baselineHeap = metric("jvm.memory.used?tag=area:heap");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "read-comparison");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //a fresh client per step so every step opens its own connections
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(executor)
+                .build();
+        EndpointStats stats = new EndpointStats();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            loop(http, target, stats, measureFrom, end, done);
+        }
+
+        double peakThreads = baselineThreads;
+        double heapTotal = 0;
+        int heapSamples = 0;
+        while (!done.await(SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)) {
+            if (System.nanoTime() < measureFrom) {
+                continue;
+            }
+            peakThreads = Math.max(peakThreads, metric("jvm.threads.live"));
+            double heap = metric("jvm.memory.used?tag=area:heap");
+            if (heap > 0) {
+                heapTotal += heap;
+                heapSamples++;
+            }
+        }
+        executor.shutdownNow();
+        double averageHeap = heapSamples == 0 ? baselineHeap : heapTotal / heapSamples;
+        return new Result(label, concurrency, stats.summarize(duration.toMillis() / 1000.0), baselineThreads, peakThreads,
+                averageHeap / (1024 * 1024), Math.max(0, averageHeap - baselineHeap) / concurrency / 1024);
+    }
+
+    //one virtual client: the next request goes out as soon as the previous one completes
+    private void loop(HttpClient http, Target target, EndpointStats stats, long measureFrom, long end, CountDownLatch done) {
+        long start = System.nanoTime();
+        if (start >= end) {
+            done.countDown();
+            return;
+        }
+        Random random = ThreadLocalRandom.current();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + target.path().apply(random)))
+                .timeout(REQUEST_TIMEOUT)
+                .GET();
+        target.headers().forEach(request::header);
+        http.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (start >= measureFrom) {
+                long latency = System.nanoTime() - start;
+                if (error != null) {
+                    Throwable cause = error.getCause() == null ? error : error.getCause();
+                    stats.record(latency, cause.getClass().getSimpleName(), true);
+                } else {
+                    stats.record(latency, String.valueOf(response.statusCode()), response.statusCode() >= 400);
+                }
+            }
+            loop(http, target, stats, measureFrom, end, done);
+        });
+    }
+
+    //-1 when the metric cannot be read, the sample is then left out
+    private double metric(String name) {
+        try {
+            HttpResponse<String> response = metricsHttp.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                    .timeout(Duration.ofSeconds(5)).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return -1;
+            }
+            return objectMapper.readTree(response.body()).path("measurements").path(0).path("value").asDouble(-1);
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    public record Target(String label, Function<Random, String> path, Map<String, String> headers) {
+    }
+
+    public record Result(String endpoint, int concurrency, EndpointStats.Summary summary, double baselineThreads,
+                         double peakThreads, double averageHeapMb, double heapPerConnectionKb) {
+    }
+}
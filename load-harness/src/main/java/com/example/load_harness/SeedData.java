@@ -0,0 +1,17 @@
+package com.example.load_harness;
+
+import java.util.Random;
+
+/**
+ * What the seeding step created. Ids come from fresh identity columns, so they run from 1.
+ */
+public record SeedData(int users, int sellers, int items) {
+
+    long randomUser(Random random) {
+        return 1 + random.nextInt(users);
+    }
+
+    long randomItem(Random random) {
+        return 1 + random.nextInt(items);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.load_harness;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Creates sellers, items, users and some purchase history by calling the services directly, so the
+ * gateway rate limits do not slow the setup down.
+ */
+public class Seeder {
+
+    private final Mesh mesh;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    public Seeder(Mesh mesh) {
+        this.mesh = mesh;
+    }
+
+    public SeedData seed(HarnessOptions options) throws IOException, InterruptedException {
+        for (int i = 1; i <= options.sellers(); i++) {
+            post(mesh.url(Mesh.SELLER) + "/seller", "{\"sellerName\":\"Seller " + i + "\",\"email\":\"seller" + i
+                    + "@example.com\",\"password\":\"secret\",\"role\":\"SELLER\"}");
+        }
+        for (int i = 1; i <= options.items(); i++) {
+            int seller = 1 + i % options.sellers();
+            post(mesh.url(Mesh.SELLER) + "/seller/" + seller + "/item", "{\"itemName\":\"Item " + i + "\",\"price\":"
+                    + (1_000 + i * 37) + ",\"description\":\"Description of item " + i + "\",\"quantity\":1000}");
+        }
+        for (int i = 1; i <= options.users(); i++) {
+            post(mesh.url(Mesh.USER) + "/user", "{\"userName\":\"User " + i + "\",\"email\":\"user" + i
+                    + "@example.com\",\"password\":\"secret\",\"role\":\"USER\"}");
+            for (int p = 0; p < options.purchasesPerUser(); p++) {
+                int item = 1 + (i * 7 + p * 13) % options.items();
+                post(mesh.url(Mesh.PURCHASE) + "/purchase", "{\"userId\":" + i + ",\"itemId\":" + item + ",\"quantity\":1}");
+            }
+        }
+        System.out.printf("Seeded %d sellers, %d items, %d users with %d purchases each%n",
+                options.sellers(), options.items(), options.users(), options.purchasesPerUser());
+        return new SeedData(options.users(), options.sellers(), options.items());
+    }
+
+    private void post(String url, String json) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Seeding failed: POST " + url + " answered " + response.statusCode() + " " + response.body());
+        }
+    }
+}
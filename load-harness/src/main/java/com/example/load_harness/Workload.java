@@ -0,0 +1,75 @@
+package com.example.load_harness;
+
+import java.util.Random;
+
+/**
+ * The scripted traffic mixes. Each arrival picks one call; the label groups calls per endpoint in
+ * the report.
+ */
+public enum Workload {
+
+    BROWSE(40) {
+        @Override
+        Call next(SeedData seed, Random random) {
+            int roll = random.nextInt(10);
+            if (roll < 2) {
+                return Call.get("GET /item", "/item");
+            }
+            if (roll < 4) {
+                return Call.get("GET /user/items", "/user/items");
+            }
+            return Call.get("GET /item/{id}", "/item/" + seed.randomItem(random));
+        }
+    },
+
+    PURCHASE(5) {
+        @Override
+        Call next(SeedData seed, Random random) {
+            long user = seed.randomUser(random);
+            return Call.post("POST /user/{id}/purchase", "/user/" + user + "/purchase",
+                    "{\"itemId\":" + seed.randomItem(random) + ",\"quantity\":1}");
+        }
+    },
+
+    HISTORY(10) {
+        @Override
+        Call next(SeedData seed, Random random) {
+            long user = seed.randomUser(random);
+            return Call.get("GET /user/{id}/purchase", "/user/" + user + "/purchase");
+        }
+    },
+
+    ADMIN(2) {
+        @Override
+        Call next(SeedData seed, Random random) {
+            return switch (random.nextInt(3)) {
+                case 0 -> Call.get("GET /admin/user", "/admin/user?afterId=0&size=50");
+                case 1 -> Call.get("GET /admin/seller", "/admin/seller?afterId=0&size=50");
+                default -> Call.get("GET /admin/item", "/admin/item");
+            };
+        }
+    };
+
+    private final double defaultRate;
+
+    Workload(double defaultRate) {
+        this.defaultRate = defaultRate;
+    }
+
+    public double defaultRate() {
+        return defaultRate;
+    }
+
+    abstract Call next(SeedData seed, Random random);
+
+    record Call(String endpoint, String method, String path, String body) {
+
+        static Call get(String endpoint, String path) {
+            return new Call(endpoint, "GET", path, null);
+        }
+
+        static Call post(String endpoint, String path, String body) {
+            return new Call(endpoint, "POST", path, body);
+        }
+    }
+}
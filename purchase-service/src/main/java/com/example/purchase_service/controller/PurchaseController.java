@@ -1,12 +1,15 @@
 package com.example.purchase_service.controller;
 
 
+import com.example.purchase_service.model.ItemSalesSummary;
 import com.example.purchase_service.model.Purchase;
 import com.example.purchase_service.repository.PurchaseRepository;
+import com.example.purchase_service.service.CheckoutAbandonedException;
 import com.example.purchase_service.service.PurchaseService;
 import jakarta.ws.rs.Path;
 import org.apache.coyote.Response;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +21,8 @@ import java.util.Map;
 @RequestMapping("/purchase")
 public class PurchaseController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     @Autowired
     PurchaseService purchaseService;
 
@@ -36,6 +41,39 @@ public class PurchaseController {
         return new ResponseEntity<>("Purchase saved successfully!", HttpStatus.OK);
     }
 
+    //saved purchases with their ids, in request order; with an Idempotency-Key a repeat returns the first call's
+    //purchases, and 409 means the checkout was abandoned
+    @PostMapping("/batch")
+    public ResponseEntity<?> createPurchases(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String checkoutId,
+                                             @RequestBody List<Purchase> purchases){
+        purchases.forEach(purchase -> purchase.setPurchaseId(null));
+        if(checkoutId==null){
+            return ResponseEntity.ok(purchaseService.addPurchases(purchases));
+        }
+        try {
+            try {
+                return ResponseEntity.ok(purchaseService.addPurchases(checkoutId, purchases));
+            } catch (DataIntegrityViolationException ex) {
+                //a concurrent call took the same checkout id first, this one rolled back and answers as a repeat
+                purchases.forEach(purchase -> purchase.setPurchaseId(null));
+                return ResponseEntity.ok(purchaseService.addPurchases(checkoutId, purchases));
+            }
+        } catch (CheckoutAbandonedException ex) {
+            return new ResponseEntity<>(Map.of("message", "Checkout was abandoned"), HttpStatus.CONFLICT);
+        }
+    }
+
+    //called by a checkout that could not tell whether its batch was recorded, before it returns the stock
+    @PostMapping("/checkout/{checkoutId}/abandon")
+    public List<Purchase> abandonCheckout(@PathVariable String checkoutId){
+        try {
+            return purchaseService.abandonCheckout(checkoutId);
+        } catch (DataIntegrityViolationException ex) {
+            //the batch recorded the checkout id first
+            return purchaseService.abandonCheckout(checkoutId);
+        }
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<Purchase>> getAllPurchases(){
         List<Purchase> list = purchaseService.getAllPurchases();
@@ -45,4 +83,9 @@ public class PurchaseController {
         return new ResponseEntity<>(list, HttpStatus.OK);
     }
 
+    @PostMapping("/summary")
+    public List<ItemSalesSummary> getSalesSummary(@RequestBody List<Long> itemIds){
+        return purchaseService.getSalesSummary(itemIds);
+    }
+
 }
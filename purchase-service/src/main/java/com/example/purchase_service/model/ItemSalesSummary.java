@@ -0,0 +1,9 @@
+package com.example.purchase_service.model;
+
+public interface ItemSalesSummary {
+
+    Long getItemId();
+
+    Long getUnitsSold();
+
+}
@@ -1,10 +1,12 @@
 package com.example.purchase_service.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_purchase_checkout_id", columnList = "checkoutId"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,4 +24,9 @@ public class Purchase {
 
     private int quantity;
 
+    //set from the Idempotency-Key header of /purchase/batch, not from the body
+    @JsonIgnore
+    @Column(length = 64)
+    private String checkoutId;
+
 }
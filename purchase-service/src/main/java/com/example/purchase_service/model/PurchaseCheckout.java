@@ -0,0 +1,23 @@
+package com.example.purchase_service.model;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+//the checkout id a batch of purchases was recorded under, or that the checkout gave up on before they were;
+//never changes once written, so a retried batch and a compensating checkout agree on what happened
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class PurchaseCheckout {
+
+    @Id
+    @Column(length = 64)
+    private String checkoutId;
+
+    private boolean abandoned;
+
+}
@@ -0,0 +1,9 @@
+package com.example.purchase_service.repository;
+
+import com.example.purchase_service.model.PurchaseCheckout;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PurchaseCheckoutRepository extends JpaRepository<PurchaseCheckout, String> {
+}
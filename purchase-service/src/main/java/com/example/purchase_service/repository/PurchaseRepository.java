@@ -1,9 +1,13 @@
 package com.example.purchase_service.repository;
 
+import com.example.purchase_service.model.ItemSalesSummary;
 import com.example.purchase_service.model.Purchase;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +17,10 @@ public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
 
     List<Purchase> findByItemId(Long itemId);
 
+    List<Purchase> findByCheckoutIdOrderByPurchaseId(String checkoutId);
+
+    @Query("select p.itemId as itemId, sum(p.quantity) as unitsSold from Purchase p " +
+            "where p.itemId in :itemIds group by p.itemId")
+    List<ItemSalesSummary> summarizeByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
 }
@@ -0,0 +1,19 @@
+package com.example.purchase_service.service;
+
+/**
+ * Thrown when purchases arrive for a checkout that was already abandoned, typically a request that timed
+ * out at the caller and was compensated before it got here. Nothing is recorded then.
+ */
+public class CheckoutAbandonedException extends RuntimeException {
+
+    private final String checkoutId;
+
+    public CheckoutAbandonedException(String checkoutId) {
+        super("Checkout " + checkoutId + " was abandoned");
+        this.checkoutId = checkoutId;
+    }
+
+    public String getCheckoutId() {
+        return checkoutId;
+    }
+}
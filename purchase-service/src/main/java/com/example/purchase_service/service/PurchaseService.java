@@ -1,9 +1,11 @@
 package com.example.purchase_service.service;
 
+import com.example.purchase_service.model.ItemSalesSummary;
 import com.example.purchase_service.model.Purchase;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -11,8 +13,20 @@ public interface PurchaseService{
 
     Purchase addPurchase(Purchase purchase);
 
+    //one transaction for all of them, used by checkouts with several lines
+    List<Purchase> addPurchases(List<Purchase> purchases);
+
+    //as above, at most once per checkout id: a repeat returns what the first call recorded, a checkout abandoned
+    //before throws CheckoutAbandonedException
+    List<Purchase> addPurchases(String checkoutId, List<Purchase> purchases);
+
+    //what the checkout recorded; when it recorded nothing, later purchases under its id are refused
+    List<Purchase> abandonCheckout(String checkoutId);
+
     List<Purchase> getPurchaseByUserId(Long userId);
 
     List<Purchase> getAllPurchases();
 
+    List<ItemSalesSummary> getSalesSummary(Collection<Long> itemIds);
+
 }
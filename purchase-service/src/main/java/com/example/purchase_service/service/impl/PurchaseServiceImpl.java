@@ -1,13 +1,20 @@
 package com.example.purchase_service.service.impl;
 
 
+import com.example.common_service.outbox.OutboxPublisher;
+import com.example.purchase_service.model.ItemSalesSummary;
 import com.example.purchase_service.model.Purchase;
+import com.example.purchase_service.model.PurchaseCheckout;
+import com.example.purchase_service.repository.PurchaseCheckoutRepository;
 import com.example.purchase_service.repository.PurchaseRepository;
+import com.example.purchase_service.service.CheckoutAbandonedException;
 import com.example.purchase_service.service.PurchaseService;
 import org.apache.commons.configuration.AbstractFileConfiguration;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,12 +24,57 @@ public class PurchaseServiceImpl implements PurchaseService {
     @Autowired
     PurchaseRepository purchaseRepository;
 
+    @Autowired
+    PurchaseCheckoutRepository purchaseCheckoutRepository;
+
+    @Autowired
+    OutboxPublisher outboxPublisher;
+
     @Override
+    @Transactional
     public Purchase addPurchase(Purchase purchase) {
-        return purchaseRepository.save(purchase);
+        Purchase saved = purchaseRepository.save(purchase);
+        outboxPublisher.publish("purchase", saved.getPurchaseId(), "PurchaseCreated", saved);
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Purchase> addPurchases(List<Purchase> purchases) {
+        List<Purchase> saved = purchaseRepository.saveAll(purchases);
+        outboxPublisher.publishAll("purchase", "PurchaseCreated", saved, Purchase::getPurchaseId);
+        return saved;
     }
 
     @Override
+    @Transactional
+    public List<Purchase> addPurchases(String checkoutId, List<Purchase> purchases) {
+        Optional<PurchaseCheckout> checkout = purchaseCheckoutRepository.findById(checkoutId);
+        if(checkout.isPresent()){
+            if(checkout.get().isAbandoned()){
+                throw new CheckoutAbandonedException(checkoutId);
+            }
+            return purchaseRepository.findByCheckoutIdOrderByPurchaseId(checkoutId);
+        }
+        //a concurrent call under the same id fails on the primary key and rolls back, see PurchaseController
+        purchaseCheckoutRepository.save(new PurchaseCheckout(checkoutId, false));
+        purchases.forEach(purchase -> purchase.setCheckoutId(checkoutId));
+        return addPurchases(purchases);
+    }
+
+    @Override
+    @Transactional
+    public List<Purchase> abandonCheckout(String checkoutId) {
+        Optional<PurchaseCheckout> checkout = purchaseCheckoutRepository.findById(checkoutId);
+        if(checkout.isPresent()){
+            return checkout.get().isAbandoned() ? List.of() : purchaseRepository.findByCheckoutIdOrderByPurchaseId(checkoutId);
+        }
+        purchaseCheckoutRepository.save(new PurchaseCheckout(checkoutId, true));
+        return List.of();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Purchase> getPurchaseByUserId(Long userId){
         List<Purchase> list = purchaseRepository.findByUserId(userId);
         if(list==null){
@@ -32,7 +84,17 @@ public class PurchaseServiceImpl implements PurchaseService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Purchase> getAllPurchases() {
         return purchaseRepository.findAll();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemSalesSummary> getSalesSummary(Collection<Long> itemIds) {
+        if(itemIds.isEmpty()){
+            return List.of();
+        }
+        return purchaseRepository.summarizeByItemIds(itemIds);
+    }
 }
@@ -1,14 +1,21 @@
 package com.example.seller_service.controller;
 
 
+import com.example.common_service.dto.DirectoryPageDTO;
+import com.example.common_service.dto.ItemDTO;
 import com.example.seller_service.feign.ItemFeignClient;
-import com.example.seller_service.model.ItemDTO;
 import com.example.seller_service.model.Seller;
+import com.example.seller_service.model.SellerSummary;
+import com.example.seller_service.service.CatalogUploadService;
+import com.example.seller_service.service.SellerDashboardService;
 import com.example.seller_service.service.SellerService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -20,9 +27,17 @@ public class SellerController {
     @Autowired
     SellerService sellerService;
 
+    private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
     @Autowired
     ItemFeignClient itemFeignClient;
 
+    @Autowired
+    CatalogUploadService catalogUploadService;
+
+    @Autowired
+    SellerDashboardService sellerDashboardService;
+
     @GetMapping("/test")
     public String testEndpoint(){
         return "Test successful!";
@@ -80,6 +95,12 @@ public class SellerController {
         return sellerService.getAllSellers();
     }
 
+    @GetMapping("/directory")
+    public DirectoryPageDTO<SellerSummary> getSellerDirectory(@RequestParam(defaultValue = "0") long afterId,
+                                                              @RequestParam(defaultValue = "50") int size){
+        return sellerService.getSellerDirectory(afterId, size);
+    }
+
     @PostMapping("/{id}/item")
     public ResponseEntity<?> addItem(@PathVariable Long id, @RequestBody ItemDTO item){
         //check if seller exists
@@ -89,6 +110,7 @@ public class SellerController {
         }
 
         //add item
+        item.setSellerId(id);
         itemFeignClient.addItem(item);
         Map<String,String> response = Map.of("message", "Item added successfully!",
                 "itemId", String.valueOf(item.getItemId()),
@@ -98,6 +120,28 @@ public class SellerController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @PostMapping(value = "/{id}/items/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> bulkAddItems(@PathVariable Long id, HttpServletRequest request){
+        Seller seller = sellerService.getSellerById(id);
+        if(seller == null){
+            return new ResponseEntity<>(Map.of("message" , "Seller not found"), HttpStatus.NOT_FOUND);
+        }
+
+        //rows are streamed through and progress is reported as ndjson while the upload runs
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(TEXT_CSV);
+        StreamingResponseBody body = out -> catalogUploadService.uploadItems(id, request.getInputStream(), csv, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/{id}/dashboard")
+    public ResponseEntity<?> getDashboard(@PathVariable Long id){
+        Seller seller = sellerService.getSellerById(id);
+        if(seller == null){
+            return new ResponseEntity<>(Map.of("message" , "Seller not found"), HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(sellerDashboardService.getDashboard(id), HttpStatus.OK);
+    }
+
     @GetMapping("/items")
     public ResponseEntity<?> getAllItems(){
         List<ItemDTO> list = itemFeignClient.getAllItems();
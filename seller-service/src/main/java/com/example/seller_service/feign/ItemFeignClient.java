@@ -1,6 +1,7 @@
 package com.example.seller_service.feign;
 
-import com.example.seller_service.model.ItemDTO;
+import com.example.common_service.dto.ItemDTO;
+import com.example.common_service.resilience.LastKnownGood;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,9 +16,16 @@ public interface ItemFeignClient {
     @PostMapping("/item")
     void addItem(@RequestBody ItemDTO itemDTO);
 
+    @PostMapping("/item/batch")
+    List<String> addItems(@RequestBody List<ItemDTO> items);
+
     @GetMapping("/item/{id}")
     ItemDTO getItemById(@PathVariable("id") Long id);
 
+    @GetMapping("/item/seller/{sellerId}")
+    List<ItemDTO> getItemsBySellerId(@PathVariable("sellerId") Long sellerId);
+
+    @LastKnownGood(maxAge = "1m")
     @GetMapping("/item")
     public List<ItemDTO> getAllItems();
 }
@@ -0,0 +1,16 @@
+package com.example.seller_service.feign;
+
+import com.example.seller_service.model.ItemSalesDTO;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+
+@FeignClient(name = "purchase-service")
+public interface PurchaseFeignClient {
+
+    @PostMapping("/purchase/summary")
+    List<ItemSalesDTO> getSalesSummary(@RequestBody List<Long> itemIds);
+
+}
@@ -7,7 +7,7 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString
-public class ItemDTO {
+public class DashboardItemDTO {
 
     private Long itemId;
 
@@ -15,8 +15,10 @@ public class ItemDTO {
 
     private Long price;
 
-    private String description;
+    private int stockLeft;
 
-    private int quantity;
+    private long unitsSold;
 
-}
\ No newline at end of file
+    private long revenue;
+
+}
@@ -0,0 +1,16 @@
+package com.example.seller_service.model;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ItemSalesDTO {
+
+    private Long itemId;
+
+    private Long unitsSold;
+
+}
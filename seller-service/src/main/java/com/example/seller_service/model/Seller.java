@@ -1,9 +1,12 @@
 package com.example.seller_service.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.*;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "seller")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,24 @@
+package com.example.seller_service.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class SellerDashboardDTO {
+
+    private Long sellerId;
+
+    private List<DashboardItemDTO> items;
+
+    private long totalUnitsSold;
+
+    private long totalRevenue;
+
+    private long generatedAt;
+
+}
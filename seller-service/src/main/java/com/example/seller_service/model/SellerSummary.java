@@ -0,0 +1,13 @@
+package com.example.seller_service.model;
+
+public interface SellerSummary {
+
+    long getSellerId();
+
+    String getSellerName();
+
+    String getEmail();
+
+    String getRole();
+
+}
@@ -1,8 +1,19 @@
 package com.example.seller_service.repository;
 
 import com.example.seller_service.model.Seller;
+import com.example.seller_service.model.SellerSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 
 public interface SellerRepository extends JpaRepository<Seller, Long> {
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "seller-queries")})
     Seller findByEmail(String email);
+
+    List<SellerSummary> findBySellerIdGreaterThanOrderBySellerIdAsc(long sellerId, Limit limit);
 }
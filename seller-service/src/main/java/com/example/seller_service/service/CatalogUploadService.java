@@ -0,0 +1,14 @@
+package com.example.seller_service.service;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+@Service
+public interface CatalogUploadService {
+
+    void uploadItems(Long sellerId, InputStream body, boolean csv, OutputStream progress) throws IOException;
+
+}
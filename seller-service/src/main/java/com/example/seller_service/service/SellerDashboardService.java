@@ -0,0 +1,11 @@
+package com.example.seller_service.service;
+
+import com.example.seller_service.model.SellerDashboardDTO;
+import org.springframework.stereotype.Service;
+
+@Service
+public interface SellerDashboardService {
+
+    SellerDashboardDTO getDashboard(Long sellerId);
+
+}
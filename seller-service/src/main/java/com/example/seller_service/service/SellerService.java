@@ -1,6 +1,8 @@
 package com.example.seller_service.service;
 
+import com.example.common_service.dto.DirectoryPageDTO;
 import com.example.seller_service.model.Seller;
+import com.example.seller_service.model.SellerSummary;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -18,4 +20,6 @@ public interface SellerService {
 
     List<Seller> getAllSellers();
 
+    DirectoryPageDTO<SellerSummary> getSellerDirectory(long afterId, int size);
+
 }
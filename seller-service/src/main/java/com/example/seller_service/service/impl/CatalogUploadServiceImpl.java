@@ -0,0 +1,276 @@
+package com.example.seller_service.service.impl;
+
+import com.example.common_service.dto.ItemDTO;
+import com.example.seller_service.feign.ItemFeignClient;
+import com.example.seller_service.service.CatalogUploadService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+@Service
+public class CatalogUploadServiceImpl implements CatalogUploadService {
+
+    private static final String ITEM_ADDED = "Item added successfully!";
+
+    @Autowired
+    ItemFeignClient itemFeignClient;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    Environment environment;
+
+    @Value("${seller.bulk-upload.batch-size:500}")
+    int batchSize;
+
+    @Value("${seller.bulk-upload.max-in-flight:4}")
+    int maxInFlight;
+
+    @Value("${seller.bulk-upload.progress-every:1000}")
+    int progressEvery;
+
+    @Value("${seller.bulk-upload.forwarding-threads:8}")
+    int forwardingThreads;
+
+    private ExecutorService forwardingExecutor;
+
+    @PostConstruct
+    void startExecutor() {
+        //the pool size still caps concurrent batches, with virtual threads the blocked Feign calls just hold no platform thread
+        forwardingExecutor = Threading.VIRTUAL.isActive(environment)
+                ? Executors.newFixedThreadPool(forwardingThreads, new VirtualThreadTaskExecutor("catalog-forward-").getVirtualThreadFactory())
+                : Executors.newFixedThreadPool(forwardingThreads);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        forwardingExecutor.shutdown();
+    }
+
+    @Override
+    public void uploadItems(Long sellerId, InputStream body, boolean csv, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        UploadProgress progress = new UploadProgress(out);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        Map<String, Integer> columns = null;
+        List<ItemDTO> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && columns == null) {
+                    try {
+                        columns = parseHeader(line);
+                    } catch (IllegalArgumentException e) {
+                        progress.rowFailed(lineNumber, e.getMessage());
+                        break;
+                    }
+                    continue;
+                }
+
+                progress.rowsRead++;
+                ItemDTO item;
+                try {
+                    item = csv ? parseCsvRow(columns, line) : objectMapper.readValue(line, ItemDTO.class);
+                    validate(item);
+                } catch (JsonProcessingException e) {
+                    progress.rowFailed(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    progress.rowFailed(lineNumber, e.getMessage());
+                    continue;
+                }
+                item.setItemId(null);
+                item.setSellerId(sellerId);
+                batch.add(item);
+                batchLines.add(lineNumber);
+
+                if (batch.size() == batchSize) {
+                    forward(batch, batchLines, inFlight, progress);
+                    batch = new ArrayList<>(batchSize);
+                    batchLines = new ArrayList<>(batchSize);
+                }
+                progress.drain();
+                if (progress.rowsRead % progressEvery == 0) {
+                    progress.report("progress");
+                }
+            }
+            if (!batch.isEmpty()) {
+                forward(batch, batchLines, inFlight, progress);
+            }
+            //wait for every in-flight batch before reporting the summary
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Upload interrupted");
+        }
+        progress.drain();
+        progress.report("summary");
+    }
+
+    private void forward(List<ItemDTO> batch, List<Long> lines, Semaphore inFlight, UploadProgress progress) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            forwardingExecutor.execute(() -> {
+                try {
+                    progress.completed.add(new BatchResult(lines, itemFeignClient.addItems(batch), null));
+                } catch (RuntimeException e) {
+                    progress.completed.add(new BatchResult(lines, null, "Item service rejected batch: " + e.getMessage()));
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> names = splitCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("itemname", "price", "quantity")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must contain itemName, price and quantity columns");
+            }
+        }
+        return columns;
+    }
+
+    private ItemDTO parseCsvRow(Map<String, Integer> columns, String line) {
+        List<String> fields = splitCsvLine(line);
+        ItemDTO item = new ItemDTO();
+        item.setItemName(field(fields, columns, "itemname"));
+        String price = field(fields, columns, "price");
+        String quantity = field(fields, columns, "quantity");
+        try {
+            item.setPrice(price == null || price.isBlank() ? null : Long.parseLong(price.trim()));
+            item.setQuantity(quantity == null || quantity.isBlank() ? 0 : Integer.parseInt(quantity.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price and quantity must be whole numbers");
+        }
+        item.setDescription(field(fields, columns, "description"));
+        return item;
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void validate(ItemDTO item) {
+        if (item.getItemName() == null || item.getItemName().isBlank()) {
+            throw new IllegalArgumentException("itemName is required");
+        }
+        if (item.getPrice() == null || item.getPrice() < 0) {
+            throw new IllegalArgumentException("price must be zero or more");
+        }
+        if (item.getQuantity() < 0) {
+            throw new IllegalArgumentException("quantity must be zero or more");
+        }
+    }
+
+    private record BatchResult(List<Long> lines, List<String> messages, String failure) {
+    }
+
+    //only touched by the uploading thread, apart from the completed queue
+    private class UploadProgress {
+
+        private final OutputStream out;
+
+        private final Queue<BatchResult> completed = new ConcurrentLinkedQueue<>();
+
+        private long rowsRead;
+
+        private long rowsAdded;
+
+        private long rowsFailed;
+
+        private UploadProgress(OutputStream out) {
+            this.out = out;
+        }
+
+        private void rowFailed(long line, String message) throws IOException {
+            rowsFailed++;
+            write(Map.of("type", "error", "line", line, "message", message));
+        }
+
+        private void drain() throws IOException {
+            BatchResult result;
+            while ((result = completed.poll()) != null) {
+                for (int i = 0; i < result.lines().size(); i++) {
+                    String message = result.failure() != null ? result.failure()
+                            : i < result.messages().size() ? result.messages().get(i) : "No result from item service";
+                    if (ITEM_ADDED.equals(message)) {
+                        rowsAdded++;
+                    } else {
+                        rowFailed(result.lines().get(i), message);
+                    }
+                }
+            }
+        }
+
+        private void report(String type) throws IOException {
+            write(Map.of("type", type, "rowsRead", rowsRead, "rowsAdded", rowsAdded, "rowsFailed", rowsFailed));
+            out.flush();
+        }
+
+        private void write(Map<String, Object> event) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write('\n');
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.seller_service.service.impl;
+
+import com.example.common_service.dto.ItemDTO;
+import com.example.seller_service.feign.ItemFeignClient;
+import com.example.seller_service.feign.PurchaseFeignClient;
+import com.example.seller_service.model.DashboardItemDTO;
+import com.example.seller_service.model.ItemSalesDTO;
+import com.example.seller_service.model.SellerDashboardDTO;
+import com.example.seller_service.service.SellerDashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class SellerDashboardServiceImpl implements SellerDashboardService {
+
+    @Autowired
+    ItemFeignClient itemFeignClient;
+
+    @Autowired
+    PurchaseFeignClient purchaseFeignClient;
+
+    @Value("${seller.dashboard.cache-ttl-ms:10000}")
+    long cacheTtlMillis;
+
+    @Value("${seller.dashboard.cache-max-entries:10000}")
+    int cacheMaxEntries;
+
+    private final Map<Long, SellerDashboardDTO> cache = new ConcurrentHashMap<>();
+
+    @Override
+    public SellerDashboardDTO getDashboard(Long sellerId) {
+        long now = System.currentTimeMillis();
+        SellerDashboardDTO cached = cache.get(sellerId);
+        if (cached != null && now - cached.getGeneratedAt() < cacheTtlMillis) {
+            return cached;
+        }
+
+        SellerDashboardDTO dashboard = buildDashboard(sellerId, now);
+        if (cache.size() >= cacheMaxEntries) {
+            cache.values().removeIf(entry -> now - entry.getGeneratedAt() >= cacheTtlMillis);
+        }
+        if (cache.size() < cacheMaxEntries) {
+            cache.put(sellerId, dashboard);
+        }
+        return dashboard;
+    }
+
+    private SellerDashboardDTO buildDashboard(Long sellerId, long now) {
+        //one call for the seller's items and one aggregate call for their sales, never one per item
+        List<ItemDTO> items = itemFeignClient.getItemsBySellerId(sellerId);
+        List<ItemSalesDTO> sales = items.isEmpty() ? List.of()
+                : purchaseFeignClient.getSalesSummary(items.stream().map(ItemDTO::getItemId).toList());
+
+        Map<Long, Long> unitsSoldByItem = new HashMap<>(sales.size() * 2);
+        for (ItemSalesDTO sale : sales) {
+            unitsSoldByItem.put(sale.getItemId(), sale.getUnitsSold());
+        }
+
+        List<DashboardItemDTO> rows = new ArrayList<>(items.size());
+        long totalUnitsSold = 0;
+        long totalRevenue = 0;
+        for (ItemDTO item : items) {
+            long unitsSold = unitsSoldByItem.getOrDefault(item.getItemId(), 0L);
+            long price = item.getPrice() == null ? 0 : item.getPrice();
+            long revenue = unitsSold * price;
+            rows.add(new DashboardItemDTO(item.getItemId(), item.getItemName(), item.getPrice(),
+                    item.getQuantity(), unitsSold, revenue));
+            totalUnitsSold += unitsSold;
+            totalRevenue += revenue;
+        }
+        return new SellerDashboardDTO(sellerId, rows, totalUnitsSold, totalRevenue, now);
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.seller_service.service.impl;
 
+import com.example.common_service.dto.DirectoryPageDTO;
 import com.example.seller_service.model.Seller;
+import com.example.seller_service.model.SellerSummary;
 import com.example.seller_service.repository.SellerRepository;
 import com.example.seller_service.service.SellerService;
 import com.netflix.discovery.converters.Auto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,37 +17,73 @@ import java.util.Optional;
 @Service
 public class SellerServiceImpl implements SellerService {
 
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 500;
+
+    private static final long COUNT_CACHE_TTL_MILLIS = 30_000;
+
     @Autowired
     SellerRepository sellerRepository;
 
+    private volatile long cachedSellerCount = -1;
+
+    private volatile long sellerCountCachedAt;
+
     @Override
+    @Transactional
     public Seller addSeller(Seller seller) {
-        return sellerRepository.save(seller);
+        Seller saved = sellerRepository.save(seller);
+        cachedSellerCount = -1;
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Seller getSellerById(Long id) {
         Optional<Seller> seller = sellerRepository.findById(id);
         return seller.orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Seller getSellerByEmail(String email) {
         Optional<Seller> seller = Optional.ofNullable(sellerRepository.findByEmail(email));
         return seller.orElse(null);
     }
 
     @Override
+    @Transactional
     public String deleteSeller(Long id) {
         if(sellerRepository.findById(id).isPresent()){
             sellerRepository.deleteById(id);
+            cachedSellerCount = -1;
             return "Seller deleted successfully!";
         }
         return "Seller not found";
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Seller> getAllSellers() {
         return sellerRepository.findAll();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DirectoryPageDTO<SellerSummary> getSellerDirectory(long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_DIRECTORY_PAGE_SIZE));
+        List<SellerSummary> content = sellerRepository.findBySellerIdGreaterThanOrderBySellerIdAsc(afterId, Limit.of(pageSize));
+        Long nextAfterId = content.size() < pageSize ? null : content.get(content.size() - 1).getSellerId();
+        return new DirectoryPageDTO<>(content, nextAfterId, getSellerCount());
+    }
+
+    private long getSellerCount() {
+        long now = System.currentTimeMillis();
+        long count = cachedSellerCount;
+        if(count < 0 || now - sellerCountCachedAt > COUNT_CACHE_TTL_MILLIS){
+            count = sellerRepository.count();
+            sellerCountCachedAt = now;
+            cachedSellerCount = count;
+        }
+        return count;
+    }
 }
@@ -0,0 +1,237 @@
+package com.example.user_service.checkout;
+
+import com.example.common_service.dto.ItemDTO;
+import com.example.common_service.dto.PurchaseDTO;
+import com.example.common_service.dto.StockReservationDTO;
+import com.example.user_service.feign.ItemFeignClient;
+import com.example.user_service.feign.PurchaseFeignClient;
+import com.example.user_service.model.CheckoutResponseDTO;
+import com.example.user_service.model.PurchaseRequestDTO;
+import com.example.user_service.model.PurchaseResponseDTO;
+import com.example.user_service.model.User;
+import com.example.user_service.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a checkout as one flow: the user lookup overlaps the stock reservation in item-service, which
+ * also returns the item details, then all lines are recorded in a single purchase-service call. Stock
+ * is taken for every line or for none. The purchases are recorded under the checkout id as idempotency
+ * key. When the user turns out not to exist, or purchase-service confirms nothing was recorded under that
+ * key, the reservation is released again under the same checkout id; once the purchases are recorded it
+ * is confirmed, after which it can no longer be released.
+ */
+@Service
+public class CheckoutOrchestrator {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutOrchestrator.class);
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ItemFeignClient itemFeignClient;
+
+    @Autowired
+    PurchaseFeignClient purchaseFeignClient;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ObjectProvider<MappingJackson2SmileHttpMessageConverter> smileConverter;
+
+    @Autowired
+    ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    Environment environment;
+
+    @Value("${ims.checkout.lookup-threads:16}")
+    int lookupThreads;
+
+    private ExecutorService lookupExecutor;
+
+    @PostConstruct
+    void startExecutor() {
+        lookupExecutor = Threading.VIRTUAL.isActive(environment)
+                ? Executors.newFixedThreadPool(lookupThreads, new VirtualThreadTaskExecutor("checkout-lookup-").getVirtualThreadFactory())
+                : Executors.newFixedThreadPool(lookupThreads);
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        lookupExecutor.shutdown();
+    }
+
+    public CheckoutResult checkout(Long userId, List<PurchaseRequestDTO> lines) {
+        CheckoutSteps steps = new CheckoutSteps(meterRegistry.getIfAvailable());
+        try {
+            return checkout(steps, userId, lines);
+        } catch (RuntimeException e) {
+            steps.finish(CheckoutResult.Outcome.FAILED);
+            throw e;
+        }
+    }
+
+    private CheckoutResult checkout(CheckoutSteps steps, Long userId, List<PurchaseRequestDTO> lines) {
+        if (lines == null || lines.isEmpty()
+                || lines.stream().anyMatch(line -> line.getItemId() == null || line.getQuantity() <= 0)) {
+            return finish(steps, CheckoutResult.Outcome.INVALID, null, List.of());
+        }
+        String checkoutId = UUID.randomUUID().toString();
+        StockReservationDTO reservation = new StockReservationDTO(checkoutId, lines.stream()
+                .map(line -> new StockReservationDTO.Line(line.getItemId(), line.getQuantity()))
+                .toList());
+
+        //a local read, it runs while item-service takes the stock instead of ahead of it
+        CompletableFuture<User> user = CompletableFuture.supplyAsync(
+                () -> steps.time("user", () -> userService.getUserById(userId)), lookupExecutor);
+
+        List<ItemDTO> items;
+        try {
+            items = steps.time("reserve", () -> itemFeignClient.reserveStock(reservation));
+        } catch (FeignException.NotFound | FeignException.Conflict e) {
+            //nothing was reserved, an unknown user still takes precedence as it did before
+            if (awaitUser(user) == null) {
+                return finish(steps, CheckoutResult.Outcome.USER_NOT_FOUND, null, List.of());
+            }
+            CheckoutResult.Outcome outcome = e instanceof FeignException.NotFound
+                    ? CheckoutResult.Outcome.ITEM_NOT_FOUND : CheckoutResult.Outcome.OUT_OF_STOCK;
+            return finish(steps, outcome, null, itemIds(e));
+        } catch (RuntimeException e) {
+            //the reservation may have committed before the failure; releasing an unknown checkout id marks it released,
+            //so a reserve still on its way under it is refused
+            release(steps, checkoutId);
+            throw e;
+        }
+
+        User found;
+        try {
+            found = awaitUser(user);
+        } catch (RuntimeException e) {
+            release(steps, checkoutId);
+            throw e;
+        }
+        if (found == null) {
+            release(steps, checkoutId);
+            return finish(steps, CheckoutResult.Outcome.USER_NOT_FOUND, null, List.of());
+        }
+
+        List<PurchaseDTO> purchases;
+        try {
+            purchases = steps.time("record", () -> purchaseFeignClient.createPurchases(checkoutId, lines.stream()
+                    .map(line -> new PurchaseDTO(null, userId, line.getItemId(), line.getQuantity()))
+                    .toList()));
+        } catch (RuntimeException e) {
+            //a timeout may hide a batch that was recorded, so only stock the checkout provably did not use goes back
+            purchases = abandon(steps, checkoutId, e);
+            if (purchases.isEmpty()) {
+                release(steps, checkoutId);
+                throw e;
+            }
+        }
+        confirm(steps, checkoutId);
+
+        Map<Long, ItemDTO> byId = items.stream().collect(Collectors.toMap(ItemDTO::getItemId, Function.identity()));
+        List<PurchaseResponseDTO> purchased = new ArrayList<>(purchases.size());
+        long total = 0;
+        for (PurchaseDTO purchase : purchases) {
+            ItemDTO item = byId.get(purchase.getItemId());
+            purchased.add(new PurchaseResponseDTO(purchase.getPurchaseId(), item.getItemId(), item.getItemName(),
+                    item.getPrice(), purchase.getQuantity()));
+            total += (item.getPrice() == null ? 0 : item.getPrice()) * purchase.getQuantity();
+        }
+        return finish(steps, CheckoutResult.Outcome.COMPLETED, new CheckoutResponseDTO(checkoutId, purchased, total, null), List.of());
+    }
+
+    private static User awaitUser(CompletableFuture<User> user) {
+        try {
+            return user.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    //the purchases recorded under the checkout id, none means none can be recorded any more
+    private List<PurchaseDTO> abandon(CheckoutSteps steps, String checkoutId, RuntimeException failure) {
+        try {
+            return steps.time("abandon", () -> purchaseFeignClient.abandonCheckout(checkoutId));
+        } catch (RuntimeException e) {
+            //whether the purchases exist is unknown, the stock stays reserved rather than being sold twice
+            log.error("Could not abandon checkout {}, its stock stays reserved", checkoutId, e);
+            failure.addSuppressed(e);
+            throw failure;
+        }
+    }
+
+    private void release(CheckoutSteps steps, String checkoutId) {
+        try {
+            steps.time("release", () -> itemFeignClient.releaseStock(new StockReservationDTO(checkoutId, List.of())));
+        } catch (RuntimeException e) {
+            //left reserved; POST /item/stock/release with this checkout id returns the stock
+            log.error("Could not release the stock of checkout {}", checkoutId, e);
+        }
+    }
+
+    private void confirm(CheckoutSteps steps, String checkoutId) {
+        try {
+            steps.time("confirm", () -> itemFeignClient.confirmStock(new StockReservationDTO(checkoutId, List.of())));
+        } catch (RuntimeException e) {
+            //the purchases stand either way; until POST /item/stock/confirm succeeds a release would still return the stock
+            log.error("Could not confirm the stock of checkout {}", checkoutId, e);
+        }
+    }
+
+    private CheckoutResult finish(CheckoutSteps steps, CheckoutResult.Outcome outcome,
+                                  CheckoutResponseDTO response, List<Long> itemIds) {
+        Map<String, Double> timings = steps.finish(outcome);
+        if (response != null) {
+            response.setTimings(timings);
+        }
+        return new CheckoutResult(outcome, response, itemIds, timings);
+    }
+
+    //item-service names the offending items in its 404 and 409 bodies, which are Smile when Smile was asked for
+    private List<Long> itemIds(FeignException e) {
+        byte[] body = e.content();
+        if (body == null || body.length == 0) {
+            return List.of();
+        }
+        MappingJackson2SmileHttpMessageConverter smile = smileConverter.getIfAvailable();
+        boolean smileBody = body.length > 2 && body[0] == ':' && body[1] == ')' && body[2] == '\n';
+        try {
+            JsonNode ids = (smileBody && smile != null ? smile.getObjectMapper() : objectMapper).readTree(body).path("itemIds");
+            List<Long> itemIds = new ArrayList<>();
+            ids.forEach(id -> itemIds.add(id.asLong()));
+            return itemIds;
+        } catch (Exception ex) {
+            return List.of();
+        }
+    }
+}
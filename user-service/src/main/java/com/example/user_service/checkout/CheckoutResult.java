@@ -0,0 +1,50 @@
+package com.example.user_service.checkout;
+
+import com.example.user_service.model.CheckoutResponseDTO;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * What a checkout ended with. Only a completed checkout has a response, the others say which items
+ * were the problem where that applies. Timings are in milliseconds and always present.
+ */
+public record CheckoutResult(Outcome outcome, CheckoutResponseDTO response, List<Long> itemIds, Map<String, Double> timings) {
+
+    public enum Outcome {
+        COMPLETED(HttpStatus.OK, "Purchased items"),
+        INVALID(HttpStatus.BAD_REQUEST, "Every line needs an item id and a positive quantity"),
+        USER_NOT_FOUND(HttpStatus.NOT_FOUND, "User not found!"),
+        ITEM_NOT_FOUND(HttpStatus.NOT_FOUND, "Item not found"),
+        OUT_OF_STOCK(HttpStatus.CONFLICT, "Insufficient stock"),
+        //a dependency failed, the exception reaches the caller and this only tags the metrics
+        FAILED(HttpStatus.SERVICE_UNAVAILABLE, "Checkout failed");
+
+        private final HttpStatus status;
+
+        private final String message;
+
+        Outcome(HttpStatus status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        public HttpStatus status() {
+            return status;
+        }
+
+        public String message() {
+            return message;
+        }
+    }
+
+    //value for the Server-Timing response header, so browsers and the gateway logs show the breakdown too
+    public String serverTiming() {
+        return timings.entrySet().stream()
+                .map(step -> step.getKey() + ";dur=" + String.format(Locale.ROOT, "%.1f", step.getValue()))
+                .collect(Collectors.joining(", "));
+    }
+}
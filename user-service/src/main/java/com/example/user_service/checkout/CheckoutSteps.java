@@ -0,0 +1,69 @@
+package com.example.user_service.checkout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+//per-step durations of one checkout, steps may run on different threads
+class CheckoutSteps {
+
+    static final String[] ORDER = {"user", "reserve", "record", "abandon", "confirm", "release"};
+
+    private final MeterRegistry registry;
+
+    private final long start = System.nanoTime();
+
+    private final Map<String, Long> nanos = new ConcurrentHashMap<>();
+
+    CheckoutSteps(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    <T> T time(String step, Supplier<T> work) {
+        long begin = System.nanoTime();
+        String outcome = "failed";
+        try {
+            T result = work.get();
+            outcome = "success";
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - begin;
+            nanos.put(step, elapsed);
+            if (registry != null) {
+                Timer.builder("user.checkout.step")
+                        .description("Time spent in each step of a checkout")
+                        .tag("step", step)
+                        .tag("outcome", outcome)
+                        .register(registry)
+                        .record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    Map<String, Double> finish(CheckoutResult.Outcome outcome) {
+        long total = System.nanoTime() - start;
+        if (registry != null) {
+            Timer.builder("user.checkout")
+                    .description("End-to-end checkout time, steps that overlap are counted once")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry)
+                    .record(total, TimeUnit.NANOSECONDS);
+        }
+        Map<String, Double> timings = new LinkedHashMap<>();
+        for (String step : ORDER) {
+            Long elapsed = nanos.get(step);
+            if (elapsed != null) {
+                timings.put(step, elapsed / 1_000_000.0);
+            }
+        }
+        timings.put("total", total / 1_000_000.0);
+        return timings;
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.user_service.controller;
 
 
+import com.example.common_service.dto.DirectoryPageDTO;
+import com.example.common_service.dto.ItemDTO;
+import com.example.common_service.dto.PurchaseDTO;
+import com.example.user_service.checkout.CheckoutOrchestrator;
+import com.example.user_service.checkout.CheckoutResult;
 import com.example.user_service.feign.ItemFeignClient;
 import com.example.user_service.feign.PurchaseFeignClient;
 import com.example.user_service.model.*;
@@ -18,6 +23,8 @@ import java.util.Map;
 @RequestMapping("/user")
 public class UserController {
 
+    private static final String SERVER_TIMING = "Server-Timing";
+
     @Autowired
     UserService userService;
 
@@ -27,6 +34,9 @@ public class UserController {
     @Autowired
     ItemFeignClient itemFeignClient;
 
+    @Autowired
+    CheckoutOrchestrator checkoutOrchestrator;
+
     @GetMapping("/test")
     public String testEndpoint(){
         return "Test successful!";
@@ -84,6 +94,12 @@ public class UserController {
         return userService.getAllUsers();
     }
 
+    @GetMapping("/directory")
+    public DirectoryPageDTO<UserSummary> getUserDirectory(@RequestParam(defaultValue = "0") long afterId,
+                                                          @RequestParam(defaultValue = "50") int size){
+        return userService.getUserDirectory(afterId, size);
+    }
+
     @GetMapping("/items")
     public ResponseEntity<?> getAllItems(){
         List<ItemDTO> list = itemFeignClient.getAllItems();
@@ -95,31 +111,39 @@ public class UserController {
 
     @PostMapping("/{id}/purchase")
     public ResponseEntity<Map<String, String>> purchaseItem(@PathVariable Long id, @RequestBody PurchaseRequestDTO request){
-        //check the user first if it exists or not
-        User user = userService.getUserById(id);
-        if(user==null){
-            return new ResponseEntity<>(Map.of("message", "User not found!"), HttpStatus.NOT_FOUND);
+        //a checkout with a single line
+        CheckoutResult result = checkoutOrchestrator.checkout(id, List.of(request));
+        if(result.outcome()!=CheckoutResult.Outcome.COMPLETED){
+            return ResponseEntity.status(result.outcome().status())
+                    .header(SERVER_TIMING, result.serverTiming())
+                    .body(Map.of("message", result.outcome().message()));
         }
-
-        //verify item existance
-        ItemDTO item = itemFeignClient.getItemById(request.getItemId());
-        if(item==null){
-            return new ResponseEntity<>(Map.of("message", "Item not found"), HttpStatus.NOT_FOUND);
-        }
-
-        PurchaseDTO purchase = new PurchaseDTO();
-        purchase.setUserId(id);
-        purchase.setItemId(request.getItemId());
-        purchase.setQuantity(request.getQuantity());
-
-        purchaseFeignClient.createPurchase(purchase);
-
+        PurchaseResponseDTO purchase = result.response().getLines().get(0);
         Map<String,String> response = Map.of("message", "Purchased item",
-                "itemId", String.valueOf(item.getItemId()),
-                "itemName", item.getItemName(),
-                "price", String.valueOf(item.getPrice()),
+                "itemId", String.valueOf(purchase.getItemId()),
+                "itemName", purchase.getItemName(),
+                "price", String.valueOf(purchase.getPrice()),
                 "quantity", String.valueOf(purchase.getQuantity()));
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .header(SERVER_TIMING, result.serverTiming())
+                .body(response);
+    }
+
+    //all lines are bought or none, the body carries per-step timings next to the purchases
+    @PostMapping("/{id}/checkout")
+    public ResponseEntity<?> checkout(@PathVariable Long id, @RequestBody CheckoutRequestDTO request){
+        CheckoutResult result = checkoutOrchestrator.checkout(id, request.getLines());
+        if(result.outcome()!=CheckoutResult.Outcome.COMPLETED){
+            Map<String, Object> response = result.itemIds().isEmpty()
+                    ? Map.of("message", result.outcome().message())
+                    : Map.of("message", result.outcome().message(), "itemIds", result.itemIds());
+            return ResponseEntity.status(result.outcome().status())
+                    .header(SERVER_TIMING, result.serverTiming())
+                    .body(response);
+        }
+        return ResponseEntity.ok()
+                .header(SERVER_TIMING, result.serverTiming())
+                .body(result.response());
     }
 
     @GetMapping("{id}/purchase")
@@ -1,9 +1,14 @@
 package com.example.user_service.feign;
 
-import com.example.user_service.model.ItemDTO;
+import com.example.common_service.dto.ItemDTO;
+import com.example.common_service.dto.StockReservationDTO;
+import com.example.common_service.hedging.Hedged;
+import com.example.common_service.resilience.LastKnownGood;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.List;
 import java.util.Map;
@@ -11,9 +16,22 @@ import java.util.Map;
 @FeignClient(name = "item-service")
 public interface ItemFeignClient {
 
+    @Hedged
     @GetMapping("/item/{id}")
     ItemDTO getItemById(@PathVariable("id") Long id);
 
+    //catalog browsing only, purchases check prices and stock through reserveStock
+    @LastKnownGood(maxAge = "1m")
     @GetMapping("/item")
     public List<ItemDTO> getAllItems();
+
+    //404 for unknown items and 409 for short stock, nothing is reserved then
+    @PostMapping("/item/stock/reserve")
+    List<ItemDTO> reserveStock(@RequestBody StockReservationDTO reservation);
+
+    @PostMapping("/item/stock/release")
+    Map<String, Integer> releaseStock(@RequestBody StockReservationDTO reservation);
+
+    @PostMapping("/item/stock/confirm")
+    Map<String, Integer> confirmStock(@RequestBody StockReservationDTO reservation);
 }
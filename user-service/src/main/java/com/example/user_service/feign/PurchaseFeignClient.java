@@ -1,11 +1,12 @@
 package com.example.user_service.feign;
 
-import com.example.user_service.model.PurchaseDTO;
+import com.example.common_service.dto.PurchaseDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 
 import java.util.List;
 
@@ -17,4 +18,12 @@ public interface PurchaseFeignClient {
 
     @PostMapping("/purchase")
     void createPurchase(@RequestBody PurchaseDTO purchaseDTO);
+
+    //recorded at most once per checkout id; 409 when the checkout was abandoned first
+    @PostMapping("/purchase/batch")
+    List<PurchaseDTO> createPurchases(@RequestHeader("Idempotency-Key") String checkoutId, @RequestBody List<PurchaseDTO> purchases);
+
+    //the purchases recorded under the checkout id, if none a later createPurchases with it is refused
+    @PostMapping("/purchase/checkout/{checkoutId}/abandon")
+    List<PurchaseDTO> abandonCheckout(@PathVariable("checkoutId") String checkoutId);
 }
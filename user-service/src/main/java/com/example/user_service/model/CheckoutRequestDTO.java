@@ -0,0 +1,16 @@
+package com.example.user_service.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CheckoutRequestDTO {
+
+    private List<PurchaseRequestDTO> lines;
+
+}
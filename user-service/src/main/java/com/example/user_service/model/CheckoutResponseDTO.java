@@ -0,0 +1,24 @@
+package com.example.user_service.model;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class CheckoutResponseDTO {
+
+    private String checkoutId;
+
+    private List<PurchaseResponseDTO> lines;
+
+    private Long total;
+
+    //milliseconds per step and for the whole checkout, the same values go out in the Server-Timing header
+    private Map<String, Double> timings;
+
+}
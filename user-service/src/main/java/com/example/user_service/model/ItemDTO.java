@@ -1,22 +0,0 @@
-package com.example.user_service.model;
-
-import lombok.*;
-
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-@ToString
-public class ItemDTO {
-
-    private Long itemId;
-
-    private String itemName;
-
-    private Long price;
-
-    private String description;
-
-    private int quantity;
-
-}
\ No newline at end of file
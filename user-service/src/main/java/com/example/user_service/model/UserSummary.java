@@ -0,0 +1,13 @@
+package com.example.user_service.model;
+
+public interface UserSummary {
+
+    long getUserId();
+
+    String getUserName();
+
+    String getEmail();
+
+    String getRole();
+
+}
@@ -1,8 +1,19 @@
 package com.example.user_service.repository;
 
 import com.example.user_service.model.User;
+import com.example.user_service.model.UserSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-queries")})
     User findByEmail(String email);
+
+    List<UserSummary> findByUserIdGreaterThanOrderByUserIdAsc(long userId, Limit limit);
 }
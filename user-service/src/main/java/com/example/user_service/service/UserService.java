@@ -1,7 +1,9 @@
 package com.example.user_service.service;
 
 
+import com.example.common_service.dto.DirectoryPageDTO;
 import com.example.user_service.model.User;
+import com.example.user_service.model.UserSummary;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -19,4 +21,6 @@ public interface UserService {
 
     List<User> getAllUsers();
 
+    DirectoryPageDTO<UserSummary> getUserDirectory(long afterId, int size);
+
 }
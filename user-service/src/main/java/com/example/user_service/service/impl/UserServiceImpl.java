@@ -1,10 +1,14 @@
 package com.example.user_service.service.impl;
 
+import com.example.common_service.dto.DirectoryPageDTO;
 import com.example.user_service.model.User;
+import com.example.user_service.model.UserSummary;
 import com.example.user_service.repository.UserRepository;
 import com.example.user_service.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,38 +16,74 @@ import java.util.Optional;
 @Service
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 500;
+
+    private static final long COUNT_CACHE_TTL_MILLIS = 30_000;
+
     @Autowired
     UserRepository userRepository;
 
+    private volatile long cachedUserCount = -1;
+
+    private volatile long userCountCachedAt;
+
 
     @Override
+    @Transactional
     public User addUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        cachedUserCount = -1;
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         Optional<User> user = userRepository.findById(id);
         return user.orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         Optional<User> user = Optional.ofNullable(userRepository.findByEmail(email));
         return user.orElse(null);
     }
 
     @Override
+    @Transactional
     public String deleteUser(Long id) {
         if(userRepository.findById(id).isPresent()){
             userRepository.deleteById(id);
+            cachedUserCount = -1;
             return "User deleted successfully!";
         }
         return "User not found";
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DirectoryPageDTO<UserSummary> getUserDirectory(long afterId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_DIRECTORY_PAGE_SIZE));
+        List<UserSummary> content = userRepository.findByUserIdGreaterThanOrderByUserIdAsc(afterId, Limit.of(pageSize));
+        Long nextAfterId = content.size() < pageSize ? null : content.get(content.size() - 1).getUserId();
+        return new DirectoryPageDTO<>(content, nextAfterId, getUserCount());
+    }
+
+    private long getUserCount() {
+        long now = System.currentTimeMillis();
+        long count = cachedUserCount;
+        if(count < 0 || now - userCountCachedAt > COUNT_CACHE_TTL_MILLIS){
+            count = userRepository.count();
+            userCountCachedAt = now;
+            cachedUserCount = count;
+        }
+        return count;
+    }
 }
@@ -0,0 +1,165 @@
+package com.example.user_service.checkout;
+
+import com.example.common_service.dto.ItemDTO;
+import com.example.common_service.dto.PurchaseDTO;
+import com.example.common_service.dto.StockReservationDTO;
+import com.example.user_service.feign.ItemFeignClient;
+import com.example.user_service.feign.PurchaseFeignClient;
+import com.example.user_service.model.PurchaseRequestDTO;
+import com.example.user_service.model.User;
+import com.example.user_service.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CheckoutOrchestratorTests {
+
+	private final CheckoutOrchestrator orchestrator = new CheckoutOrchestrator();
+
+	private final ItemFeignClient items = mock(ItemFeignClient.class);
+
+	private final PurchaseFeignClient purchases = mock(PurchaseFeignClient.class);
+
+	private final UserService users = mock(UserService.class);
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		orchestrator.itemFeignClient = items;
+		orchestrator.purchaseFeignClient = purchases;
+		orchestrator.userService = users;
+		orchestrator.objectMapper = new ObjectMapper();
+		orchestrator.smileConverter = mock(ObjectProvider.class);
+		orchestrator.meterRegistry = mock(ObjectProvider.class);
+		orchestrator.environment = new MockEnvironment();
+		orchestrator.lookupThreads = 2;
+		orchestrator.startExecutor();
+		when(users.getUserById(1L)).thenReturn(new User());
+	}
+
+	@AfterEach
+	void tearDown() {
+		orchestrator.stopExecutor();
+	}
+
+	@Test
+	void recordsEveryLineInOneCall() {
+		when(items.reserveStock(any())).thenReturn(List.of(item(1L, 30L), item(2L, 8L)));
+		when(purchases.createPurchases(anyString(), anyList())).thenReturn(List.of(
+				new PurchaseDTO(10L, 1L, 1L, 1), new PurchaseDTO(11L, 1L, 2L, 2)));
+
+		CheckoutResult result = orchestrator.checkout(1L, List.of(line(1L, 1), line(2L, 2)));
+
+		assertThat(result.outcome()).isEqualTo(CheckoutResult.Outcome.COMPLETED);
+		assertThat(result.response().getTotal()).isEqualTo(46L);
+		assertThat(result.response().getLines()).extracting("purchaseId").containsExactly(10L, 11L);
+		assertThat(result.timings()).containsKeys("user", "reserve", "record", "total");
+		verify(purchases, times(1)).createPurchases(anyString(), anyList());
+		verify(items).confirmStock(argThat((StockReservationDTO confirmed) -> confirmed.getCheckoutId() != null));
+		verify(items, never()).releaseStock(any());
+	}
+
+	@Test
+	void completesWhenTheConfirmFails() {
+		when(items.reserveStock(any())).thenReturn(List.of(item(1L, 30L)));
+		when(purchases.createPurchases(anyString(), anyList())).thenReturn(List.of(new PurchaseDTO(10L, 1L, 1L, 1)));
+		when(items.confirmStock(any())).thenThrow(new IllegalStateException("item-service down"));
+
+		CheckoutResult result = orchestrator.checkout(1L, List.of(line(1L, 1)));
+
+		assertThat(result.outcome()).isEqualTo(CheckoutResult.Outcome.COMPLETED);
+		verify(items, never()).releaseStock(any());
+	}
+
+	@Test
+	void releasesTheStockWhenThePurchasesCannotBeRecorded() {
+		when(items.reserveStock(any())).thenReturn(List.of(item(1L, 30L)));
+		when(purchases.createPurchases(anyString(), anyList())).thenThrow(new IllegalStateException("purchase-service down"));
+		when(purchases.abandonCheckout(anyString())).thenReturn(List.of());
+
+		assertThatThrownBy(() -> orchestrator.checkout(1L, List.of(line(1L, 1)))).isInstanceOf(IllegalStateException.class);
+
+		verify(items).releaseStock(argThat((StockReservationDTO released) -> released.getCheckoutId() != null));
+		verify(items, never()).confirmStock(any());
+	}
+
+	@Test
+	void completesWhenThePurchasesWereRecordedDespiteTheFailure() {
+		when(items.reserveStock(any())).thenReturn(List.of(item(1L, 30L)));
+		when(purchases.createPurchases(anyString(), anyList())).thenThrow(new IllegalStateException("read timed out"));
+		when(purchases.abandonCheckout(anyString())).thenReturn(List.of(new PurchaseDTO(10L, 1L, 1L, 1)));
+
+		CheckoutResult result = orchestrator.checkout(1L, List.of(line(1L, 1)));
+
+		assertThat(result.outcome()).isEqualTo(CheckoutResult.Outcome.COMPLETED);
+		assertThat(result.response().getLines()).extracting("purchaseId").containsExactly(10L);
+		verify(items, never()).releaseStock(any());
+		verify(items).confirmStock(any());
+	}
+
+	@Test
+	void keepsTheStockWhenItCannotTellWhetherThePurchasesWereRecorded() {
+		when(items.reserveStock(any())).thenReturn(List.of(item(1L, 30L)));
+		when(purchases.createPurchases(anyString(), anyList())).thenThrow(new IllegalStateException("read timed out"));
+		when(purchases.abandonCheckout(anyString())).thenThrow(new IllegalStateException("purchase-service down"));
+
+		assertThatThrownBy(() -> orchestrator.checkout(1L, List.of(line(1L, 1)))).hasMessage("read timed out");
+
+		verify(items, never()).releaseStock(any());
+		verify(items, never()).confirmStock(any());
+	}
+
+	@Test
+	void releasesTheStockOfAnUnknownUser() {
+		when(items.reserveStock(any())).thenReturn(List.of(item(1L, 30L)));
+
+		CheckoutResult result = orchestrator.checkout(2L, List.of(line(1L, 1)));
+
+		assertThat(result.outcome()).isEqualTo(CheckoutResult.Outcome.USER_NOT_FOUND);
+		verify(items).releaseStock(any());
+		verify(purchases, never()).createPurchases(anyString(), anyList());
+	}
+
+	@Test
+	void shortStockReservesNothingAndNamesTheItems() {
+		when(items.reserveStock(any())).thenThrow(conflict("{\"message\":\"Insufficient stock\",\"itemIds\":[2]}"));
+
+		CheckoutResult result = orchestrator.checkout(1L, List.of(line(1L, 1), line(2L, 5)));
+
+		assertThat(result.outcome()).isEqualTo(CheckoutResult.Outcome.OUT_OF_STOCK);
+		assertThat(result.itemIds()).containsExactly(2L);
+		verify(items, never()).releaseStock(any());
+	}
+
+	private static PurchaseRequestDTO line(Long itemId, int quantity) {
+		return new PurchaseRequestDTO(itemId, quantity);
+	}
+
+	private static ItemDTO item(Long itemId, Long price) {
+		return new ItemDTO(itemId, "item " + itemId, price, null, 10, 1L);
+	}
+
+	private static FeignException conflict(String body) {
+		Request request = Request.create(Request.HttpMethod.POST, "/item/stock/reserve", Map.of(), null, StandardCharsets.UTF_8, null);
+		return FeignException.errorStatus("ItemFeignClient#reserveStock", Response.builder()
+				.status(409).reason("Conflict").request(request).headers(Map.of())
+				.body(body, StandardCharsets.UTF_8).build());
+	}
+}